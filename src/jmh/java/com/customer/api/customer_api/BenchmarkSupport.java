@@ -0,0 +1,119 @@
+package com.customer.api.customer_api;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.tier.TierPolicy;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/** Shared fixtures for the JMH benchmarks. */
+public final class BenchmarkSupport {
+
+    public static final int DISTINCT_NAMES = 1000;
+
+    private BenchmarkSupport() {
+    }
+
+    /** Keeps request logging out of the measurements. */
+    public static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger("com.customer")).setLevel(Level.WARN);
+    }
+
+    /** Starts the application without a web server against a private in-memory database. */
+    public static ConfigurableApplicationContext startContext(String... properties) {
+        return new SpringApplicationBuilder(CustomerApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "customer.tier.recompute-initial-delay=PT24H")
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * Starts the application with Tomcat on a random port and admission control off; read the port back
+     * with {@link #port}.
+     */
+    public static ConfigurableApplicationContext startServer(
+            ApplicationContextInitializer<ConfigurableApplicationContext> initializer, String... properties) {
+        return new SpringApplicationBuilder(CustomerApiApplication.class)
+                .initializers(initializer)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "customer.tier.recompute-initial-delay=PT24H",
+                        // Every benchmark client is 127.0.0.1: admission control would measure 429s and 503s
+                        "customer.rate-limit.enabled=false",
+                        "customer.load-shedding.enabled=false")
+                .properties(properties)
+                .run();
+    }
+
+    /** Fails the benchmark on anything but 200, so error responses are never measured as throughput. */
+    public static int ok(int status) {
+        if (status != 200) {
+            throw new IllegalStateException("Expected 200, got " + status);
+        }
+        return status;
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /** A deterministic customer for index {@code i}. */
+    public static Customer customer(int i, SplittableRandom random, LocalDateTime now) {
+        return Customer.builder()
+                .id(UUID.randomUUID())
+                .name("Customer " + (i % DISTINCT_NAMES))
+                .email("customer" + i + "@example.com")
+                .annualSpend(BigDecimal.valueOf(random.nextInt(2_000_000), 2))
+                .lastPurchaseDate(now.minusMinutes(random.nextInt(60 * 24 * 730)))
+                .build();
+    }
+
+    /** Inserts {@code rows} customers with plain JDBC batches and returns their ids in insert order. */
+    public static List<UUID> seed(JdbcTemplate jdbc, TierPolicy tierPolicy, int rows) {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        TierPolicy.Evaluator tiers = tierPolicy.at(now);
+        List<UUID> ids = new ArrayList<>(rows);
+        List<Object[]> batch = new ArrayList<>(1000);
+        for (int i = 0; i < rows; i++) {
+            Customer customer = customer(i, random, now);
+            tiers.assign(customer);
+            ids.add(customer.getId());
+            batch.add(new Object[]{customer.getId(), customer.getName(), customer.getEmail(),
+                    customer.getAnnualSpend(), Timestamp.valueOf(customer.getLastPurchaseDate()),
+                    customer.getTier().name(), timestamp(customer.getTierValidUntil())});
+            if (batch.size() == 1000 || i == rows - 1) {
+                jdbc.batchUpdate("INSERT INTO customer (id, name, email, annual_spend, last_purchase_date, tier,"
+                        + " tier_valid_until) VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+}
@@ -0,0 +1,109 @@
+package com.customer.api.customer_api.controller;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * GET /customers?email= throughput for emails that exist and emails that do not, as clients probing
+ * before a create send, through the DispatcherServlet, controller, service and exception handler. Lookups
+ * by email are answered from a map instead of the database, and the cache is off, so both sides run the
+ * same request, transaction and repository call and differ only in the 200 or 404 path after it. Requests
+ * are dispatched in-process: on a small machine the socket round trip would hide that difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class CustomerNotFoundBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setup() {
+        Map<String, Customer> customers = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows; i++) {
+            Customer customer = BenchmarkSupport.customer(i, random, now);
+            customers.put(customer.getEmail(), customer);
+        }
+        context = BenchmarkSupport.startServer(
+                ctx -> ctx.getBeanFactory().addBeanPostProcessor(new InMemoryEmails(customers)),
+                "customer.cache.enabled=false");
+        BenchmarkSupport.quietLogging();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int hit() throws Exception {
+        return lookup("customer" + ThreadLocalRandom.current().nextInt(rows) + "@example.com");
+    }
+
+    @Benchmark
+    public int miss() throws Exception {
+        return lookup("prospect" + ThreadLocalRandom.current().nextInt(rows) + "@example.com");
+    }
+
+    private int lookup(String email) throws Exception {
+        return mockMvc.perform(get("/customers").param("email", email)).andReturn().getResponse().getStatus();
+    }
+
+    /** Wraps the customer repository so findByEmail reads a map; everything else goes to the database. */
+    static final class InMemoryEmails implements BeanPostProcessor {
+
+        private final Map<String, Customer> customers;
+
+        InMemoryEmails(Map<String, Customer> customers) {
+            this.customers = customers;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof CustomerRepository repository)) {
+                return bean;
+            }
+            return Proxy.newProxyInstance(CustomerRepository.class.getClassLoader(),
+                    new Class<?>[]{CustomerRepository.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("findByEmail")) {
+                            return Optional.ofNullable(customers.get((String) args[0]));
+                        }
+                        try {
+                            return method.invoke(repository, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
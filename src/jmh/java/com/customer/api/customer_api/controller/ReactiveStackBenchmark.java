@@ -0,0 +1,154 @@
+package com.customer.api.customer_api.controller;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.tier.TierPolicy;
+import io.r2dbc.spi.ConnectionFactory;
+import org.openjdk.jmh.annotations.*;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end GET /customers/{id} under 2000 concurrent clients, servlet/JPA on Tomcat against the
+ * {@code reactive} profile (WebFlux on Netty over R2DBC). Both stacks get a 20-connection pool and
+ * a {@code dbLatencyMillis} delay per statement: the JDBC one sleeps the request thread, as a
+ * blocking driver does, and the R2DBC one defers the statement without holding a thread.
+ * The servlet cache is off so both stacks reach the database on every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(2000)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256k", "-Djdk.httpclient.keepalive.timeout=60"})
+public class ReactiveStackBenchmark {
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    @Param({"5"})
+    public int dbLatencyMillis;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private List<UUID> ids;
+
+    @Setup
+    public void setup() {
+        JdbcTemplate jdbc;
+        if (stack.equals("reactive")) {
+            context = BenchmarkSupport.startServer(
+                    ctx -> ctx.getBeanFactory().addBeanPostProcessor(new SlowConnectionFactory(dbLatencyMillis)),
+                    "spring.profiles.active=reactive");
+            // Seeded over a plain JDBC connection to the database Flyway migrated, as the profile has no DataSource
+            jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                    context.getEnvironment().getRequiredProperty("spring.flyway.url"), "sa", ""));
+        } else {
+            context = BenchmarkSupport.startServer(
+                    ctx -> ctx.getBeanFactory().addBeanPostProcessor(
+                            new RequestThreadingBenchmark.SlowDatabase(dbLatencyMillis)),
+                    "customer.cache.enabled=false",
+                    "spring.datasource.hikari.maximum-pool-size=20");
+            jdbc = context.getBean(JdbcTemplate.class);
+        }
+        BenchmarkSupport.quietLogging();
+        ids = BenchmarkSupport.seed(jdbc, context.getBean(TierPolicy.class), rows);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + BenchmarkSupport.port(context) + "/customers/";
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int getCustomerById() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create(baseUrl + ids.get(ThreadLocalRandom.current().nextInt(rows)))).build();
+        return BenchmarkSupport.ok(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    /** Wraps the pooled ConnectionFactory so every executed statement is delayed without blocking. */
+    static final class SlowConnectionFactory implements BeanPostProcessor {
+
+        private final Duration latency;
+
+        SlowConnectionFactory(long latencyMillis) {
+            this.latency = Duration.ofMillis(latencyMillis);
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof ConnectionFactory)) {
+                return bean;
+            }
+            return proxy(bean, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                return method.getName().equals("create")
+                        ? Mono.from((Publisher<?>) result).map(connection -> proxy(connection, this::connection))
+                        : result;
+            });
+        }
+
+        private Object connection(Object target, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            return method.getName().equals("createStatement") ? proxy(result, this::statement) : result;
+        }
+
+        private Object statement(Object target, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("execute")) {
+                return Mono.delay(latency).thenMany(Flux.from((Publisher<?>) result));
+            }
+            return result;
+        }
+
+        private interface Handler {
+            Object handle(Object target, Method method, Object[] args) throws Throwable;
+        }
+
+        /** A proxy over all of the target's interfaces; fluent calls keep returning the proxy. */
+        private static Object proxy(Object target, Handler handler) {
+            Class<?>[] interfaces = ClassUtils.getAllInterfaces(target);
+            Object[] self = new Object[1];
+            self[0] = Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, (proxy, method, args) -> {
+                Object result = handler.handle(target, method, args);
+                return result == target ? self[0] : result;
+            });
+            return self[0];
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.customer.api.customer_api.controller;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.tier.TierPolicy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end GET /customers/{id} under 2000 concurrent clients, on the default Tomcat worker pool
+ * and with the {@code virtual-threads} profile. Every statement is delayed by {@code dbLatencyMillis}
+ * while holding its pooled connection to stand in for a slow database, and the cache is off so
+ * each request reaches it. SampleTime reports throughput alongside p50/p99/p99.9.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(2000)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256k", "-Djdk.httpclient.keepalive.timeout=60"})
+public class RequestThreadingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"5"})
+    public int dbLatencyMillis;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private List<UUID> ids;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkSupport.startServer(
+                ctx -> ctx.getBeanFactory().addBeanPostProcessor(new SlowDatabase(dbLatencyMillis)),
+                "customer.cache.enabled=false",
+                "spring.datasource.hikari.maximum-pool-size=20",
+                "spring.profiles.active=" + (virtualThreads ? "virtual-threads" : "default"));
+        BenchmarkSupport.quietLogging();
+        ids = BenchmarkSupport.seed(context.getBean(JdbcTemplate.class), context.getBean(TierPolicy.class), rows);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + BenchmarkSupport.port(context) + "/customers/";
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int getCustomerById() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create(baseUrl + ids.get(ThreadLocalRandom.current().nextInt(rows)))).build();
+        return BenchmarkSupport.ok(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    /** Wraps the pooled DataSource so every prepared statement costs a fixed delay. */
+    static final class SlowDatabase implements BeanPostProcessor {
+
+        private final long latencyMillis;
+
+        SlowDatabase(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return slow(super.getConnection());
+                }
+            };
+        }
+
+        private Connection slow(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare")) {
+                            Thread.sleep(latencyMillis);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
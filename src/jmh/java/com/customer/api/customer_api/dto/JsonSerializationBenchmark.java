@@ -0,0 +1,57 @@
+package com.customer.api.customer_api.dto;
+
+import com.customer.api.customer_api.model.Tier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** Jackson cost of the API payloads, using the same ObjectMapper defaults as Spring Boot. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectWriter responseWriter;
+    private ObjectReader requestReader;
+    private CustomerResponse response;
+    private byte[] requestJson;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        responseWriter = objectMapper.writerFor(CustomerResponse.class);
+        requestReader = objectMapper.readerFor(CustomerRequest.class);
+        response = CustomerResponse.builder()
+                .id(UUID.randomUUID())
+                .name("Alice Example")
+                .email("alice@example.com")
+                .annualSpend(new BigDecimal("6000.00"))
+                .lastPurchaseDate(LocalDateTime.of(2024, 9, 1, 12, 30))
+                .tier(Tier.GOLD)
+                .build();
+        requestJson = objectMapper.writeValueAsString(new CustomerRequest("Alice Example", "alice@example.com",
+                new BigDecimal("6000.00"), LocalDateTime.of(2024, 9, 1, 12, 30), null)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public CustomerRequest deserializeRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+}
@@ -0,0 +1,106 @@
+package com.customer.api.customer_api.dto;
+
+import com.customer.api.customer_api.dto.proto.CustomerRequestProto;
+import com.customer.api.customer_api.dto.proto.CustomerResponseProto;
+import com.customer.api.customer_api.model.Tier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON against protobuf for the single-customer payloads: encode and decode cost in both directions, with
+ * the encoded sizes printed at setup. Both sides include the mapping to and from the API DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private ObjectWriter responseWriter;
+    private ObjectReader responseReader;
+    private ObjectWriter requestWriter;
+    private ObjectReader requestReader;
+    private CustomerResponse response;
+    private CustomerRequest request;
+    private byte[] responseJson;
+    private byte[] responseProtobuf;
+    private byte[] requestJson;
+    private byte[] requestProtobuf;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        responseWriter = objectMapper.writerFor(CustomerResponse.class);
+        responseReader = objectMapper.readerFor(CustomerResponse.class);
+        requestWriter = objectMapper.writerFor(CustomerRequest.class);
+        requestReader = objectMapper.readerFor(CustomerRequest.class);
+        response = CustomerResponse.builder()
+                .id(UUID.randomUUID())
+                .name("Alice Example")
+                .email("alice@example.com")
+                .annualSpend(new BigDecimal("6000.00"))
+                .lastPurchaseDate(LocalDateTime.of(2024, 9, 1, 12, 30))
+                .tier(Tier.GOLD)
+                .version(3L)
+                .build();
+        request = new CustomerRequest("Alice Example", "alice@example.com",
+                new BigDecimal("6000.00"), LocalDateTime.of(2024, 9, 1, 12, 30), 3L);
+        responseJson = responseWriter.writeValueAsBytes(response);
+        responseProtobuf = CustomerProtoMapper.toProto(response).toByteArray();
+        requestJson = requestWriter.writeValueAsBytes(request);
+        requestProtobuf = CustomerProtoMapper.toProto(request).toByteArray();
+        System.out.printf("%nresponse: json %d bytes, protobuf %d bytes; request: json %d bytes, protobuf %d bytes%n",
+                responseJson.length, responseProtobuf.length, requestJson.length, requestProtobuf.length);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseJson() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseProtobuf() {
+        return CustomerProtoMapper.toProto(response).toByteArray();
+    }
+
+    @Benchmark
+    public CustomerResponse deserializeResponseJson() throws IOException {
+        return responseReader.readValue(responseJson);
+    }
+
+    @Benchmark
+    public CustomerResponse deserializeResponseProtobuf() throws IOException {
+        return CustomerProtoMapper.fromProto(CustomerResponseProto.parseFrom(responseProtobuf));
+    }
+
+    @Benchmark
+    public byte[] serializeRequestJson() throws IOException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] serializeRequestProtobuf() {
+        return CustomerProtoMapper.toProto(request).toByteArray();
+    }
+
+    @Benchmark
+    public CustomerRequest deserializeRequestJson() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public CustomerRequest deserializeRequestProtobuf() throws IOException {
+        return CustomerProtoMapper.fromProto(CustomerRequestProto.parseFrom(requestProtobuf));
+    }
+}
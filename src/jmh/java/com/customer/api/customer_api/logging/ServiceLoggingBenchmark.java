@@ -0,0 +1,136 @@
+package com.customer.api.customer_api.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.cache.CustomerCache;
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import com.customer.api.customer_api.service.CustomerService;
+import com.customer.api.customer_api.service.impl.CustomerServiceImpl;
+import com.customer.api.customer_api.tier.TierPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service throughput with per-request logging on, comparing the previous setup (every line
+ * written synchronously as plain text) with the shipped one (DEBUG sampled by
+ * {@link DebugSamplingFilter}, JSON written by an async appender). Output goes to a temp file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ServiceLoggingBenchmark {
+
+    @Param({"sync", "async-sampled"})
+    public String mode;
+
+    private CustomerService service;
+    private Customer customer;
+    private File logFile;
+
+    @Setup
+    public void setup() throws IOException {
+        customer = BenchmarkSupport.customer(0, new SplittableRandom(42), LocalDateTime.now());
+        CustomerRepository repository = (CustomerRepository) Proxy.newProxyInstance(
+                CustomerRepository.class.getClassLoader(), new Class<?>[]{CustomerRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(customer);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        CustomerApiProperties properties = new CustomerApiProperties();
+        properties.getCache().setEnabled(false);
+        Clock clock = Clock.systemDefaultZone();
+        service = new CustomerServiceImpl(repository, null, new CustomerCache(properties, clock), null, null,
+                new TierPolicy(properties, clock), clock, null, null, properties,
+                new CustomerMetrics(new SimpleMeterRegistry()));
+
+        logFile = Files.createTempFile("service-logging", ".log").toFile();
+        configureLogging();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        logFile.delete();
+    }
+
+    @Benchmark
+    public CustomerResponse getCustomerById() {
+        return service.getCustomerById(customer.getId());
+    }
+
+    private void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        context.putObject(Environment.class.getName(), new StandardEnvironment());
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.getAbsolutePath());
+        Appender<ILoggingEvent> appender = file;
+        if (mode.equals("sync")) {
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%t] %-40.40logger{39} : %m%n");
+            file.setEncoder(start(encoder, context));
+        } else {
+            StructuredLogEncoder encoder = new StructuredLogEncoder();
+            encoder.setFormat("ecs");
+            file.setEncoder(start(encoder, context));
+
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            appender = async;
+
+            DebugSamplingFilter sampling = new DebugSamplingFilter();
+            sampling.setContext(context);
+            sampling.setLoggerPrefix("com.customer.api.customer_api");
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+        file.start();
+        appender.start();
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        context.getLogger("com.customer.api.customer_api").setLevel(Level.DEBUG);
+    }
+
+    private static Encoder<ILoggingEvent> start(Encoder<ILoggingEvent> encoder, LoggerContext context) {
+        encoder.setContext(context);
+        encoder.start();
+        return encoder;
+    }
+}
@@ -0,0 +1,38 @@
+package com.customer.api.customer_api.metrics;
+
+import com.customer.api.customer_api.model.Tier;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording the application meters against the Prometheus registry.
+ * Run with {@code -prof gc} to confirm the recording path does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerMetricsBenchmark {
+
+    private CustomerMetrics metrics;
+
+    @Setup
+    public void setup() {
+        metrics = new CustomerMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    }
+
+    @Benchmark
+    public void repositoryCall() {
+        metrics.repositoryCall(CustomerMetrics.RepositoryCall.FIND_BY_ID, System.nanoTime());
+    }
+
+    @Benchmark
+    public void tierAssigned() {
+        metrics.tierAssigned(Tier.GOLD);
+    }
+}
@@ -0,0 +1,96 @@
+package com.customer.api.customer_api.repository;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.tier.TierPolicy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository lookups against a seeded H2 database. Latency should stay flat as {@code rows}
+ * grows because every query is served by an index. The database is an H2 file store in a temporary
+ * directory with the prod profile's page cache, so {@code -p rows=10000000} fits in the fork's heap.
+ * The default sizes stop at 1M because of the seed, not the queries: on one core it slows to about
+ * 1k rows/s by 3M rows, so a 10M seed takes hours.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CustomerRepositoryBenchmark {
+
+    private static final Limit PAGE = Limit.of(100);
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private Path dataDir;
+    private ConfigurableApplicationContext context;
+    private CustomerRepository repository;
+    private TransactionTemplate transactionTemplate;
+    private List<UUID> ids;
+
+    @Setup
+    public void setup() throws IOException {
+        dataDir = Files.createTempDirectory("customer-bench");
+        context = BenchmarkSupport.startContext(
+                "spring.datasource.url=jdbc:h2:file:" + dataDir.resolve("customers") + ";CACHE_SIZE=262144");
+        ids = BenchmarkSupport.seed(context.getBean(JdbcTemplate.class), context.getBean(TierPolicy.class), rows);
+        repository = context.getBean(CustomerRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(dataDir);
+    }
+
+    private int randomRow() {
+        return ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    @Benchmark
+    public Optional<Customer> findById() {
+        return repository.findById(ids.get(randomRow()));
+    }
+
+    @Benchmark
+    public Optional<Customer> findByEmail() {
+        return repository.findByEmail("customer" + randomRow() + "@example.com");
+    }
+
+    @Benchmark
+    public List<Customer> findByNamePage() {
+        return repository.findPageByName("Customer " + randomRow() % BenchmarkSupport.DISTINCT_NAMES, PAGE);
+    }
+
+    /** A keyset page starting at a random position; should cost the same as the first page. */
+    @Benchmark
+    public List<Customer> keysetPage() {
+        return repository.findByIdGreaterThanOrderByIdAsc(ids.get(randomRow()), PAGE);
+    }
+
+    @Benchmark
+    public List<Customer> tierPage() {
+        return transactionTemplate.execute(status ->
+                repository.findCurrentByTier(Tier.PLATINUM, LocalDateTime.now(), PAGE));
+    }
+}
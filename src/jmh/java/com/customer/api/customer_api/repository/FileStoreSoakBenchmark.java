@@ -0,0 +1,127 @@
+package com.customer.api.customer_api.repository;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.CustomerApiApplication;
+import com.customer.api.customer_api.service.CustomerBulkService;
+import com.customer.api.customer_api.service.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Soak test of the prod profile's file-backed database: each measured iteration is one segment that
+ * bulk-ingests {@code rows / 20} customers and then reads {@code readsPerSegment} random ones by email,
+ * with the customer cache off so reads hit the store. After every segment it prints the ingest and read
+ * rates and the size of the database file, so both should level off as the table grows to {@code rows}.
+ * A full 10M-row run takes a while; try {@code -p rows=200000} first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = FileStoreSoakBenchmark.SEGMENTS, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FileStoreSoakBenchmark {
+
+    static final int SEGMENTS = 20;
+    private static final int CHUNK = 10_000;
+
+    @Param({"10000000"})
+    public int rows;
+
+    @Param({"20000"})
+    public int readsPerSegment;
+
+    private Path dataDir;
+    private ConfigurableApplicationContext context;
+    private CustomerBulkService bulkService;
+    private CustomerService customerService;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private int ingested;
+
+    @Setup
+    public void setup() throws IOException {
+        dataDir = Files.createTempDirectory("customer-soak");
+        context = start();
+        BenchmarkSupport.quietLogging();
+        bulkService = context.getBean(CustomerBulkService.class);
+        customerService = context.getBean(CustomerService.class);
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CustomerApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("prod")
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "customer.cache.enabled=false",
+                        "customer.tier.recompute-initial-delay=PT24H")
+                .run("--customer.data-dir=" + dataDir);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        // What a restart finds; H2 spends at most MAX_COMPACT_TIME (200 ms) compacting while it closes
+        System.out.printf("%nclosed: %,d rows, %,d bytes on disk (%d bytes/row)%n",
+                ingested, databaseSize(), databaseSize() / Math.max(ingested, 1));
+        FileSystemUtils.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public int segment() throws IOException {
+        long start = System.nanoTime();
+        int target = ingested + rows / SEGMENTS;
+        while (ingested < target) {
+            int chunk = Math.min(CHUNK, target - ingested);
+            ingested += bulkService.createCustomers(new ByteArrayInputStream(ndjson(ingested, chunk))).getCreated();
+        }
+        long ingestNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < readsPerSegment; i++) {
+            found += customerService.getCustomerByEmail("customer" + random.nextInt(ingested) + "@example.com") != null ? 1 : 0;
+        }
+        long readNanos = System.nanoTime() - start;
+
+        long size = databaseSize();
+        System.out.printf("%n%,d rows: ingest %,.0f rows/s, reads %,.0f/s, %,d bytes on disk (%d bytes/row)%n",
+                ingested, rows / (double) SEGMENTS * 1e9 / ingestNanos, readsPerSegment * 1e9 / readNanos,
+                size, size / ingested);
+        return found;
+    }
+
+    private static byte[] ndjson(int first, int count) {
+        StringBuilder body = new StringBuilder(count * 140);
+        LocalDateTime now = LocalDateTime.now();
+        for (int n = first; n < first + count; n++) {
+            body.append("{\"name\":\"Customer ").append(n % BenchmarkSupport.DISTINCT_NAMES)
+                    .append("\",\"email\":\"customer").append(n)
+                    .append("@example.com\",\"annualSpend\":").append(n % 20000).append(".00")
+                    .append(",\"lastPurchaseDate\":\"").append(now.minusMinutes(n % (60 * 24 * 730)))
+                    .append("\"}\n");
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private long databaseSize() {
+        try {
+            return Files.size(dataDir.resolve("customers.mv.db"));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
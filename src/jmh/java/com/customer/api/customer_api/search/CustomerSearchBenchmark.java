@@ -0,0 +1,115 @@
+package com.customer.api.customer_api.search;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerSearchFields;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Latency of one ranked search page (20 ids) against an index of {@code rows} generated customers,
+ * memory-mapped from a temp directory as in the prod profile. Loading the customers for the page
+ * is a batch lookup by id and is not included. Setup prints how long the rebuild took and the
+ * size of the index; a 10M-row rebuild takes a few minutes, so try {@code -p rows=1000000} first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CustomerSearchBenchmark {
+
+    private static final String[] FIRST = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+            "Linda", "David", "Elizabeth", "Maria", "José", "Wei", "Priya", "Mohammed", "Fatima", "Olga", "Kenji",
+            "Amara", "Lucas", "Sofia", "Liam", "Noah", "Emma", "Ava", "Mateo", "Aisha", "Yuki", "Ivan", "Chloe"};
+    private static final String[] SYLLABLES = {"smi", "th", "son", "gar", "cia", "mar", "tin", "ez", "lee",
+            "ng", "ber", "ger", "ova", "kov", "ich", "ham", "ley", "ton", "field", "ford", "wood", "ross"};
+
+    @Param({"10000000"})
+    public int rows;
+
+    // A common prefix, a surname, first name and surname prefix, and one exact email
+    @Param({"ma", "smith", "maria gar", "john.smith62@example.com"})
+    public String query;
+
+    private Path indexDir;
+    private CustomerSearchIndex index;
+
+    @Setup
+    public void setup() throws IOException {
+        indexDir = Files.createTempDirectory("customer-search");
+        CustomerApiProperties properties = new CustomerApiProperties();
+        properties.getSearch().setIndexDir(indexDir.toString());
+        properties.getSearch().setRamBufferMb(256);
+        CustomerRepository repository = (CustomerRepository) Proxy.newProxyInstance(
+                CustomerRepository.class.getClassLoader(), new Class<?>[]{CustomerRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "streamSearchFields" -> customers(rows);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        index = new CustomerSearchIndex(properties, repository, new NoTransactions());
+
+        long start = System.nanoTime();
+        index.rebuild();
+        System.out.printf("%nindexed %,d customers in %,d s, %,d bytes on disk%n", rows,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), directorySize());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        index.close();
+        FileSystemUtils.deleteRecursively(indexDir);
+    }
+
+    @Benchmark
+    public CustomerSearchIndex.Hits search() {
+        return index.search(query, 0, 20);
+    }
+
+    private static Stream<CustomerSearchFields> customers(int rows) {
+        return IntStream.range(0, rows).mapToObj(i -> {
+            String first = FIRST[i % FIRST.length];
+            int n = i / FIRST.length;
+            String last = SYLLABLES[n % SYLLABLES.length] + SYLLABLES[(n / SYLLABLES.length) % SYLLABLES.length];
+            last = Character.toUpperCase(last.charAt(0)) + last.substring(1);
+            String email = (first + "." + last + (i % 100)).toLowerCase() + "@example.com";
+            return new CustomerSearchFields(UUID.randomUUID(), first + " " + last, email);
+        });
+    }
+
+    private long directorySize() throws IOException {
+        try (Stream<Path> files = Files.list(indexDir)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    /** The rows come from memory, so the rebuild's read-only transaction has nothing to do. */
+    private static final class NoTransactions implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.dto.CustomerLookupRequest;
+import com.customer.api.customer_api.dto.CustomerLookupResponse;
+import com.customer.api.customer_api.tier.TierPolicy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving a page render's worth of customers ({@value #KEYS} ids) one {@code getCustomerById}
+ * at a time against a single {@code lookupCustomers} call, with the cache off so both reach the
+ * database. Scores are per customer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+@OperationsPerInvocation(BatchLookupBenchmark.KEYS)
+public class BatchLookupBenchmark {
+
+    static final int KEYS = 100;
+
+    @Param({"100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService service;
+    private List<UUID> ids;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkSupport.startContext("customer.cache.enabled=false");
+        BenchmarkSupport.quietLogging();
+        ids = BenchmarkSupport.seed(context.getBean(JdbcTemplate.class), context.getBean(TierPolicy.class), rows);
+        service = context.getBean(CustomerService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getCustomerByIdEach(Blackhole blackhole) {
+        for (UUID id : randomIds()) {
+            blackhole.consume(service.getCustomerById(id));
+        }
+    }
+
+    @Benchmark
+    public CustomerLookupResponse lookupCustomers() {
+        return service.lookupCustomers(new CustomerLookupRequest(randomIds(), null));
+    }
+
+    private List<UUID> randomIds() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<UUID> keys = new ArrayList<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            keys.add(ids.get(random.nextInt(rows)));
+        }
+        return keys;
+    }
+}
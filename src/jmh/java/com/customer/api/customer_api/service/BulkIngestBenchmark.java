@@ -0,0 +1,81 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.dto.CustomerRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest throughput: one createCustomer call (and transaction) per row, as POST /customers
+ * does, against the chunked, JDBC-batched bulk path. Scores are per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkIngestBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private CustomerBulkService bulkService;
+    private JdbcTemplate jdbc;
+    private long sequence;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkSupport.startContext();
+        BenchmarkSupport.quietLogging();
+        customerService = context.getBean(CustomerService.class);
+        bulkService = context.getBean(CustomerBulkService.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbc.execute("DELETE FROM customer");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleRowCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            long n = sequence++;
+            customerService.createCustomer(new CustomerRequest("Customer " + n, "customer" + n + "@example.com",
+                    new BigDecimal("2500.00"), now, null));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int bulkCreate() throws IOException {
+        StringBuilder body = new StringBuilder(ROWS * 120);
+        String now = LocalDateTime.now().toString();
+        for (int i = 0; i < ROWS; i++) {
+            long n = sequence++;
+            body.append("{\"name\":\"Customer ").append(n)
+                    .append("\",\"email\":\"customer").append(n)
+                    .append("@example.com\",\"annualSpend\":2500.00,\"lastPurchaseDate\":\"").append(now)
+                    .append("\"}\n");
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        return bulkService.createCustomers(new ByteArrayInputStream(bytes)).getCreated();
+    }
+}
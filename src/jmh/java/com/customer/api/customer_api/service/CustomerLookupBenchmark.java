@@ -0,0 +1,60 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.tier.TierPolicy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency distribution through the full service stack against a seeded H2 database,
+ * with and without the read-through cache. SampleTime mode reports p50/p90/p99/p99.9.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class CustomerLookupBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    @Param({"100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService service;
+    private List<UUID> ids;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkSupport.startContext("customer.cache.enabled=" + cacheEnabled);
+        BenchmarkSupport.quietLogging();
+        ids = BenchmarkSupport.seed(context.getBean(JdbcTemplate.class), context.getBean(TierPolicy.class), rows);
+        service = context.getBean(CustomerService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CustomerResponse getCustomerById() {
+        return service.getCustomerById(ids.get(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public CustomerResponse getCustomerByEmail() {
+        return service.getCustomerByEmail("customer" + ThreadLocalRandom.current().nextInt(rows) + "@example.com");
+    }
+}
@@ -0,0 +1,81 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.cache.CustomerCache;
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerPage;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import com.customer.api.customer_api.service.impl.CustomerServiceImpl;
+import com.customer.api.customer_api.tier.TierPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping (including tier evaluation) in CustomerServiceImpl, with the
+ * repository stubbed out so only the service's own work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerMappingBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private CustomerService service;
+    private Customer customer;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Customer> page = new ArrayList<>();
+        for (int i = 0; i <= PAGE_SIZE; i++) {
+            page.add(BenchmarkSupport.customer(i, random, now));
+        }
+        customer = page.get(0);
+
+        CustomerRepository repository = (CustomerRepository) Proxy.newProxyInstance(
+                CustomerRepository.class.getClassLoader(), new Class<?>[]{CustomerRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(customer);
+                    case "findAllByOrderByIdAsc" -> page;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        CustomerApiProperties properties = new CustomerApiProperties();
+        properties.getCache().setEnabled(false);
+        Clock clock = Clock.systemDefaultZone();
+        service = new CustomerServiceImpl(repository, null, new CustomerCache(properties, clock), null, null,
+                new TierPolicy(properties, clock), clock, null, null, properties,
+                new CustomerMetrics(new SimpleMeterRegistry()));
+    }
+
+    /** One lookup: a single toResponse plus its tier evaluation. */
+    @Benchmark
+    public CustomerResponse singleResponse() {
+        return service.getCustomerById(customer.getId());
+    }
+
+    /** A full page mapped against one tier evaluator; reported per customer. */
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public CustomerPage pagePerCustomer() {
+        return service.listCustomers(null, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,144 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.repository.CustomerChangeRepository;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import com.customer.api.customer_api.repository.CustomerRollupRepository;
+import com.customer.api.customer_api.tier.TierPolicy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-heavy load: updates of random customers through the single-statement PUT and PATCH paths
+ * against the previous findById + save flow. Hibernate statistics report the JDBC statements each
+ * variant prepared per operation when the trial ends; the rollup MERGEs run over JDBC and are not counted.
+ * <p>
+ * {@code bareUpdate} is that UPDATE alone; {@code bookkeptUpdate} adds the row lock, outbox insert and
+ * rollup MERGEs that the service runs around it, so the gap between the two is what they cost. The
+ * service path also updates the search index and cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class CustomerWriteBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService service;
+    private CustomerRepository repository;
+    private CustomerChangeRepository changeRepository;
+    private CustomerRollupRepository rollupRepository;
+    private TierPolicy tierPolicy;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private List<UUID> ids;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkSupport.startContext("spring.jpa.properties.hibernate.generate_statistics=true");
+        BenchmarkSupport.quietLogging();
+        ids = BenchmarkSupport.seed(context.getBean(JdbcTemplate.class), context.getBean(TierPolicy.class), rows);
+        service = context.getBean(CustomerService.class);
+        repository = context.getBean(CustomerRepository.class);
+        changeRepository = context.getBean(CustomerChangeRepository.class);
+        rollupRepository = context.getBean(CustomerRollupRepository.class);
+        tierPolicy = context.getBean(TierPolicy.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%d statements over %d transactions (%.2f per write)%n",
+                statistics.getPrepareStatementCount(), statistics.getTransactionCount(),
+                (double) statistics.getPrepareStatementCount() / statistics.getTransactionCount());
+        context.close();
+    }
+
+    /** The replaced flow: load the managed entity, copy the fields over, save and flush on commit. */
+    @Benchmark
+    public Customer readThenSave() {
+        int i = ThreadLocalRandom.current().nextInt(rows);
+        return transactionTemplate.execute(status -> {
+            Customer customer = repository.findById(ids.get(i)).orElseThrow();
+            customer.setName("Customer " + i);
+            customer.setEmail("customer" + i + "@example.com");
+            customer.setAnnualSpend(spend());
+            customer.setLastPurchaseDate(LocalDateTime.now());
+            tierPolicy.evaluator().assign(customer);
+            return repository.save(customer);
+        });
+    }
+
+    @Benchmark
+    public Object singleStatementUpdate() {
+        int i = ThreadLocalRandom.current().nextInt(rows);
+        return service.updateCustomer(ids.get(i), new CustomerRequest("Customer " + i,
+                "customer" + i + "@example.com", spend(), LocalDateTime.now(), null));
+    }
+
+    @Benchmark
+    public Integer bareUpdate() {
+        int i = ThreadLocalRandom.current().nextInt(rows);
+        Customer customer = tiered(spend());
+        return transactionTemplate.execute(status -> update(ids.get(i), i, customer));
+    }
+
+    @Benchmark
+    public Integer bookkeptUpdate() {
+        int i = ThreadLocalRandom.current().nextInt(rows);
+        Customer customer = tiered(spend());
+        UUID id = ids.get(i);
+        return transactionTemplate.execute(status -> {
+            repository.lockIdById(id).orElseThrow();
+            changeRepository.recordUpdated(id, customer.getTier().name(), LocalDateTime.now());
+            rollupRepository.remove(List.of(id));
+            int updated = update(id, i, customer);
+            rollupRepository.add(List.of(id));
+            return updated;
+        });
+    }
+
+    @Benchmark
+    public Object patch() {
+        int i = ThreadLocalRandom.current().nextInt(rows);
+        return service.patchCustomer(ids.get(i), CustomerPatchRequest.builder().annualSpend(spend()).build());
+    }
+
+    private Customer tiered(BigDecimal spend) {
+        Customer customer = Customer.builder().annualSpend(spend).lastPurchaseDate(LocalDateTime.now()).build();
+        tierPolicy.evaluator().assign(customer);
+        return customer;
+    }
+
+    private int update(UUID id, int i, Customer customer) {
+        return repository.updateById(id, "Customer " + i, "customer" + i + "@example.com", customer.getAnnualSpend(),
+                customer.getLastPurchaseDate(), customer.getTier(), customer.getTierValidUntil(), null);
+    }
+
+    private static BigDecimal spend() {
+        return BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(2_000_000), 2);
+    }
+}
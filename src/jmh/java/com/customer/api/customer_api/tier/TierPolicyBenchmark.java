@@ -0,0 +1,97 @@
+package com.customer.api.customer_api.tier;
+
+import com.customer.api.customer_api.BenchmarkSupport;
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.Tier;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tier evaluation: the original per-call implementation against {@link TierPolicy}.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TierPolicyBenchmark {
+
+    private static final int BATCH = 1000;
+
+    private TierPolicy policy;
+    private List<Customer> customers;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        policy = new TierPolicy(new CustomerApiProperties(), Clock.systemDefaultZone());
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        customers = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            customers.add(BenchmarkSupport.customer(i, random, now));
+        }
+    }
+
+    private Customer next() {
+        Customer customer = customers.get(cursor);
+        cursor = (cursor + 1) % BATCH;
+        return customer;
+    }
+
+    @Benchmark
+    public String legacyCalculateTier() {
+        Customer customer = next();
+        return legacyCalculateTier(customer.getAnnualSpend(), customer.getLastPurchaseDate());
+    }
+
+    @Benchmark
+    public Tier evaluatorPerCall() {
+        return policy.evaluator().tierOf(next());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void legacyBatch(Blackhole blackhole) {
+        for (Customer customer : customers) {
+            blackhole.consume(legacyCalculateTier(customer.getAnnualSpend(), customer.getLastPurchaseDate()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Tier[] evaluateAll() {
+        return policy.evaluateAll(customers);
+    }
+
+    /** CustomerServiceImpl#calculateTier before TierPolicy, minus its log statements. */
+    private static String legacyCalculateTier(BigDecimal spend, LocalDateTime lastPurchase) {
+        if (spend == null) return "Silver";
+
+        if (spend.compareTo(new BigDecimal("10000")) >= 0 &&
+                lastPurchase != null &&
+                lastPurchase.isAfter(LocalDateTime.now().minusMonths(6))) {
+            return "Platinum";
+        }
+
+        if (spend.compareTo(new BigDecimal("1000")) >= 0 &&
+                spend.compareTo(new BigDecimal("10000")) < 0 &&
+                lastPurchase != null &&
+                lastPurchase.isAfter(LocalDateTime.now().minusMonths(12))) {
+            return "Gold";
+        }
+
+        return "Silver";
+    }
+}
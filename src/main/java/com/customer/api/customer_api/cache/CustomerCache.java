@@ -0,0 +1,180 @@
+package com.customer.api.customer_api.cache;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded read-through cache of {@link CustomerResponse} keyed by id, with a secondary
+ * email to id index. Entries expire after the configured TTL or when the cached
+ * tier would change with the passage of time, whichever comes first.
+ * <p>
+ * Writers bump a generation counter on every eviction; a reader only populates the cache
+ * if no eviction happened between its database read and its put, so a lookup racing an
+ * update can never re-insert the pre-update row.
+ */
+@Component
+public class CustomerCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, Entry> byId;
+    private final Map<String, UUID> idsByEmail = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final ConcurrentStatsCounter statsCounter = new ConcurrentStatsCounter();
+    private final Clock clock;
+
+    public CustomerCache(CustomerApiProperties properties, Clock clock) {
+        CustomerApiProperties.Cache config = properties.getCache();
+        this.enabled = config.isEnabled();
+        this.clock = clock;
+        long ttlNanos = config.getTtl().toNanos();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfter(new TierAwareExpiry(ttlNanos))
+                .executor(Runnable::run)
+                .removalListener((UUID id, Entry entry, RemovalCause cause) -> {
+                    if (id != null && entry != null) {
+                        removeIndexes(id, entry.response());
+                    }
+                })
+                .recordStats(() -> statsCounter)
+                .build();
+    }
+
+    /** Snapshot to take before reading from the database; pass it back to {@link #put}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    public CustomerResponse getById(UUID id) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = byId.getIfPresent(id);
+        return entry == null ? null : entry.response();
+    }
+
+    public CustomerResponse getByEmail(String email) {
+        if (!enabled) {
+            return null;
+        }
+        UUID id = idsByEmail.get(email);
+        if (id == null) {
+            statsCounter.recordMisses(1);
+            return null;
+        }
+        CustomerResponse response = getById(id);
+        if (response == null || !email.equals(response.getEmail())) {
+            idsByEmail.remove(email, id);
+            return null;
+        }
+        return response;
+    }
+
+    /**
+     * Caches a response read from the database.
+     *
+     * @param seenGeneration value of {@link #generation()} taken before the read
+     * @param tierValidUntil instant at which the response's tier changes, or {@code null} if it never does
+     */
+    public void put(long seenGeneration, CustomerResponse response, LocalDateTime tierValidUntil) {
+        if (!enabled || generation.get() != seenGeneration) {
+            return;
+        }
+        long validForNanos = tierValidUntil == null
+                ? Long.MAX_VALUE
+                : Duration.between(LocalDateTime.now(clock), tierValidUntil).toNanos();
+        if (validForNanos <= 0) {
+            return;
+        }
+        UUID id = response.getId();
+        byId.put(id, new Entry(response, validForNanos));
+        idsByEmail.put(response.getEmail(), id);
+        if (generation.get() != seenGeneration) {
+            // An eviction raced this put; drop what we may have just re-inserted.
+            byId.invalidate(id);
+        }
+    }
+
+    /**
+     * Evicts a customer and the given emails now and, when called inside
+     * a transaction, again once it completes so readers cannot repopulate uncommitted state.
+     */
+    public void evict(UUID id, String... emails) {
+        evictNow(id, emails);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(id, emails);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return byId.stats();
+    }
+
+    public long size() {
+        return byId.estimatedSize();
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        byId.invalidateAll();
+        idsByEmail.clear();
+    }
+
+    private void evictNow(UUID id, String... emails) {
+        generation.incrementAndGet();
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        for (String email : emails) {
+            if (email != null) {
+                idsByEmail.remove(email);
+            }
+        }
+    }
+
+    private void removeIndexes(UUID id, CustomerResponse response) {
+        idsByEmail.remove(response.getEmail(), id);
+    }
+
+    private record Entry(CustomerResponse response, long validForNanos) {
+    }
+
+    private record TierAwareExpiry(long ttlNanos) implements Expiry<UUID, Entry> {
+        @Override
+        public long expireAfterCreate(UUID id, Entry entry, long currentTime) {
+            return Math.min(ttlNanos, entry.validForNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID id, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID id, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.customer.api.customer_api.cache;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.exception.IdempotencyKeyReusedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Outcomes of requests sent with an {@code Idempotency-Key}, so that a client retrying after a timeout
+ * gets the first attempt's result instead of a second write. Keys are kept for {@code ttl}, at most
+ * {@code maxKeys} of them, in this instance's memory: a retry that reaches another instance, or comes
+ * after a restart, is not recognised.
+ * <p>
+ * Only successful outcomes are kept. A retry that arrives while the first attempt is still running
+ * waits for it; if that attempt fails, the retry runs in its place.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private final Cache<String, CompletableFuture<Outcome>> outcomes;
+
+    public IdempotencyKeyStore(CustomerApiProperties properties) {
+        CustomerApiProperties.Idempotency config = properties.getIdempotency();
+        this.outcomes = Caffeine.newBuilder()
+                .expireAfterWrite(config.getTtl())
+                .maximumSize(config.getMaxKeys())
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Runs {@code action} once per key and returns its result, then the same result for every later call
+     * with the key. {@code request} must equal the first call's: reusing a key for a different request is
+     * a client bug and raises {@link IdempotencyKeyReusedException}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object request, Supplier<T> action) {
+        while (true) {
+            CompletableFuture<Outcome> pending = new CompletableFuture<>();
+            CompletableFuture<Outcome> previous = outcomes.asMap().putIfAbsent(key, pending);
+            if (previous == null) {
+                return (T) run(key, request, action, pending).result();
+            }
+            Outcome outcome;
+            try {
+                outcome = previous.join();
+            } catch (CompletionException ex) {
+                // The first attempt failed and gave the key up; try to take it
+                continue;
+            }
+            if (!outcome.request().equals(request)) {
+                throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different request");
+            }
+            return (T) outcome.result();
+        }
+    }
+
+    private Outcome run(String key, Object request, Supplier<?> action, CompletableFuture<Outcome> pending) {
+        try {
+            Outcome outcome = new Outcome(request, action.get());
+            pending.complete(outcome);
+            return outcome;
+        } catch (RuntimeException | Error ex) {
+            outcomes.asMap().remove(key, pending);
+            pending.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private record Outcome(Object request, Object result) {
+    }
+}
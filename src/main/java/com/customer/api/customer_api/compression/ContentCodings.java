@@ -0,0 +1,52 @@
+package com.customer.api.customer_api.compression;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** Content-coding negotiation against a request's Accept-Encoding header. */
+public final class ContentCodings {
+
+    private ContentCodings() {
+    }
+
+    /**
+     * The first of {@code offered} (the server's order of preference) that {@code acceptEncoding} allows
+     * with a non-zero weight, or {@code null} when it allows none of them or the header is missing.
+     */
+    public static String negotiate(String acceptEncoding, List<String> offered) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        Map<String, Double> weights = new HashMap<>();
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.isEmpty()) {
+                weights.put(coding, weight(parts));
+            }
+        }
+        for (String coding : offered) {
+            Double weight = weights.getOrDefault(coding, weights.get("*"));
+            if (weight != null && weight > 0) {
+                return coding;
+            }
+        }
+        return null;
+    }
+
+    private static double weight(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,292 @@
+package com.customer.api.customer_api.compression;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.github.luben.zstd.util.Native;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses {@code /customers} responses with the first of the configured codings the client accepts.
+ * Each response is held back until it reaches {@code minResponseSize}: smaller ones go out as they are,
+ * with a Content-Length, larger ones are compressed as they are written, streams included. Responses that
+ * already have a Content-Encoding (the pre-compressed export) pass through, and so do responses with an
+ * ETag: those are single customers, and If-Match only takes the strong ETag of the uncompressed body.
+ */
+@Slf4j
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    static final String GZIP = "gzip";
+    static final String ZSTD = "zstd";
+    private static final Set<String> SUPPORTED = Set.of(GZIP, ZSTD);
+
+    private final List<String> encodings;
+    private final List<MediaType> mimeTypes;
+    private final int threshold;
+    private final int gzipLevel;
+    private final int zstdLevel;
+
+    public ResponseCompressionFilter(CustomerApiProperties.Compression compression) {
+        List<String> encodings = new ArrayList<>();
+        for (String encoding : compression.getEncodings()) {
+            if (!SUPPORTED.contains(encoding)) {
+                throw new IllegalArgumentException("Unsupported customer.compression.encodings entry: " + encoding);
+            }
+            if (encoding.equals(ZSTD) && !zstdAvailable()) {
+                continue;
+            }
+            encodings.add(encoding);
+        }
+        this.encodings = List.copyOf(encodings);
+        this.mimeTypes = compression.getMimeTypes().stream().map(MediaType::parseMediaType).toList();
+        this.threshold = (int) Math.max(1, compression.getMinResponseSize().toBytes());
+        this.gzipLevel = compression.getGzipLevel();
+        this.zstdLevel = compression.getZstdLevel();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String encoding = ContentCodings.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING), encodings);
+        if (encoding == null || request.getMethod().equals("HEAD")) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CompressingResponse compressing = new CompressingResponse(response, encoding);
+        chain.doFilter(request, compressing);
+        compressing.finish();
+    }
+
+    private static boolean zstdAvailable() {
+        try {
+            Native.load();
+            return true;
+        } catch (UnsatisfiedLinkError ex) {
+            log.warn("zstd native library unavailable on this platform; offering the other encodings only", ex);
+            return false;
+        }
+    }
+
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final String encoding;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final ServletOutputStream stream = new DeferredStream();
+        private PrintWriter writer;
+        private long contentLength = -1;
+        // Null until the response is known to go out compressed or as it is
+        private OutputStream target;
+        private boolean compressing;
+
+        CompressingResponse(HttpServletResponse response, String encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (target == null) {
+                contentLength = length;
+                // The whole body is known to be small, or not ours to compress: no need to hold it back
+                if (length < threshold || !compressible()) {
+                    try {
+                        decide(false);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+            } else if (!compressing) {
+                super.setContentLengthLong(length);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            // Held back bytes stay held back until the threshold or the end of the response
+            if (target != null) {
+                target.flush();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            buffer.reset();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            buffer.reset();
+            contentLength = -1;
+            super.reset();
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                if (buffer.size() == 0) {
+                    return;
+                }
+                if (contentLength < 0) {
+                    contentLength = buffer.size();
+                }
+                decide(false);
+            }
+            if (compressing) {
+                // Writes the encoder's trailer; the container closes the response stream anyway
+                target.close();
+            }
+        }
+
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            if (target == null) {
+                buffer.write(bytes, offset, length);
+                if (buffer.size() >= threshold) {
+                    decide(compressible());
+                }
+                return;
+            }
+            target.write(bytes, offset, length);
+        }
+
+        private void decide(boolean compress) throws IOException {
+            OutputStream out = super.getOutputStream();
+            if (compress) {
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+                target = encoder(out);
+                compressing = true;
+            } else {
+                if (contentLength >= 0) {
+                    super.setContentLengthLong(contentLength);
+                }
+                target = out;
+            }
+            buffer.writeTo(target);
+            buffer.reset();
+        }
+
+        private boolean compressible() {
+            if (containsHeader(HttpHeaders.CONTENT_ENCODING) || containsHeader(HttpHeaders.ETAG)) {
+                return false;
+            }
+            String contentType = getContentType();
+            if (contentType == null) {
+                return false;
+            }
+            try {
+                MediaType type = MediaType.parseMediaType(contentType);
+                return mimeTypes.stream().anyMatch(candidate -> candidate.includes(type));
+            } catch (InvalidMediaTypeException ex) {
+                return false;
+            }
+        }
+
+        private OutputStream encoder(OutputStream out) throws IOException {
+            return encoding.equals(ZSTD)
+                    ? new ZstdOutputStream(out, zstdLevel)
+                    : new LeveledGzipOutputStream(out, gzipLevel);
+        }
+
+        private final class DeferredStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                CompressingResponse.this.write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                CompressingResponse.this.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (target != null) {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                throw new UnsupportedOperationException("Compressed responses are written synchronously");
+            }
+        }
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.customer.api.customer_api.config;
+
+import com.customer.api.customer_api.compression.ResponseCompressionFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * Response compression for the servlet controllers, switched off with {@code customer.compression.enabled}.
+ * Tomcat's own compression (server.compression) only does gzip and should stay off alongside it.
+ */
+@Configuration
+@Profile("!reactive")
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilter(CustomerApiProperties properties) {
+        FilterRegistrationBean<ResponseCompressionFilter> registration = new FilterRegistrationBean<>(
+                new ResponseCompressionFilter(properties.getCompression()));
+        registration.addUrlPatterns("/customers", "/customers/*");
+        // After admission control, so rejected requests are answered without buffering
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        registration.setEnabled(properties.getCompression().isEnabled());
+        return registration;
+    }
+}
@@ -0,0 +1,171 @@
+package com.customer.api.customer_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "customer")
+public class CustomerApiProperties {
+
+    private Bulk bulk = new Bulk();
+    private Paging paging = new Paging();
+    private Lookup lookup = new Lookup();
+    private Http http = new Http();
+    private Cache cache = new Cache();
+    private Idempotency idempotency = new Idempotency();
+    private Tier tier = new Tier();
+    private Replica replica = new Replica();
+    private Outbox outbox = new Outbox();
+    private Search search = new Search();
+    private RateLimit rateLimit = new RateLimit();
+    private LoadShedding loadShedding = new LoadShedding();
+    private Compression compression = new Compression();
+    private Export export = new Export();
+
+    @Data
+    public static class Bulk {
+        /**
+         * Number of rows written per transaction / JDBC batch. Should match
+         * spring.jpa.properties.hibernate.jdbc.batch_size.
+         */
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Paging {
+        private int defaultLimit = 100;
+        private int maxLimit = 1000;
+    }
+
+    @Data
+    public static class Lookup {
+        /** Most ids and emails, together, accepted by one POST /customers/lookup. */
+        private int maxKeys = 1000;
+        /** Keys bound into each IN (...) query. */
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Http {
+        /**
+         * How long a client may reuse a customer read before revalidating it with If-None-Match.
+         * Never extends past the moment the customer's tier lapses.
+         */
+        private Duration maxAge = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maxSize = 100_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Idempotency {
+        /** How long a retry with the same Idempotency-Key gets the original response. */
+        private Duration ttl = Duration.ofHours(24);
+        private long maxKeys = 100_000;
+    }
+
+    @Data
+    public static class Tier {
+        private BigDecimal platinumMinSpend = new BigDecimal("10000");
+        private BigDecimal goldMinSpend = new BigDecimal("1000");
+        /** How recent the last purchase must be for Platinum. */
+        private Period platinumWindow = Period.ofMonths(6);
+        /** How recent the last purchase must be for Gold. */
+        private Period goldWindow = Period.ofMonths(12);
+        /** Rows re-tiered per transaction by the scheduled recompute job. */
+        private int recomputeChunkSize = 500;
+    }
+
+    @Data
+    public static class Replica {
+        /** JDBC URLs of read replicas (comma-separated); without any, all traffic goes to spring.datasource. */
+        private List<String> urls = new ArrayList<>();
+        /** Replica credentials; default to the primary's. */
+        private String username;
+        private String password;
+        private int poolSize = 10;
+        /** Kept short so reads sent to a replica that went down since the last health check fail fast. */
+        private Duration connectionTimeout = Duration.ofSeconds(1);
+        /** After a write, the same client's requests stay on the primary this long (read-your-writes). */
+        private Duration stickyWindow = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Outbox {
+        /** Changes published per relay transaction. */
+        private int batchSize = 500;
+        /** How long published changes stay readable through GET /customers/changes. */
+        private Duration retention = Duration.ofDays(7);
+        /** When set, published changes are appended to this file as newline-delimited JSON. */
+        private String file;
+    }
+
+    @Data
+    public static class Search {
+        /** Where the search index is memory-mapped; kept on the heap when unset. Rebuilt on every start. */
+        private String indexDir;
+        /** Indexing buffer; larger values speed up the startup rebuild. */
+        private double ramBufferMb = 64;
+        /** Deepest result (offset + limit) a search may page to; deeper pages cost more to rank. */
+        private int maxWindow = 10_000;
+    }
+
+    @Data
+    public static class RateLimit {
+        private boolean enabled = true;
+        /** Sustained rate and burst of each client's reads (GET, and POST /customers/lookup). */
+        private double readsPerSecond = 200;
+        private int readBurst = 400;
+        /** Sustained rate and burst of each client's writes; a bulk request counts once. */
+        private double writesPerSecond = 50;
+        private int writeBurst = 100;
+        /** Clients tracked at once; the least recently seen are forgotten first. */
+        private long maxClients = 100_000;
+    }
+
+    @Data
+    public static class LoadShedding {
+        private boolean enabled = true;
+        /** Bounds of the adaptive limit on requests in flight; keep maxLimit below the server's thread pool. */
+        private int initialLimit = 50;
+        private int minLimit = 10;
+        private int maxLimit = 180;
+        /** Shed once recent response times exceed the long-run average by this factor. */
+        private double latencyTolerance = 2.0;
+        /** Factor applied to the limit each time it is cut. */
+        private double backoffRatio = 0.9;
+        /** Share of the limit kept for critical lookups (by id, by email, POST /customers/lookup). */
+        private double criticalReserve = 0.2;
+    }
+
+    @Data
+    public static class Compression {
+        private boolean enabled = true;
+        /** Responses smaller than this are sent uncompressed. */
+        private DataSize minResponseSize = DataSize.ofKilobytes(2);
+        /** Codings offered (gzip, zstd), best first; a client gets the first one it accepts. */
+        private List<String> encodings = new ArrayList<>(List.of("zstd", "gzip"));
+        private List<String> mimeTypes = new ArrayList<>(List.of("application/json", "application/x-ndjson", "text/csv"));
+        /** 1 (fastest) to 9 (smallest). */
+        private int gzipLevel = 6;
+        /** 1 (fastest) to 19 (smallest). */
+        private int zstdLevel = 3;
+    }
+
+    @Data
+    public static class Export {
+        /** Where GET /customers/export keeps its snapshot files; a temporary directory when unset. */
+        private String dir;
+    }
+}
@@ -0,0 +1,20 @@
+package com.customer.api.customer_api.config;
+
+import com.customer.api.customer_api.controller.CustomerProtobufHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@Profile("!reactive")
+public class ProtobufWebConfig implements WebMvcConfigurer {
+
+    // Appended after Jackson so JSON stays the answer to Accept: */*; protobuf is served only when asked for
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CustomerProtobufHttpMessageConverter());
+    }
+}
@@ -0,0 +1,47 @@
+package com.customer.api.customer_api.config;
+
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.ratelimit.AdaptiveConcurrencyLimiter;
+import com.customer.api.customer_api.ratelimit.ClientRateLimiter;
+import com.customer.api.customer_api.ratelimit.RateLimitFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * Per-client rate limits and adaptive load shedding in front of the servlet controllers. Either can be
+ * switched off with {@code customer.rate-limit.enabled} and {@code customer.load-shedding.enabled}.
+ */
+@Configuration
+@Profile("!reactive")
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(CustomerApiProperties properties,
+                                                                   CustomerMetrics metrics,
+                                                                   MeterRegistry registry) {
+        CustomerApiProperties.RateLimit rateLimit = properties.getRateLimit();
+        ClientRateLimiter rateLimiter = rateLimit.isEnabled() ? new ClientRateLimiter(rateLimit) : null;
+        AdaptiveConcurrencyLimiter concurrencyLimiter = null;
+        if (properties.getLoadShedding().isEnabled()) {
+            concurrencyLimiter = new AdaptiveConcurrencyLimiter(properties.getLoadShedding());
+            Gauge.builder("customer.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("Requests allowed in flight by the adaptive load shedder")
+                    .register(registry);
+            Gauge.builder("customer.concurrency.in.flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .description("Requests in flight under the adaptive load shedder")
+                    .register(registry);
+        }
+
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(new RateLimitFilter(
+                rateLimiter, concurrencyLimiter, metrics));
+        registration.addUrlPatterns("/customers", "/customers/*");
+        // After the observation filter, so rejected requests still show up in http.server.requests
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,39 @@
+package com.customer.api.customer_api.controller;
+
+import com.customer.api.customer_api.cache.CustomerCache;
+import com.customer.api.customer_api.dto.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final CustomerCache customerCache;
+
+    @Operation(description = "Customer cache hit/miss/eviction statistics")
+    @GetMapping("/cache/stats")
+    public CacheStatsResponse getCacheStats() {
+        CacheStats stats = customerCache.stats();
+        return CacheStatsResponse.builder()
+                .size(customerCache.size())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    @Operation(description = "Drop every entry from the customer cache")
+    @DeleteMapping("/cache")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void clearCache() {
+        customerCache.clear();
+    }
+}
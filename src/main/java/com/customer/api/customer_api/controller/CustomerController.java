@@ -1,24 +1,112 @@
 package com.customer.api.customer_api.controller;
 
+import com.customer.api.customer_api.cache.IdempotencyKeyStore;
+import com.customer.api.customer_api.compression.ContentCodings;
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.BulkCreateResponse;
+import com.customer.api.customer_api.dto.CustomerChangeEvent;
+import com.customer.api.customer_api.dto.CustomerLookupRequest;
+import com.customer.api.customer_api.dto.CustomerLookupResponse;
+import com.customer.api.customer_api.dto.CustomerPage;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
 import com.customer.api.customer_api.dto.CustomerRequest;
 import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.dto.CustomerSearchPage;
+import com.customer.api.customer_api.dto.CustomerStatsResponse;
+import com.customer.api.customer_api.dto.CustomerVersion;
+import com.customer.api.customer_api.exception.PreconditionFailedException;
+import com.customer.api.customer_api.export.CustomerExportSnapshots;
+import com.customer.api.customer_api.export.ExportFormat;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.service.CustomerBulkService;
+import com.customer.api.customer_api.service.CustomerChangeService;
 import com.customer.api.customer_api.service.CustomerService;
+import com.customer.api.customer_api.service.CustomerStatsService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/customers")
-@RequiredArgsConstructor
 public class CustomerController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    // Request attributes of Tomcat's sendfile support (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final CustomerService customerService;
+    private final CustomerBulkService customerBulkService;
+    private final CustomerChangeService customerChangeService;
+    private final CustomerStatsService customerStatsService;
+    private final IdempotencyKeyStore idempotencyKeys;
+    private final CustomerExportSnapshots exportSnapshots;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter changeWriter;
+    private final CustomerApiProperties properties;
+    private final Clock clock;
+
+    public CustomerController(CustomerService customerService,
+                              CustomerBulkService customerBulkService,
+                              CustomerChangeService customerChangeService,
+                              CustomerStatsService customerStatsService,
+                              IdempotencyKeyStore idempotencyKeys,
+                              CustomerExportSnapshots exportSnapshots,
+                              ObjectMapper objectMapper,
+                              CustomerApiProperties properties,
+                              Clock clock) {
+        this.customerService = customerService;
+        this.customerBulkService = customerBulkService;
+        this.customerChangeService = customerChangeService;
+        this.customerStatsService = customerStatsService;
+        this.idempotencyKeys = idempotencyKeys;
+        this.exportSnapshots = exportSnapshots;
+        this.properties = properties;
+        this.clock = clock;
+        this.ndjsonWriter = objectMapper.writerFor(CustomerResponse.class)
+                .withRootValueSeparator("")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.changeWriter = objectMapper.writerFor(CustomerChangeEvent.class)
+                .withRootValueSeparator("")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
 
     @Operation(description = "Create a new customer")
     @PostMapping
@@ -26,32 +114,185 @@ public class CustomerController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Created"),
             @ApiResponse(responseCode = "400", description = "Missing required fields"),
+            @ApiResponse(responseCode = "409", description = "Email already in use"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public CustomerResponse createCustomer(@Valid @RequestBody CustomerRequest request) {
-        return customerService.createCustomer(request);
+    public CustomerResponse createCustomer(@Valid @RequestBody CustomerRequest request,
+                                           @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return customerService.createCustomer(request);
+        }
+        return idempotencyKeys.execute(idempotencyKey, request, () -> customerService.createCustomer(request));
+    }
+
+    @Operation(description = "Create the customer with the request's email, or replace the one that has it")
+    @PutMapping("/by-email")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Created or updated"),
+            @ApiResponse(responseCode = "400", description = "Missing required fields"),
+            @ApiResponse(responseCode = "409", description = "Version does not match the existing customer"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public CustomerResponse upsertCustomerByEmail(@Valid @RequestBody CustomerRequest request) {
+        return customerService.upsertCustomerByEmail(request);
+    }
+
+    @Operation(description = "Create customers in bulk from a JSON array or newline-delimited JSON stream")
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Processed; see per-row results"),
+            @ApiResponse(responseCode = "400", description = "Malformed request body"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public BulkCreateResponse createCustomers(InputStream body) throws IOException {
+        return customerBulkService.createCustomers(body);
     }
 
     @Operation(description = "Retrieve a customer by ID")
     @GetMapping("/{id}")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Customer not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public CustomerResponse getCustomerById(@PathVariable UUID id) {
-        return customerService.getCustomerById(id);
+    public ResponseEntity<CustomerResponse> getCustomerById(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            // Revalidate against the version and stored tier before reading or tiering the customer.
+            CustomerVersion current = customerService.getCustomerVersion(id);
+            if (current != null) {
+                String etag = CustomerETags.of(current.getVersion(), current.getTier());
+                if (CustomerETags.matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .eTag(etag)
+                            .cacheControl(cacheControl(current.getTierValidUntil()))
+                            .build();
+                }
+            }
+        }
+        CustomerResponse response = customerService.getCustomerById(id);
+        return ResponseEntity.ok()
+                .eTag(CustomerETags.of(response.getVersion(), response.getTier()))
+                .cacheControl(cacheControl(response.getTierValidUntil()))
+                .body(response);
+    }
+
+    @Operation(description = "List customers ordered by ID, one page at a time")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public CustomerPage listCustomers(@RequestParam(required = false) UUID after,
+                                      @RequestParam(required = false) Integer limit) {
+        return customerService.listCustomers(after, limit);
+    }
+
+    @Operation(description = "Stream all customers as newline-delimited JSON")
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public void streamCustomers(HttpServletResponse response) throws IOException {
+        writeNdjson(response, ndjsonWriter, customerService::streamCustomers);
+    }
+
+    @Operation(description = "Download every customer as newline-delimited JSON or CSV, from a snapshot file")
+    @GetMapping("/export")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The current snapshot, gzip-encoded when the client accepts gzip"),
+            @ApiResponse(responseCode = "202", description = "The snapshot is being written; retry after Retry-After"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Unknown format")
+    })
+    public void exportCustomers(@RequestParam(defaultValue = "ndjson") ExportFormat format,
+                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<CustomerExportSnapshots.Snapshot> current = exportSnapshots.current(format);
+        if (current.isEmpty()) {
+            response.setStatus(HttpStatus.ACCEPTED.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        CustomerExportSnapshots.Snapshot snapshot = current.get();
+        boolean gzip = ContentCodings.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING), List.of("gzip")) != null;
+        // The file and its decompressed form are different representations, so they get different ETags
+        String etag = "\"" + snapshot.id() + (gzip ? "-gzip" : "") + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (ifNoneMatch != null && CustomerETags.matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        response.setContentType(format.getMediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"customers." + format.getExtension() + "\"");
+        if (!gzip) {
+            // Clients that cannot take gzip are rare enough to decompress for
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshot.file()), 64 * 1024)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLengthLong(snapshot.size());
+        sendFile(request, response, snapshot);
+    }
+
+    @Operation(description = "Stream published customer changes after a sequence number as newline-delimited JSON")
+    @GetMapping("/changes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes in sequence order, possibly none"),
+            @ApiResponse(responseCode = "410", description = "Changes after since were pruned; resync from GET /customers")
+    })
+    public void streamChanges(@RequestParam(defaultValue = "0") long since, HttpServletResponse response)
+            throws IOException {
+        this.<CustomerChangeEvent>writeNdjson(response, changeWriter,
+                consumer -> customerChangeService.streamChanges(since, consumer));
+    }
+
+    @Operation(description = "Customer counts, spend and purchase recency per tier")
+    @GetMapping("/stats")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public CustomerStatsResponse getStats() {
+        return customerStatsService.getStats();
     }
 
-    @Operation(description = "Retrieve a customer by name")
+    @Operation(description = "Retrieve customers by name, one page at a time")
     @GetMapping(params = "name")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Success"),
-            @ApiResponse(responseCode = "404", description = "Customer not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public CustomerResponse getCustomerByName(@RequestParam String name) {
-        return customerService.getCustomerByName(name);
+    public CustomerPage getCustomersByName(@RequestParam String name,
+                                           @RequestParam(required = false) UUID after,
+                                           @RequestParam(required = false) Integer limit) {
+        return customerService.getCustomersByName(name, after, limit);
+    }
+
+    @Operation(description = "Search customers by the start of words in their name or email, best match first")
+    @GetMapping("/search")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Blank query, or offset + limit past customer.search.max-window"),
+            @ApiResponse(responseCode = "503", description = "Search index is still being built after a restart"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public CustomerSearchPage searchCustomers(@RequestParam(required = false) String q,
+                                              @RequestParam(required = false) Integer offset,
+                                              @RequestParam(required = false) Integer limit) {
+        return customerService.searchCustomers(q, offset, limit);
+    }
+
+    @Operation(description = "Retrieve customers in a membership tier, one page at a time")
+    @GetMapping(params = "tier")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Unknown tier"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public CustomerPage getCustomersByTier(@RequestParam Tier tier,
+                                           @RequestParam(required = false) UUID after,
+                                           @RequestParam(required = false) Integer limit) {
+        return customerService.getCustomersByTier(tier, after, limit);
     }
 
     @Operation(description = "Retrieve a customer by email")
@@ -65,17 +306,55 @@ public class CustomerController {
         return customerService.getCustomerByEmail(email);
     }
 
+    @Operation(description = "Retrieve many customers by ID and/or email in one request")
+    @PostMapping("/lookup")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success; unknown keys are listed as missing"),
+            @ApiResponse(responseCode = "400", description = "Too many ids and emails"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public CustomerLookupResponse lookupCustomers(@RequestBody CustomerLookupRequest request) {
+        return customerService.lookupCustomers(request);
+    }
+
     @Operation(description = "Update a customer")
     @PutMapping("/{id}")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Success"),
             @ApiResponse(responseCode = "400", description = "Customer not found"),
             @ApiResponse(responseCode = "404", description = "Customer not found"),
+            @ApiResponse(responseCode = "409", description = "Email already in use or version is stale"),
+            @ApiResponse(responseCode = "412", description = "Customer no longer matches If-Match"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<CustomerResponse> updateCustomer(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody CustomerRequest request) {
+        if (ifMatch != null) {
+            request.setVersion(CustomerETags.versionOf(ifMatch));
+        }
+        return written(ifMatch, () -> customerService.updateCustomer(id, request));
+    }
+
+    @Operation(description = "Update only the supplied fields of a customer")
+    @PatchMapping("/{id}")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Invalid field value"),
+            @ApiResponse(responseCode = "404", description = "Customer not found"),
+            @ApiResponse(responseCode = "409", description = "Email already in use or version is stale"),
+            @ApiResponse(responseCode = "412", description = "Customer no longer matches If-Match"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public CustomerResponse updateCustomer(@PathVariable UUID id,
-                                           @Valid @RequestBody CustomerRequest request) {
-        return customerService.updateCustomer(id, request);
+    public ResponseEntity<CustomerResponse> patchCustomer(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody CustomerPatchRequest patch) {
+        if (ifMatch != null) {
+            patch.setVersion(CustomerETags.versionOf(ifMatch));
+        }
+        return written(ifMatch, () -> customerService.patchCustomer(id, patch));
     }
 
     @Operation(description = "Delete a customer")
@@ -89,4 +368,77 @@ public class CustomerController {
     public void deleteCustomer(@PathVariable UUID id) {
         customerService.deleteCustomer(id);
     }
-}
\ No newline at end of file
+
+    /** Runs a write, reporting a stale If-Match as 412 and returning the new ETag when the version is known. */
+    private ResponseEntity<CustomerResponse> written(String ifMatch, Supplier<CustomerResponse> write) {
+        CustomerResponse response;
+        try {
+            response = write.get();
+        } catch (OptimisticLockingFailureException ex) {
+            if (ifMatch == null) {
+                throw ex;
+            }
+            throw new PreconditionFailedException("Customer no longer matches If-Match; reload it and retry");
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (response.getVersion() != null) {
+            ok.eTag(CustomerETags.of(response.getVersion(), response.getTier()));
+        }
+        return ok.body(response);
+    }
+
+    /** Private, as the body is personal data, and never fresh past the moment the tier shown lapses. */
+    private CacheControl cacheControl(LocalDateTime tierValidUntil) {
+        Duration maxAge = properties.getHttp().getMaxAge();
+        if (tierValidUntil != null) {
+            Duration untilLapse = Duration.between(LocalDateTime.now(clock), tierValidUntil);
+            if (untilLapse.compareTo(maxAge) < 0) {
+                maxAge = untilLapse.isNegative() ? Duration.ZERO : untilLapse;
+            }
+        }
+        return CacheControl.maxAge(maxAge).cachePrivate();
+    }
+
+    /**
+     * Sends the snapshot file without copying it through the heap: Tomcat's sendfile hands it to the kernel
+     * once this method returns; elsewhere FileChannel.transferTo copies it to the response stream.
+     */
+    private static void sendFile(HttpServletRequest request, HttpServletResponse response,
+                                 CustomerExportSnapshots.Snapshot snapshot) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, snapshot.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, snapshot.size());
+            return;
+        }
+        try (FileChannel file = FileChannel.open(snapshot.file(), StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            long position = 0;
+            while (position < snapshot.size()) {
+                position += file.transferTo(position, snapshot.size() - position, Channels.newChannel(out));
+            }
+        }
+    }
+
+    // Written on the request thread while the repository cursor is open, one row at a time.
+    private <T> void writeNdjson(HttpServletResponse response, ObjectWriter writer, Consumer<Consumer<T>> source)
+            throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        JsonGenerator generator = writer.createGenerator(response.getOutputStream());
+        try {
+            source.accept(item -> {
+                try {
+                    writer.writeValue(generator, item);
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        // Closed (and flushed) only on success, so a failure before the first row, such as a 410 from
+        // /changes, leaves the response uncommitted for the error handler
+        generator.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.customer.api.customer_api.controller;
+
+import com.customer.api.customer_api.exception.PreconditionFailedException;
+import com.customer.api.customer_api.model.Tier;
+import org.springframework.http.ETag;
+
+import java.util.List;
+
+/**
+ * Strong ETags for a customer representation: the row version plus the tier shown, since the
+ * tier can lapse with time while the version stays the same.
+ */
+final class CustomerETags {
+
+    private CustomerETags() {
+    }
+
+    static String of(Long version, Tier tier) {
+        return "\"" + version + "-" + tier.name() + "\"";
+    }
+
+    /** Weak comparison, as If-None-Match uses. */
+    static boolean matches(String ifNoneMatch, String etag) {
+        ETag current = ETag.create(etag);
+        for (ETag candidate : ETag.parse(ifNoneMatch)) {
+            if (candidate.isWildcard() || candidate.compare(current, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The version an If-Match header asks for, or {@code null} for {@code *}. */
+    static Long versionOf(String ifMatch) {
+        List<ETag> tags = ETag.parse(ifMatch);
+        if (tags.size() != 1 || tags.get(0).weak()) {
+            throw new PreconditionFailedException("If-Match must be a single ETag returned by this API");
+        }
+        ETag tag = tags.get(0);
+        if (tag.isWildcard()) {
+            return null;
+        }
+        int dash = tag.tag().indexOf('-');
+        try {
+            return Long.parseLong(dash < 0 ? tag.tag() : tag.tag().substring(0, dash));
+        } catch (NumberFormatException ex) {
+            throw new PreconditionFailedException("If-Match must be a single ETag returned by this API");
+        }
+    }
+}
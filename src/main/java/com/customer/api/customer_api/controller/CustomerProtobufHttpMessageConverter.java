@@ -0,0 +1,58 @@
+package com.customer.api.customer_api.controller;
+
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
+import com.customer.api.customer_api.dto.CustomerProtoMapper;
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.dto.proto.CustomerPatchProto;
+import com.customer.api.customer_api.dto.proto.CustomerRequestProto;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * Reads {@link CustomerRequest} and {@link CustomerPatchRequest} and writes {@link CustomerResponse} as
+ * {@code application/x-protobuf}.
+ * Spring MVC picks it by Content-Type and Accept next to the JSON converter (see ProtobufWebConfig);
+ * any other body type (pages, lookups, errors) stays JSON only.
+ */
+public class CustomerProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE);
+
+    public CustomerProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == CustomerRequest.class || clazz == CustomerPatchRequest.class || clazz == CustomerResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return (clazz == CustomerRequest.class || clazz == CustomerPatchRequest.class) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == CustomerResponse.class && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        if (clazz == CustomerPatchRequest.class) {
+            return CustomerProtoMapper.fromProto(CustomerPatchProto.parseFrom(inputMessage.getBody()));
+        }
+        return CustomerProtoMapper.fromProto(CustomerRequestProto.parseFrom(inputMessage.getBody()));
+    }
+
+    @Override
+    protected void writeInternal(Object response, HttpOutputMessage outputMessage) throws IOException {
+        CustomerProtoMapper.toProto((CustomerResponse) response).writeTo(outputMessage.getBody());
+    }
+}
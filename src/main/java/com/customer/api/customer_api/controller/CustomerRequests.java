@@ -0,0 +1,40 @@
+package com.customer.api.customer_api.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.Principal;
+import java.util.Set;
+
+/**
+ * How the servlet filters in front of {@code /customers} classify a request, so that rate limiting and
+ * read-your-writes agree on what a write is and on who sent it.
+ */
+public final class CustomerRequests {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+    // Sent as POSTs for their request bodies, but only read
+    private static final Set<String> READ_ONLY_POSTS = Set.of("/customers/lookup");
+
+    private CustomerRequests() {
+    }
+
+    /** The request path without the context path. */
+    public static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    public static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !SAFE_METHODS.contains(method) && !(method.equals("POST") && READ_ONLY_POSTS.contains(path(request)));
+    }
+
+    /**
+     * The authenticated principal, else the remote address. Nothing the caller can choose freely, so one
+     * client cannot pose as many, or as another. Behind a proxy the remote address is the proxy's, shared
+     * by every anonymous caller, unless server.forward-headers-strategy resolves X-Forwarded-For.
+     */
+    public static String client(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal == null ? request.getRemoteAddr() : "user:" + principal.getName();
+    }
+}
@@ -0,0 +1,98 @@
+package com.customer.api.customer_api.controller;
+
+import com.customer.api.customer_api.dto.CustomerLookupRequest;
+import com.customer.api.customer_api.dto.CustomerLookupResponse;
+import com.customer.api.customer_api.dto.CustomerPage;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.service.ReactiveCustomerService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * WebFlux version of {@link CustomerController} for the {@code reactive} profile, with the same
+ * {@code /customers} contract. Bulk ingestion is only served by the servlet stack.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/customers")
+@RequiredArgsConstructor
+public class ReactiveCustomerController {
+
+    private final ReactiveCustomerService customerService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<CustomerResponse> createCustomer(@Valid @RequestBody CustomerRequest request) {
+        return customerService.createCustomer(request);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<CustomerResponse> getCustomerById(@PathVariable UUID id) {
+        return customerService.getCustomerById(id);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<CustomerPage> listCustomers(@RequestParam(required = false) UUID after,
+                                            @RequestParam(required = false) Integer limit) {
+        return customerService.listCustomers(after, limit);
+    }
+
+    // Encoded and flushed row by row as the client demands them.
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CustomerResponse> streamCustomers() {
+        return customerService.streamCustomers();
+    }
+
+    @GetMapping(params = "name")
+    public Mono<CustomerPage> getCustomersByName(@RequestParam String name,
+                                                 @RequestParam(required = false) UUID after,
+                                                 @RequestParam(required = false) Integer limit) {
+        return customerService.getCustomersByName(name, after, limit);
+    }
+
+    @GetMapping(params = "tier")
+    public Mono<CustomerPage> getCustomersByTier(@RequestParam Tier tier,
+                                                 @RequestParam(required = false) UUID after,
+                                                 @RequestParam(required = false) Integer limit) {
+        return customerService.getCustomersByTier(tier, after, limit);
+    }
+
+    @GetMapping(params = "email")
+    public Mono<CustomerResponse> getCustomerByEmail(@RequestParam String email) {
+        return customerService.getCustomerByEmail(email);
+    }
+
+    @PostMapping("/lookup")
+    public Mono<CustomerLookupResponse> lookupCustomers(@RequestBody CustomerLookupRequest request) {
+        return customerService.lookupCustomers(request);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<CustomerResponse> updateCustomer(@PathVariable UUID id,
+                                                 @Valid @RequestBody CustomerRequest request) {
+        return customerService.updateCustomer(id, request);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<CustomerResponse> patchCustomer(@PathVariable UUID id,
+                                                @Valid @RequestBody CustomerPatchRequest patch) {
+        return customerService.patchCustomer(id, patch);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteCustomer(@PathVariable UUID id) {
+        return customerService.deleteCustomer(id);
+    }
+}
@@ -0,0 +1,51 @@
+package com.customer.api.customer_api.datasource;
+
+import com.customer.api.customer_api.controller.CustomerRequests;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.customer.api.customer_api.controller.CustomerRequests;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes on top of {@link ReplicaRoutingDataSource}: once a client has sent a write, its
+ * requests stay on the primary for {@code stickyWindow}, which should exceed the replicas' lag.
+ * Writes and clients are told apart by {@link CustomerRequests}, as for rate limiting, so batch lookups
+ * (read-only POSTs) stay on the replicas.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration stickyWindow) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = CustomerRequests.client(request);
+        boolean write = CustomerRequests.isWrite(request);
+        if (write || recentWriters.getIfPresent(client) != null) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+            // The window starts once the write has committed
+            if (write) {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+        }
+    }
+}
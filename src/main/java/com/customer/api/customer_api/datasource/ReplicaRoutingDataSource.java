@@ -0,0 +1,119 @@
+package com.customer.api.customer_api.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Sends connections for read-only transactions to the healthy replicas in turn, and everything else
+ * (writes, non-transactional work, requests pinned by {@link ReadYourWritesFilter}) to the primary.
+ * <p>
+ * Must be used behind a {@code LazyConnectionDataSourceProxy}: the transaction manager asks for a
+ * connection before it publishes the read-only flag, so the target is only chosen at the first statement.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> READING_FROM_REPLICA = new ThreadLocal<>();
+
+    private final List<DataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    // Indexes of the replicas that passed the last health check
+    private volatile int[] healthy = new int[0];
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /** Routes the current thread's connections to the primary until {@link #unpin()}. */
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    /**
+     * Whether the current transaction's connection went to a replica. Such reads may lag the primary,
+     * so they must not be cached past the transaction.
+     */
+    public static boolean isReadingFromReplica() {
+        return READING_FROM_REPLICA.get() != null;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicas();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        int[] candidates = healthy;
+        if (candidates.length == 0 || PINNED_TO_PRIMARY.get() != null
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            READING_FROM_REPLICA.remove();
+            return PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            READING_FROM_REPLICA.set(Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    READING_FROM_REPLICA.remove();
+                }
+            });
+        }
+        return candidates[Math.floorMod(next.getAndIncrement(), candidates.length)];
+    }
+
+    /** Probes every replica; reads go only to those that answered, or to the primary if none did. */
+    @Scheduled(fixedDelayString = "${customer.replica.health-check-interval:PT5S}",
+            initialDelayString = "${customer.replica.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        int[] up = IntStream.range(0, replicas.size()).filter(this::isHealthy).toArray();
+        if (!Arrays.equals(up, healthy)) {
+            log.warn("Routing reads to {} of {} replicas {}", up.length, replicas.size(), Arrays.toString(up));
+        }
+        healthy = up;
+    }
+
+    private boolean isHealthy(int replica) {
+        try (Connection connection = replicas.get(replica).getConnection()) {
+            return connection.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
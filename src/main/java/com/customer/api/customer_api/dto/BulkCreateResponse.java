@@ -0,0 +1,16 @@
+package com.customer.api.customer_api.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkCreateResponse {
+    private int received;
+    private int created;
+    private int failed;
+    private List<BulkRowResult> results;
+}
@@ -0,0 +1,44 @@
+package com.customer.api.customer_api.dto;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkRowResult {
+    private int index;
+    private Status status;
+    private UUID id;
+    private ErrorCode code;
+    private String error;
+
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    /** Why a row failed; stable across releases, unlike the {@code error} text. */
+    public enum ErrorCode {
+        /** The row is JSON but breaks a field constraint. */
+        INVALID,
+        /** The row does not map to a customer, e.g. a number field holding text. */
+        MALFORMED,
+        /** The body stopped being valid JSON here; neither this row nor any after it was read. */
+        UNREADABLE,
+        /** The row conflicts with a stored customer, e.g. by email. */
+        CONFLICT,
+        /** The database rejected the row for another reason. */
+        NOT_WRITTEN
+    }
+
+    public static BulkRowResult created(int index, UUID id) {
+        return new BulkRowResult(index, Status.CREATED, id, null, null);
+    }
+
+    public static BulkRowResult failed(int index, ErrorCode code, String error) {
+        return new BulkRowResult(index, Status.FAILED, null, code, error);
+    }
+}
@@ -0,0 +1,40 @@
+package com.customer.api.customer_api.dto;
+
+import com.customer.api.customer_api.model.ChangeType;
+import com.customer.api.customer_api.model.CustomerChange;
+import com.customer.api.customer_api.model.Tier;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerChangeEvent {
+    // Consumers resume from the last sequence they processed (GET /customers/changes?since=)
+    private Long sequence;
+    // Stable across redelivery; a relay retry can publish an event again under a new sequence
+    private Long eventId;
+    private UUID customerId;
+    private ChangeType type;
+    // Stored tiers; null before a create and after a delete
+    private Tier tierBefore;
+    private Tier tierAfter;
+    private Long version;
+    private LocalDateTime changedAt;
+
+    public static CustomerChangeEvent of(CustomerChange change) {
+        return CustomerChangeEvent.builder()
+                .sequence(change.getSequenceNumber())
+                .eventId(change.getId())
+                .customerId(change.getCustomerId())
+                .type(change.getChangeType())
+                .tierBefore(change.getTierBefore())
+                .tierAfter(change.getTierAfter())
+                .version(change.getVersion())
+                .changedAt(change.getChangedAt())
+                .build();
+    }
+}
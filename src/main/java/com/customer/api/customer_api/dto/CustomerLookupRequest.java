@@ -0,0 +1,17 @@
+package com.customer.api.customer_api.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerLookupRequest {
+    private List<UUID> ids;
+
+    @ToString.Exclude
+    private List<String> emails;
+}
@@ -0,0 +1,19 @@
+package com.customer.api.customer_api.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerLookupResponse {
+    /** Customers found, keyed by the id or email they were requested with, in request order. */
+    @ToString.Exclude
+    private Map<String, CustomerResponse> customers;
+    /** Requested ids and emails that matched no customer. */
+    @ToString.Exclude
+    private List<String> missing;
+}
@@ -0,0 +1,16 @@
+package com.customer.api.customer_api.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerPage {
+    private List<CustomerResponse> items;
+    /** Pass as {@code after} to fetch the next page; {@code null} on the last page. */
+    private UUID nextCursor;
+}
@@ -0,0 +1,30 @@
+package com.customer.api.customer_api.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Partial update: only non-null fields are written. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerPatchRequest {
+    @Pattern(regexp = ".*\\S.*", message = "must not be blank")
+    @ToString.Exclude
+    private String name;
+
+    @Email
+    @Pattern(regexp = ".*\\S.*", message = "must not be blank")
+    @ToString.Exclude
+    private String email;
+
+    private BigDecimal annualSpend;
+
+    private LocalDateTime lastPurchaseDate;
+
+    private Long version;
+}
@@ -0,0 +1,159 @@
+package com.customer.api.customer_api.dto;
+
+import com.customer.api.customer_api.dto.proto.CustomerPatchProto;
+import com.customer.api.customer_api.dto.proto.CustomerRequestProto;
+import com.customer.api.customer_api.dto.proto.CustomerResponseProto;
+import com.customer.api.customer_api.dto.proto.TierProto;
+import com.customer.api.customer_api.model.Tier;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Maps the API bodies to and from their protobuf form (see customer.proto). Money travels as cents and
+ * timestamps as epoch milliseconds, so sub-cent amounts are rounded half-even and sub-millisecond times truncated.
+ */
+public final class CustomerProtoMapper {
+
+    private static final int MONEY_SCALE = 2;
+
+    private CustomerProtoMapper() {
+    }
+
+    public static CustomerRequest fromProto(CustomerRequestProto proto) {
+        return CustomerRequest.builder()
+                .name(proto.getName())
+                .email(proto.getEmail())
+                .annualSpend(proto.hasAnnualSpendCents() ? fromCents(proto.getAnnualSpendCents()) : null)
+                .lastPurchaseDate(proto.hasLastPurchaseDateMillis() ? fromEpochMillis(proto.getLastPurchaseDateMillis()) : null)
+                .version(proto.hasVersion() ? proto.getVersion() : null)
+                .build();
+    }
+
+    public static CustomerPatchRequest fromProto(CustomerPatchProto proto) {
+        return CustomerPatchRequest.builder()
+                .name(proto.hasName() ? proto.getName() : null)
+                .email(proto.hasEmail() ? proto.getEmail() : null)
+                .annualSpend(proto.hasAnnualSpendCents() ? fromCents(proto.getAnnualSpendCents()) : null)
+                .lastPurchaseDate(proto.hasLastPurchaseDateMillis() ? fromEpochMillis(proto.getLastPurchaseDateMillis()) : null)
+                .version(proto.hasVersion() ? proto.getVersion() : null)
+                .build();
+    }
+
+    public static CustomerPatchProto toProto(CustomerPatchRequest patch) {
+        CustomerPatchProto.Builder proto = CustomerPatchProto.newBuilder();
+        if (patch.getName() != null) {
+            proto.setName(patch.getName());
+        }
+        if (patch.getEmail() != null) {
+            proto.setEmail(patch.getEmail());
+        }
+        if (patch.getAnnualSpend() != null) {
+            proto.setAnnualSpendCents(toCents(patch.getAnnualSpend()));
+        }
+        if (patch.getLastPurchaseDate() != null) {
+            proto.setLastPurchaseDateMillis(toEpochMillis(patch.getLastPurchaseDate()));
+        }
+        if (patch.getVersion() != null) {
+            proto.setVersion(patch.getVersion());
+        }
+        return proto.build();
+    }
+
+    public static CustomerRequestProto toProto(CustomerRequest request) {
+        CustomerRequestProto.Builder proto = CustomerRequestProto.newBuilder();
+        if (request.getName() != null) {
+            proto.setName(request.getName());
+        }
+        if (request.getEmail() != null) {
+            proto.setEmail(request.getEmail());
+        }
+        if (request.getAnnualSpend() != null) {
+            proto.setAnnualSpendCents(toCents(request.getAnnualSpend()));
+        }
+        if (request.getLastPurchaseDate() != null) {
+            proto.setLastPurchaseDateMillis(toEpochMillis(request.getLastPurchaseDate()));
+        }
+        if (request.getVersion() != null) {
+            proto.setVersion(request.getVersion());
+        }
+        return proto.build();
+    }
+
+    public static CustomerResponseProto toProto(CustomerResponse response) {
+        CustomerResponseProto.Builder proto = CustomerResponseProto.newBuilder();
+        if (response.getId() != null) {
+            proto.setIdMsb(response.getId().getMostSignificantBits())
+                    .setIdLsb(response.getId().getLeastSignificantBits());
+        }
+        if (response.getName() != null) {
+            proto.setName(response.getName());
+        }
+        if (response.getEmail() != null) {
+            proto.setEmail(response.getEmail());
+        }
+        if (response.getAnnualSpend() != null) {
+            proto.setAnnualSpendCents(toCents(response.getAnnualSpend()));
+        }
+        if (response.getLastPurchaseDate() != null) {
+            proto.setLastPurchaseDateMillis(toEpochMillis(response.getLastPurchaseDate()));
+        }
+        if (response.getTier() != null) {
+            proto.setTier(toProto(response.getTier()));
+        }
+        if (response.getVersion() != null) {
+            proto.setVersion(response.getVersion());
+        }
+        return proto.build();
+    }
+
+    public static CustomerResponse fromProto(CustomerResponseProto proto) {
+        return CustomerResponse.builder()
+                .id(new UUID(proto.getIdMsb(), proto.getIdLsb()))
+                .name(proto.getName())
+                .email(proto.getEmail())
+                .annualSpend(proto.hasAnnualSpendCents() ? fromCents(proto.getAnnualSpendCents()) : null)
+                .lastPurchaseDate(proto.hasLastPurchaseDateMillis() ? fromEpochMillis(proto.getLastPurchaseDateMillis()) : null)
+                .tier(fromProto(proto.getTier()))
+                .version(proto.hasVersion() ? proto.getVersion() : null)
+                .build();
+    }
+
+    static long toCents(BigDecimal amount) {
+        // longValueExact: a spend beyond ~92 quadrillion fails loudly instead of wrapping
+        return amount.setScale(MONEY_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, MONEY_SCALE);
+    }
+
+    static long toEpochMillis(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000;
+    }
+
+    static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static TierProto toProto(Tier tier) {
+        return switch (tier) {
+            case SILVER -> TierProto.SILVER;
+            case GOLD -> TierProto.GOLD;
+            case PLATINUM -> TierProto.PLATINUM;
+        };
+    }
+
+    private static Tier fromProto(TierProto tier) {
+        return switch (tier) {
+            case SILVER -> Tier.SILVER;
+            case GOLD -> Tier.GOLD;
+            case PLATINUM -> Tier.PLATINUM;
+            case TIER_UNSPECIFIED, UNRECOGNIZED -> null;
+        };
+    }
+}
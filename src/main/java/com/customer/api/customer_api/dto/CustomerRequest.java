@@ -14,14 +14,20 @@ import java.time.LocalDateTime;
 @Builder
 @JsonIgnoreProperties(ignoreUnknown = false)
 public class CustomerRequest {
+    // Personal data stays out of toString so a logged request cannot leak it
     @NotBlank
+    @ToString.Exclude
     private String name;
 
     @Email
     @NotBlank
+    @ToString.Exclude
     private String email;
 
     private BigDecimal annualSpend;
 
     private LocalDateTime lastPurchaseDate;
+
+    // Expected version for updates; when present, a concurrent change fails the update with 409
+    private Long version;
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.customer.api.customer_api.dto;
 
+import com.customer.api.customer_api.model.Tier;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -12,9 +15,18 @@ import java.util.UUID;
 @Builder
 public class CustomerResponse {
     private UUID id;
+    @ToString.Exclude
     private String name;
+    @ToString.Exclude
     private String email;
     private BigDecimal annualSpend;
     private LocalDateTime lastPurchaseDate;
-    private String tier;
+    private Tier tier;
+    // Omitted after an unconditional update, which does not read the new value back
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
+    // When the tier shown lapses without another purchase (null: never). Set on single reads,
+    // where it bounds how long the response may be cached.
+    @JsonIgnore
+    private LocalDateTime tierValidUntil;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.customer.api.customer_api.dto;
+
+import lombok.*;
+
+import java.util.UUID;
+
+/** The columns of a customer that the search index covers. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerSearchFields {
+    private UUID id;
+    @ToString.Exclude
+    private String name;
+    @ToString.Exclude
+    private String email;
+}
@@ -0,0 +1,16 @@
+package com.customer.api.customer_api.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerSearchPage {
+    /** Best match first. */
+    private List<CustomerResponse> items;
+    /** Pass as {@code offset} to fetch the next page; {@code null} on the last page. */
+    private Integer nextOffset;
+}
@@ -0,0 +1,21 @@
+package com.customer.api.customer_api.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerStatsResponse {
+    private long customers;
+    private BigDecimal totalSpend;
+    private BigDecimal averageSpend;
+    /** One entry per tier, by the stored tier (see the tier recompute job). */
+    private List<TierStats> tiers;
+    /** The moment {@link TierStats#getLastPurchase()} ages are measured from. */
+    private LocalDateTime asOf;
+}
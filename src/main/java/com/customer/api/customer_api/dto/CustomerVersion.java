@@ -0,0 +1,18 @@
+package com.customer.api.customer_api.dto;
+
+import com.customer.api.customer_api.model.Tier;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/** The parts of a customer that identify one representation of it: its ETag and how long it lasts. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerVersion {
+    private Long version;
+    private Tier tier;
+    /** When {@code tier} lapses without another purchase; {@code null} if it never does. */
+    private LocalDateTime tierValidUntil;
+}
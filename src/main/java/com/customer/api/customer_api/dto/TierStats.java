@@ -0,0 +1,22 @@
+package com.customer.api.customer_api.dto;
+
+import com.customer.api.customer_api.model.Tier;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TierStats {
+    private Tier tier;
+    private long customers;
+    private BigDecimal totalSpend;
+    private BigDecimal averageSpend;
+    /** p50, p90 and p99 of annual spend, interpolated within buckets about 12% wide. */
+    private Map<String, BigDecimal> spendPercentiles;
+    /** Customers by calendar months since their last purchase: 0-1m, 1-3m, 3-6m, 6-12m, 12-24m, 24m+, never. */
+    private Map<String, Long> lastPurchase;
+}
@@ -0,0 +1,7 @@
+package com.customer.api.customer_api.exception;
+
+public class ChangesExpiredException extends CustomerApiException {
+    public ChangesExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.customer.api.customer_api.exception;
+
+/**
+ * Base of the exceptions {@link GlobalExceptionHandler} turns into a client-facing status. They are an
+ * answer to the request rather than a fault, so they skip filling in a stack trace, which walks every
+ * servlet, proxy and transaction frame above the throw and is most of the cost of a 404 or 400.
+ */
+public abstract class CustomerApiException extends RuntimeException {
+    protected CustomerApiException(String message) {
+        super(message, null, false, false);
+    }
+}
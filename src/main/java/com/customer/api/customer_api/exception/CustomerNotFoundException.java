@@ -1,7 +1,11 @@
 package com.customer.api.customer_api.exception;
 
-public class CustomerNotFoundException extends RuntimeException {
+public class CustomerNotFoundException extends CustomerApiException {
+
+    /** Every miss reads the same; with no stack trace or cause there is nothing to tell two apart. */
+    public static final CustomerNotFoundException INSTANCE = new CustomerNotFoundException("Customer not found");
+
     public CustomerNotFoundException(String message) {
         super(message);
     }
-}
\ No newline at end of file
+}
@@ -1,33 +1,182 @@
 package com.customer.api.customer_api.exception;
 
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ServerWebInputException;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Answers every error with an RFC 7807 problem ({@code application/problem+json}): {@code status}, its
+ * {@code title}, a {@code detail} message and the request path as {@code instance}. Validation failures add
+ * an {@code errors} member mapping each invalid field to its message.
+ */
 @RestControllerAdvice
+@RequiredArgsConstructor
+@Slf4j
 public class GlobalExceptionHandler {
 
+    private final CustomerMetrics metrics;
+
     @ExceptionHandler(CustomerNotFoundException.class)
-    public ResponseEntity<?> handleCustomerNotFound(CustomerNotFoundException ex) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
+    public ResponseEntity<ProblemDetail> handleCustomerNotFound(CustomerNotFoundException ex) {
+        metrics.customerNotFound();
+        return problem(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler(TooManyKeysException.class)
+    public ResponseEntity<ProblemDetail> handleTooManyKeys(TooManyKeysException ex) {
+        return problem(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidSearchException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidSearch(InvalidSearchException ex) {
+        return problem(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(SearchUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleSearchUnavailable(SearchUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "5")
+            .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+
+    @ExceptionHandler(ChangesExpiredException.class)
+    public ResponseEntity<ProblemDetail> handleChangesExpired(ChangesExpiredException ex) {
+        // The stream had already declared application/x-ndjson before the check failed
+        return ResponseEntity.status(HttpStatus.GONE).contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.GONE, ex.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        return problem(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<?> handleValidation(MethodArgumentNotValidException ex) {
-        Map<String, String> errors = new HashMap<>();
-        ex.getBindingResult().getFieldErrors().forEach(err ->
-            errors.put(err.getField(), err.getDefaultMessage()));
-        return ResponseEntity.badRequest().body(errors);
+    public ResponseEntity<ProblemDetail> handleValidation(MethodArgumentNotValidException ex) {
+        return invalidFields(ex.getBindingResult().getFieldErrors());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ProblemDetail> handleValidation(WebExchangeBindException ex) {
+        return invalidFields(ex.getFieldErrors());
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ProblemDetail> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        return problem(HttpStatus.BAD_REQUEST, "Invalid value for parameter '" + ex.getName() + "'");
+    }
+
+    // WebFlux reports both unconvertible parameters and unreadable bodies this way
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ProblemDetail> handleBadInput(ServerWebInputException ex) {
+        if (ex.getCause() instanceof TypeMismatchException && ex.getMethodParameter() != null) {
+            return problem(HttpStatus.BAD_REQUEST,
+                "Invalid value for parameter '" + ex.getMethodParameter().getParameterName() + "'");
+        }
+        return problem(HttpStatus.BAD_REQUEST, ex.getReason() == null ? "Malformed request" : ex.getReason());
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ProblemDetail> handleConstraintViolation(DataIntegrityViolationException ex) {
+        return problem(HttpStatus.CONFLICT, "Customer conflicts with an existing record");
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleConcurrentModification(OptimisticLockingFailureException ex) {
+        return problem(HttpStatus.CONFLICT, "Customer was modified concurrently; reload it and retry");
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ProblemDetail> handlePreconditionFailed(PreconditionFailedException ex) {
+        return problem(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    // Jackson's own message names the DTO classes and Java types, so only the JSON path is passed on
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<ProblemDetail> handleMalformedJson(JsonProcessingException ex) {
+        String path = ex instanceof JsonMappingException mapping ? jsonPath(mapping.getPath()) : "";
+        return problem(HttpStatus.BAD_REQUEST,
+            path.isEmpty() ? "Malformed request body" : "Malformed request body at '" + path + "'");
+    }
+
+    // Spring MVC wraps body parse failures, so without this they would reach the catch-all below as 500s
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ProblemDetail> handleUnreadableBody(HttpMessageNotReadableException ex) {
+        if (ex.getCause() instanceof JsonProcessingException json) {
+            return handleMalformedJson(json);
+        }
+        return problem(HttpStatus.BAD_REQUEST,
+            ex.getCause() instanceof InvalidProtocolBufferException ? "Malformed protobuf body" : "Malformed request body");
+    }
+
+    // No pooled connection within the Hikari connection-timeout: shed the request rather than queue it further
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ProblemDetail> handleConnectionPoolExhausted(CannotCreateTransactionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "Service is busy, please retry"));
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<?> handleGeneral(Exception ex) {
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-            .body(Map.of("error", ex.getMessage()));
+    public ResponseEntity<ProblemDetail> handleGeneral(Exception ex) {
+        // Spring's own errors (unknown path, unsupported method or media type, ...) carry their status and body
+        if (ex instanceof ErrorResponse response) {
+            return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders())
+                .body(response.getBody());
+        }
+        // Logged here because nothing else sees it; the message may expose SQL or internals, so clients get none
+        log.error("Unhandled exception", ex);
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error");
+    }
+
+    // e.g. "items[2].email"
+    private static String jsonPath(List<JsonMappingException.Reference> path) {
+        StringBuilder out = new StringBuilder();
+        for (JsonMappingException.Reference ref : path) {
+            if (ref.getFieldName() != null) {
+                out.append(out.isEmpty() ? "" : ".").append(ref.getFieldName());
+            } else if (ref.getIndex() >= 0) {
+                out.append('[').append(ref.getIndex()).append(']');
+            }
+        }
+        return out.toString();
+    }
+
+    private static ResponseEntity<ProblemDetail> problem(HttpStatus status, String detail) {
+        return ResponseEntity.status(status).body(ProblemDetail.forStatusAndDetail(status, detail));
+    }
+
+    // The field names and messages go in an "errors" member alongside the standard ones
+    private static ResponseEntity<ProblemDetail> invalidFields(List<FieldError> fieldErrors) {
+        Map<String, String> errors = new HashMap<>();
+        fieldErrors.forEach(err -> errors.put(err.getField(), err.getDefaultMessage()));
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Request has invalid fields");
+        problem.setProperty("errors", errors);
+        return ResponseEntity.badRequest().body(problem);
     }
 }
\ No newline at end of file
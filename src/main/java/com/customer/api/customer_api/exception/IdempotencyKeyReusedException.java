@@ -0,0 +1,7 @@
+package com.customer.api.customer_api.exception;
+
+public class IdempotencyKeyReusedException extends CustomerApiException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.customer.api.customer_api.exception;
+
+public class InvalidSearchException extends CustomerApiException {
+    public InvalidSearchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.customer.api.customer_api.exception;
+
+public class PreconditionFailedException extends CustomerApiException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.customer.api.customer_api.exception;
+
+public class SearchUnavailableException extends CustomerApiException {
+    public SearchUnavailableException(String message) {
+        super(message);
+    }
+}
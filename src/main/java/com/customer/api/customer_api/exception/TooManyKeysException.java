@@ -0,0 +1,7 @@
+package com.customer.api.customer_api.exception;
+
+public class TooManyKeysException extends CustomerApiException {
+    public TooManyKeysException(String message) {
+        super(message);
+    }
+}
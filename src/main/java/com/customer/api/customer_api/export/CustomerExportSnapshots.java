@@ -0,0 +1,252 @@
+package com.customer.api.customer_api.export;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.repository.CustomerChangeRepository;
+import com.customer.api.customer_api.service.CustomerService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed files of every customer for GET /customers/export, one per format, written once in the
+ * background and served as they are until a change makes them stale.
+ * <p>
+ * A snapshot is tagged with the highest outbox sequence number published when it started reading. The relay
+ * numbers changes in commit order, so the snapshot is current while that is still the highest number and no
+ * committed change is waiting for one. The check is two index lookups, and it sees every write path and every
+ * instance sharing the database, tier changes by the recompute job included; writes made with plain SQL are
+ * not seen.
+ */
+@Component
+@Profile("!reactive")
+@Slf4j
+public class CustomerExportSnapshots {
+
+    private static final String FILE_PREFIX = "customers-";
+    private static final String CSV_HEADER = "id,name,email,annualSpend,lastPurchaseDate,tier,version\n";
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final CustomerService customerService;
+    private final CustomerChangeRepository changeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter ndjsonWriter;
+    private final Path dir;
+    private final ExecutorService writer =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("customer-export").daemon().factory());
+    private final AtomicLong written = new AtomicLong();
+
+    private final Map<ExportFormat, Snapshot> current = new ConcurrentHashMap<>();
+    // The snapshot each current one replaced, kept on disk while a response may still be about to send it
+    private final Map<ExportFormat, Snapshot> replaced = new ConcurrentHashMap<>();
+    private final Map<ExportFormat, CompletableFuture<Snapshot>> inProgress = new ConcurrentHashMap<>();
+
+    public CustomerExportSnapshots(CustomerService customerService, CustomerChangeRepository changeRepository,
+                                   PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                   CustomerApiProperties properties) throws IOException {
+        this.customerService = customerService;
+        this.changeRepository = changeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ndjsonWriter = objectMapper.writerFor(CustomerResponse.class)
+                .withRootValueSeparator("")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        String exportDir = properties.getExport().getDir();
+        this.dir = exportDir == null
+                ? Files.createTempDirectory("customer-export")
+                : Files.createDirectories(Path.of(exportDir));
+        // Files from an earlier run carry tags nothing can vouch for any more
+        deleteSnapshotFiles();
+    }
+
+    /** A finished snapshot file; {@code id} is unique to it and serves as its ETag. */
+    public record Snapshot(ExportFormat format, Path file, long size, long sequence, String id) {
+    }
+
+    /**
+     * The snapshot in {@code format} if it is current; otherwise empty, and one is being written.
+     */
+    public Optional<Snapshot> current(ExportFormat format) {
+        Snapshot snapshot = current.get(format);
+        if (snapshot != null && isCurrent(snapshot)) {
+            return Optional.of(snapshot);
+        }
+        inProgress.computeIfAbsent(format, key -> CompletableFuture.supplyAsync(() -> write(key), writer)
+                .whenComplete((done, ex) -> {
+                    inProgress.remove(key);
+                    if (ex != null) {
+                        log.error("Writing the {} customer export failed", key, ex);
+                    }
+                }));
+        return Optional.empty();
+    }
+
+    /** Writes a snapshot in {@code format} now, on the calling thread, and makes it current. */
+    public Snapshot write(ExportFormat format) {
+        long start = System.nanoTime();
+        long number = written.incrementAndGet();
+        Path partial = dir.resolve(FILE_PREFIX + format.getExtension() + "-" + number + ".partial");
+        long[] rows = new long[1];
+        try {
+            // Tagged inside the transaction that reads the rows, so both come from the same database
+            // when read-only transactions go to a replica
+            Long sequence = readOnlyTransaction.execute(status -> {
+                long tag = latestSequence();
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024)) {
+                    rows[0] = format == ExportFormat.CSV ? writeCsv(out) : writeNdjson(out);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                return tag;
+            });
+            String id = FILE_PREFIX + format.getExtension() + "-" + sequence + "-" + number;
+            Path file = Files.move(partial, dir.resolve(id + "." + format.getExtension() + ".gz"),
+                    StandardCopyOption.ATOMIC_MOVE);
+            Snapshot snapshot = new Snapshot(format, file, Files.size(file), sequence, id);
+            install(snapshot);
+            log.info("Wrote {} customers to the {} export ({} bytes) in {} ms", rows[0], format, snapshot.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return snapshot;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writer.shutdownNow();
+        deleteSnapshotFiles();
+    }
+
+    private boolean isCurrent(Snapshot snapshot) {
+        return !changeRepository.existsBySequenceNumberIsNull() && snapshot.sequence() == latestSequence();
+    }
+
+    private long latestSequence() {
+        Long sequence = changeRepository.findMaxSequenceNumber();
+        return sequence == null ? -1 : sequence;
+    }
+
+    private synchronized void install(Snapshot snapshot) {
+        Snapshot previous = current.put(snapshot.format(), snapshot);
+        Snapshot older = previous == null ? null : replaced.put(snapshot.format(), previous);
+        if (older != null) {
+            deleteQuietly(older.file());
+        }
+    }
+
+    private long writeNdjson(OutputStream out) throws IOException {
+        long[] rows = new long[1];
+        JsonGenerator generator = ndjsonWriter.createGenerator(out);
+        try {
+            customerService.streamCustomers(customer -> {
+                try {
+                    ndjsonWriter.writeValue(generator, customer);
+                    generator.writeRaw('\n');
+                    rows[0]++;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        generator.flush();
+        return rows[0];
+    }
+
+    private long writeCsv(OutputStream out) throws IOException {
+        long[] rows = new long[1];
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        csv.write(CSV_HEADER);
+        try {
+            customerService.streamCustomers(customer -> {
+                try {
+                    csv.write(customer.getId().toString());
+                    csv.write(',');
+                    csv.write(csvField(customer.getName()));
+                    csv.write(',');
+                    csv.write(csvField(customer.getEmail()));
+                    csv.write(',');
+                    csv.write(customer.getAnnualSpend() == null ? "" : customer.getAnnualSpend().toPlainString());
+                    csv.write(',');
+                    csv.write(customer.getLastPurchaseDate() == null ? "" : customer.getLastPurchaseDate().toString());
+                    csv.write(',');
+                    csv.write(customer.getTier() == null ? "" : customer.getTier().getLabel());
+                    csv.write(',');
+                    csv.write(customer.getVersion() == null ? "" : customer.getVersion().toString());
+                    csv.write('\n');
+                    rows[0]++;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        csv.flush();
+        return rows[0];
+    }
+
+    /**
+     * RFC 4180: quoted when it holds a comma, quote or line break, with quotes doubled. A value that
+     * spreadsheets would run as a formula is prefixed with {@code '} first (OWASP CSV injection).
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void deleteSnapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> file.getFileName().toString().startsWith(FILE_PREFIX))
+                    .forEach(CustomerExportSnapshots::deleteQuietly);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete export file {}", file, ex);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.customer.api.customer_api.export;
+
+/** File formats offered by GET /customers/export. */
+public enum ExportFormat {
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv");
+
+    private final String extension;
+    private final String mediaType;
+
+    ExportFormat(String extension, String mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    /** Accepts the file extension or the constant name, ignoring case. */
+    public static ExportFormat fromString(String value) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value) || format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + value);
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+}
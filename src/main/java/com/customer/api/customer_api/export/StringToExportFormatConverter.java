@@ -0,0 +1,14 @@
+package com.customer.api.customer_api.export;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/** Lets GET /customers/export take {@code format=csv} as well as {@code format=CSV}. */
+@Component
+public class StringToExportFormatConverter implements Converter<String, ExportFormat> {
+
+    @Override
+    public ExportFormat convert(String source) {
+        return ExportFormat.fromString(source.trim());
+    }
+}
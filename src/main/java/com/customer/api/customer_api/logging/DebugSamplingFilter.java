@@ -0,0 +1,39 @@
+package com.customer.api.customer_api.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lets through only a random {@code rate} share of DEBUG/TRACE events from loggers under
+ * {@code loggerPrefix}, so per-request detail can stay enabled in production at a bounded cost.
+ * Runs before the logging event is created; rejected calls never format or allocate a message.
+ */
+public class DebugSamplingFilter extends TurboFilter {
+
+    private String loggerPrefix = "com.customer";
+    private double rate = 0.01;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isDebugEnabled() checks; sample the event itself, not the guard
+        if (format == null || level.levelInt > Level.DEBUG_INT
+                || logger.getEffectiveLevel().levelInt > level.levelInt
+                || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < rate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+}
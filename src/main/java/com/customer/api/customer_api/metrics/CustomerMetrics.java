@@ -0,0 +1,88 @@
+package com.customer.api.customer_api.metrics;
+
+import com.customer.api.customer_api.model.Tier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application meters for the customer hot paths. Every meter is registered up front, so
+ * recording is a lookup in a pre-built {@link EnumMap} plus an atomic update; callers time
+ * with {@link System#nanoTime()} rather than a {@link Timer.Sample} or a capturing lambda.
+ */
+@Component
+public class CustomerMetrics {
+
+    /** Repository operations timed by the services, one {@code customer.repository} timer each. */
+    public enum RepositoryCall {
+        SAVE, UPDATE, FIND_BY_ID, FIND_VERSION, FIND_BY_EMAIL, FIND_BY_IDS, FIND_BY_EMAILS, FIND_PAGE, FIND_PAGE_BY_NAME, FIND_PAGE_BY_TIER, STREAM_ALL, DELETE,
+        RECORD_CHANGE, STREAM_CHANGES, UPDATE_ROLLUP, SUM_ROLLUP, UPSERT
+    }
+
+    /** Why RateLimitFilter turned a request away, one {@code customer.requests.rejected} counter each. */
+    public enum Rejection {
+        RATE_LIMITED, OVERLOADED
+    }
+
+    private final Map<RepositoryCall, Timer> repositoryTimers = new EnumMap<>(RepositoryCall.class);
+    private final Map<Tier, Counter> tierCounters = new EnumMap<>(Tier.class);
+    private final Map<Rejection, Counter> rejectionCounters = new EnumMap<>(Rejection.class);
+    private final Counter notFound;
+    private final Timer search;
+
+    public CustomerMetrics(MeterRegistry registry) {
+        for (RepositoryCall call : RepositoryCall.values()) {
+            repositoryTimers.put(call, Timer.builder("customer.repository")
+                    .description("Time spent in CustomerRepository calls")
+                    .tag("call", call.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (Tier tier : Tier.values()) {
+            tierCounters.put(tier, Counter.builder("customer.tier.assigned")
+                    .description("Tiers assigned to created, updated and re-tiered customers")
+                    .tag("tier", tier.name().toLowerCase())
+                    .register(registry));
+        }
+        for (Rejection rejection : Rejection.values()) {
+            rejectionCounters.put(rejection, Counter.builder("customer.requests.rejected")
+                    .description("Requests answered 429 (rate limited) or 503 (overloaded) without being handled")
+                    .tag("reason", rejection.name().toLowerCase())
+                    .register(registry));
+        }
+        this.notFound = Counter.builder("customer.not.found")
+                .description("Lookups that ended in CustomerNotFoundException")
+                .register(registry);
+        this.search = Timer.builder("customer.search")
+                .description("Time spent ranking customers in the search index")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /** Records a repository call that started at {@code startNanos} ({@link System#nanoTime()}). */
+    public void repositoryCall(RepositoryCall call, long startNanos) {
+        repositoryTimers.get(call).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Records a search index query that started at {@code startNanos}. */
+    public void searchQuery(long startNanos) {
+        search.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tierAssigned(Tier tier) {
+        tierCounters.get(tier).increment();
+    }
+
+    public void requestRejected(Rejection rejection) {
+        rejectionCounters.get(rejection).increment();
+    }
+
+    public void customerNotFound() {
+        notFound.increment();
+    }
+}
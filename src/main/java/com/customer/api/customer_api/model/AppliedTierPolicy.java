@@ -0,0 +1,21 @@
+package com.customer.api.customer_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/** The single row of V7__tier_policy.sql: the tier policy the stored tiers were computed with. */
+@Entity
+@Table(name = "tier_policy")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppliedTierPolicy {
+
+    public static final short ID = 1;
+
+    @Id
+    private short id;
+
+    @Column
+    private String fingerprint;
+}
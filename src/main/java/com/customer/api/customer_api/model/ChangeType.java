@@ -0,0 +1,9 @@
+package com.customer.api.customer_api.model;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    /** The stored tier lapsed and was recomputed; the customer's own fields did not change. */
+    TIER_CHANGED
+}
@@ -4,29 +4,61 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Table(name = "customer",
+        uniqueConstraints = @UniqueConstraint(name = "ux_customer_email", columnNames = "email"),
+        indexes = {
+                @Index(name = "ix_customer_name_id", columnList = "name, id"),
+                @Index(name = "ix_customer_tier_id", columnList = "tier, id"),
+                @Index(name = "ix_customer_tier_valid_until", columnList = "tier_valid_until")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Customer {
+    // Assigned in memory at persist time (no IDENTITY round trip), which keeps JDBC insert batching enabled.
     @Id
     @GeneratedValue
+    @UuidGenerator
     private UUID id;
 
     @NotBlank(message = "Name is required")
+    @Column(nullable = false)
+    @ToString.Exclude
     private String name;
 
     @Email(message = "Invalid email format")
     @NotBlank(message = "Email is required")
+    @Column(nullable = false)
+    @ToString.Exclude
     private String email;
 
     private BigDecimal annualSpend;
 
     private LocalDateTime lastPurchaseDate;
-}
\ No newline at end of file
+
+    // Denormalised from annualSpend/lastPurchaseDate for tier queries; see TierPolicy.Evaluator#assign.
+    // Re-tiering does not change what clients see, so it does not bump the version.
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    @OptimisticLock(excluded = true)
+    private Tier tier;
+
+    @OptimisticLock(excluded = true)
+    private LocalDateTime tierValidUntil;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,50 @@
+package com.customer.api.customer_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** An outbox row; see V5__customer_change_outbox.sql and CustomerChangeRelay. */
+@Entity
+@Table(name = "customer_change",
+        uniqueConstraints = @UniqueConstraint(name = "ux_customer_change_sequence_number", columnNames = "sequence_number"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerChange {
+    // Rows are inserted by native statements in CustomerChangeRepository, never persisted from here
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Assigned when published; null until then
+    private Long sequenceNumber;
+
+    @Column(nullable = false)
+    private UUID customerId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private ChangeType changeType;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    private Tier tierBefore;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    private Tier tierAfter;
+
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+}
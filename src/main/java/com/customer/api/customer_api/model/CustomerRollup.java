@@ -0,0 +1,58 @@
+package com.customer.api.customer_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/** One stripe of a stats bucket; see V6__customer_rollup.sql and CustomerRollupRepository. */
+@Entity
+@Table(name = "customer_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerRollup {
+
+    public enum Dimension {
+        /** Bucket {@code FLOOR(LOG10(annual_spend + 1) * 20)}, with a negative spend counted in bucket 0. */
+        SPEND,
+        /** Bucket {@code year * 12 + month - 1} of the last purchase, or -1 for none. */
+        PURCHASE_MONTH
+    }
+
+    // Rows are written by native statements in CustomerRollupRepository, never persisted from here
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false)
+    private long customerCount;
+
+    @Column(nullable = false)
+    private BigDecimal spendTotal;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Enumerated(EnumType.STRING)
+        @JdbcTypeCode(SqlTypes.VARCHAR)
+        @Column(nullable = false, length = 16)
+        private Tier tier;
+
+        @Enumerated(EnumType.STRING)
+        @JdbcTypeCode(SqlTypes.VARCHAR)
+        @Column(nullable = false, length = 16)
+        private Dimension dimension;
+
+        @Column(nullable = false)
+        private int bucket;
+
+        @Column(nullable = false)
+        private short stripe;
+    }
+}
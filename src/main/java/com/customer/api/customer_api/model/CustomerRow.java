@@ -0,0 +1,42 @@
+package com.customer.api.customer_api.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The {@code customer} table as mapped by Spring Data R2DBC for the reactive profile; the servlet
+ * stack maps the same table through the JPA {@link Customer} entity.
+ */
+@Table("customer")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerRow {
+    // Assigned by the service before insert; a null version is what marks the row as new.
+    @Id
+    private UUID id;
+
+    @ToString.Exclude
+    private String name;
+
+    @ToString.Exclude
+    private String email;
+
+    private BigDecimal annualSpend;
+
+    private LocalDateTime lastPurchaseDate;
+
+    private Tier tier;
+
+    private LocalDateTime tierValidUntil;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,31 @@
+package com.customer.api.customer_api.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum Tier {
+    SILVER("Silver"),
+    GOLD("Gold"),
+    PLATINUM("Platinum");
+
+    private final String label;
+
+    Tier(String label) {
+        this.label = label;
+    }
+
+    /** Accepts either the API label ("Gold") or the constant name ("GOLD"), ignoring case. */
+    public static Tier fromString(String value) {
+        for (Tier tier : values()) {
+            if (tier.label.equalsIgnoreCase(value) || tier.name().equalsIgnoreCase(value)) {
+                return tier;
+            }
+        }
+        throw new IllegalArgumentException("Unknown tier: " + value);
+    }
+
+    /** Name used in the JSON API. */
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+}
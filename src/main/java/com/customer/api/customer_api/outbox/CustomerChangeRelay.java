@@ -0,0 +1,86 @@
+package com.customer.api.customer_api.outbox;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerChangeEvent;
+import com.customer.api.customer_api.model.CustomerChange;
+import com.customer.api.customer_api.repository.CustomerChangeRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes outbox rows in batches: numbers each unpublished row (its {@code sequence_number}), hands
+ * the batch to the {@link CustomerChangeSink} if one is configured, and commits. Numbering at publish
+ * time rather than at insert means sequences follow commit order, which GET /customers/changes relies on.
+ */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerChangeRelay {
+
+    private final CustomerChangeRepository changeRepository;
+    private final ObjectProvider<CustomerChangeSink> sink;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final CustomerApiProperties properties;
+    private final Clock clock;
+
+    @Scheduled(fixedDelayString = "${customer.outbox.relay-interval:PT1S}")
+    public void run() {
+        relay();
+    }
+
+    @Scheduled(fixedDelayString = "${customer.outbox.prune-interval:PT1H}",
+            initialDelayString = "${customer.outbox.prune-interval:PT1H}")
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(properties.getOutbox().getRetention());
+        Integer pruned = transactionTemplate.execute(status -> changeRepository.deletePublishedBefore(cutoff));
+        if (pruned != null && pruned > 0) {
+            log.info("Pruned {} published customer changes", pruned);
+        }
+    }
+
+    /** Returns the number of changes published. */
+    public int relay() {
+        Limit batch = Limit.of(Math.max(1, properties.getOutbox().getBatchSize()));
+        int total = 0;
+        int published;
+        do {
+            published = transactionTemplate.execute(status -> {
+                List<CustomerChange> pending = changeRepository.findBySequenceNumberIsNullOrderByIdAsc(batch);
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                Long last = changeRepository.findMaxSequenceNumber();
+                long next = last == null ? 0 : last;
+                for (CustomerChange change : pending) {
+                    change.setSequenceNumber(++next);
+                }
+                CustomerChangeSink target = sink.getIfAvailable();
+                if (target != null) {
+                    target.publish(pending.stream().map(CustomerChangeEvent::of).toList());
+                }
+                changeRepository.flush();
+                entityManager.clear();
+                return pending.size();
+            });
+            total += published;
+        } while (published == batch.max());
+
+        if (total > 0) {
+            log.debug("Published {} customer changes", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,15 @@
+package com.customer.api.customer_api.outbox;
+
+import com.customer.api.customer_api.dto.CustomerChangeEvent;
+
+import java.util.List;
+
+/**
+ * Where {@link CustomerChangeRelay} publishes outbox rows, in sequence order. Called inside the relay's
+ * transaction: throwing leaves the batch unpublished for the next run, so delivery is at least once
+ * and consumers should ignore an {@code eventId} they have already seen.
+ */
+public interface CustomerChangeSink {
+
+    void publish(List<CustomerChangeEvent> events);
+}
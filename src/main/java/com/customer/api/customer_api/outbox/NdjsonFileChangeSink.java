@@ -0,0 +1,55 @@
+package com.customer.api.customer_api.outbox;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerChangeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/** Appends published changes to {@code customer.outbox.file}, one JSON object per line. */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "customer.outbox", name = "file")
+public class NdjsonFileChangeSink implements CustomerChangeSink {
+
+    private final ObjectWriter writer;
+    private final Path file;
+
+    public NdjsonFileChangeSink(ObjectMapper objectMapper, CustomerApiProperties properties) {
+        this.writer = objectMapper.writerFor(CustomerChangeEvent.class);
+        this.file = Path.of(properties.getOutbox().getFile());
+    }
+
+    @Override
+    public void publish(List<CustomerChangeEvent> events) {
+        try {
+            ByteArrayOutputStream batch = new ByteArrayOutputStream(events.size() * 200);
+            for (CustomerChangeEvent event : events) {
+                writer.writeValue(batch, event);
+                batch.write('\n');
+            }
+            // One write and one fsync per batch; the relay only marks the batch published after this returns
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
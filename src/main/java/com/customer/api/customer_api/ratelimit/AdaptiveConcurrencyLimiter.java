@@ -0,0 +1,110 @@
+package com.customer.api.customer_api.ratelimit;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caps the requests in flight at a limit that follows observed latency (additive increase,
+ * multiplicative decrease). While a short-term average of response times stays within
+ * {@code latencyTolerance} of the long-term one, a busy limiter grows by one per response; once it
+ * climbs past that, the limit is cut by {@code backoffRatio}, at most once per current response time.
+ * Critical requests may use the whole limit, others only what {@code criticalReserve} leaves.
+ * <p>
+ * Every response updates the averages and the limit, so they live in one immutable {@link State}
+ * swapped by compare-and-set rather than behind a lock that all response threads would queue on.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final CustomerApiProperties.LoadShedding settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicReference<State> state;
+
+    public AdaptiveConcurrencyLimiter(CustomerApiProperties.LoadShedding settings) {
+        this.settings = settings;
+        int limit = Math.clamp(settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit());
+        this.state = new AtomicReference<>(new State(Latency.NONE, Latency.NONE, limit, Long.MIN_VALUE));
+    }
+
+    public boolean tryAcquire(boolean critical) {
+        int current = limit();
+        int allowed = critical ? current : Math.max(1, (int) (current * (1 - settings.getCriticalReserve())));
+        while (true) {
+            int running = inFlight.get();
+            if (running >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Releases a permit without a sample, for responses whose duration says nothing about load (streams). */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /** Releases a permit for a response that took {@code latencyNanos} and finished at {@code now}. */
+    public void release(boolean critical, long latencyNanos, long now) {
+        int running = inFlight.getAndDecrement();
+        State current;
+        State next;
+        do {
+            current = state.get();
+            next = update(current, critical, latencyNanos, running, now);
+        } while (!state.compareAndSet(current, next));
+    }
+
+    public int limit() {
+        return state.get().limit();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private State update(State current, boolean critical, long sample, int running, long now) {
+        // Critical lookups and everything else are averaged apart: their costs differ by orders of magnitude
+        Latency criticalLatency = critical ? current.critical().add(sample) : current.critical();
+        Latency otherLatency = critical ? current.other() : current.other().add(sample);
+        int limit = current.limit();
+        long nextDecrease = current.nextDecrease();
+
+        Latency slowest = criticalLatency.ratio() >= otherLatency.ratio() ? criticalLatency : otherLatency;
+        if (slowest.ratio() > settings.getLatencyTolerance()) {
+            if (now >= nextDecrease) {
+                limit = Math.max(settings.getMinLimit(), (int) (limit * settings.getBackoffRatio()));
+                nextDecrease = now + (long) slowest.recent();
+            }
+        } else if (running * 2 >= limit) {
+            // Only grow while the limit is actually in use, or it would drift up during quiet periods
+            limit = Math.min(settings.getMaxLimit(), limit + 1);
+        }
+        return new State(criticalLatency, otherLatency, limit, nextDecrease);
+    }
+
+    private record State(Latency critical, Latency other, int limit, long nextDecrease) {
+    }
+
+    /** Exponentially weighted averages over roughly the last 10 and the last 200 responses. */
+    private record Latency(double recent, double baseline) {
+        private static final double RECENT_WEIGHT = 0.1;
+        private static final double BASELINE_WEIGHT = 0.005;
+
+        static final Latency NONE = new Latency(0, 0);
+
+        Latency add(long sample) {
+            if (baseline == 0) {
+                return new Latency(sample, sample);
+            }
+            return new Latency(recent + (sample - recent) * RECENT_WEIGHT,
+                    baseline + (sample - baseline) * BASELINE_WEIGHT);
+        }
+
+        double ratio() {
+            return baseline == 0 ? 0 : recent / baseline;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.customer.api.customer_api.ratelimit;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Token buckets per API client, one for reads and one for writes, so a client's bulk loads do not use
+ * up its lookups. Buckets live in a Caffeine map (striped, lock-free reads) and are dropped once a
+ * client has been idle long enough for them to have refilled.
+ */
+public class ClientRateLimiter {
+
+    private final CustomerApiProperties.RateLimit settings;
+    private final Cache<String, Buckets> clients;
+
+    public ClientRateLimiter(CustomerApiProperties.RateLimit settings) {
+        this.settings = settings;
+        double slowestRefill = Math.max(settings.getReadBurst() / settings.getReadsPerSecond(),
+                settings.getWriteBurst() / settings.getWritesPerSecond());
+        this.clients = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis((long) Math.ceil(slowestRefill * 1000)).plusSeconds(1))
+                .maximumSize(settings.getMaxClients())
+                .build();
+    }
+
+    /** Takes a token from the client's read or write budget; returns 0, or the nanos until one is free. */
+    public long tryAcquire(String client, boolean write, long now) {
+        Buckets buckets = clients.get(client, key -> new Buckets(
+                new TokenBucket(settings.getReadsPerSecond(), settings.getReadBurst()),
+                new TokenBucket(settings.getWritesPerSecond(), settings.getWriteBurst())));
+        return (write ? buckets.writes() : buckets.reads()).tryAcquire(now);
+    }
+
+    private record Buckets(TokenBucket reads, TokenBucket writes) {
+    }
+}
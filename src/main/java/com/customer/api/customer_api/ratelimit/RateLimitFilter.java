@@ -0,0 +1,112 @@
+package com.customer.api.customer_api.ratelimit;
+
+import com.customer.api.customer_api.controller.CustomerRequests;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.metrics.CustomerMetrics.Rejection;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control for {@code /customers}: a request first needs a token from its client's read or
+ * write budget ({@link ClientRateLimiter}, else 429), then a slot under the adaptive concurrency limit
+ * ({@link AdaptiveConcurrencyLimiter}, else 503). Both answer with Retry-After before the request
+ * reaches a controller or a database connection. Lookups of single customers by id or email and
+ * POST /customers/lookup are critical: they are shed last.
+ * <p>
+ * Budgets are keyed by {@link CustomerRequests#client}, never by a header the caller sets. Either limiter
+ * may be null when it is switched off.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Pattern CUSTOMER_BY_ID = Pattern.compile("/customers/[0-9a-fA-F-]{36}");
+    private static final byte[] RATE_LIMITED = problem(HttpStatus.TOO_MANY_REQUESTS,
+            "Too many requests from this client, please retry");
+    private static final byte[] OVERLOADED = problem(HttpStatus.SERVICE_UNAVAILABLE, "Service is busy, please retry");
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final CustomerMetrics metrics;
+
+    public RateLimitFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           CustomerMetrics metrics) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = CustomerRequests.path(request);
+        boolean critical = isCritical(request, path);
+        boolean write = CustomerRequests.isWrite(request);
+
+        long start = System.nanoTime();
+        long wait = rateLimiter == null ? 0 : rateLimiter.tryAcquire(CustomerRequests.client(request), write, start);
+        if (wait > 0) {
+            metrics.requestRejected(Rejection.RATE_LIMITED);
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999), RATE_LIMITED);
+            return;
+        }
+        if (concurrencyLimiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire(critical)) {
+            metrics.requestRejected(Rejection.OVERLOADED);
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, OVERLOADED);
+            return;
+        }
+
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            String contentType = response.getContentType();
+            if (completed && !request.isAsyncStarted() && !path.equals("/customers/export")
+                    && (contentType == null || !contentType.startsWith("application/x-ndjson"))) {
+                long end = System.nanoTime();
+                concurrencyLimiter.release(critical, end - start, end);
+            } else {
+                // Streams and exports take as long as their data, and failures as long as whatever failed
+                concurrencyLimiter.release();
+            }
+        }
+    }
+
+    private static boolean isCritical(HttpServletRequest request, String path) {
+        return switch (request.getMethod()) {
+            case "GET" -> CUSTOMER_BY_ID.matcher(path).matches()
+                    || (path.equals("/customers") && request.getParameter("email") != null);
+            case "POST" -> path.equals("/customers/lookup");
+            default -> false;
+        };
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, byte[] body)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /** The RFC 7807 body GlobalExceptionHandler would write, minus the request-specific instance. */
+    private static byte[] problem(HttpStatus status, String detail) {
+        return ("{\"type\":\"about:blank\",\"title\":\"" + status.getReasonPhrase() + "\",\"status\":"
+                + status.value() + ",\"detail\":\"" + detail + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+}
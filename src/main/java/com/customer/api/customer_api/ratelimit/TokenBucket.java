@@ -0,0 +1,35 @@
+package com.customer.api.customer_api.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept as a single {@link AtomicLong}: the time at which the bucket would be full
+ * again (the generic cell rate algorithm). Taking a token is one compare-and-set, with no lock and
+ * no refill thread.
+ */
+final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(double tokensPerSecond, int burst) {
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = nanosPerToken * Math.max(1, burst);
+    }
+
+    /** Takes a token at {@code now} ({@link System#nanoTime()}); returns 0, or how long until one is free. */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
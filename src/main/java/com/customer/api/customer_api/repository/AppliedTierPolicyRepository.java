@@ -0,0 +1,15 @@
+package com.customer.api.customer_api.repository;
+
+import com.customer.api.customer_api.model.AppliedTierPolicy;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import java.util.Optional;
+
+public interface AppliedTierPolicyRepository extends JpaRepository<AppliedTierPolicy, Short> {
+
+    // Locked so instances starting together with a new policy re-tier the table once, one after another
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<AppliedTierPolicy> findWithLockById(short id);
+}
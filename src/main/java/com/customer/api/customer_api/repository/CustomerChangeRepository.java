@@ -0,0 +1,77 @@
+package com.customer.api.customer_api.repository;
+
+import com.customer.api.customer_api.model.CustomerChange;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface CustomerChangeRepository extends JpaRepository<CustomerChange, Long> {
+
+    // Outbox writes copy what they need from the customer row inside the database, so recording a
+    // change is one extra statement in the mutation's transaction and no extra read.
+
+    // Flushes first: the customers being recorded may still be pending inserts in the persistence context.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO customer_change (customer_id, change_type, tier_before, tier_after, version, changed_at)"
+            + " SELECT id, 'CREATED', NULL, tier, version, :changedAt FROM customer WHERE id IN (:ids)",
+            nativeQuery = true)
+    int recordCreated(Collection<UUID> ids, LocalDateTime changedAt);
+
+    // Runs just before the UPDATE and reads the tier it replaces. If the UPDATE then matches no row,
+    // the exception it raises rolls this insert back too.
+    @Modifying
+    @Query(value = "INSERT INTO customer_change (customer_id, change_type, tier_before, tier_after, version, changed_at)"
+            + " SELECT id, 'UPDATED', tier, :tierAfter, version + 1, :changedAt FROM customer WHERE id = :id",
+            nativeQuery = true)
+    int recordUpdated(UUID id, String tierAfter, LocalDateTime changedAt);
+
+    // Runs just before the DELETE, while the row can still be read
+    @Modifying
+    @Query(value = "INSERT INTO customer_change (customer_id, change_type, tier_before, tier_after, version, changed_at)"
+            + " SELECT id, 'DELETED', tier, NULL, version, :changedAt FROM customer WHERE id = :id",
+            nativeQuery = true)
+    int recordDeleted(UUID id, LocalDateTime changedAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO customer_change (customer_id, change_type, tier_before, tier_after, version, changed_at)"
+            + " VALUES (:id, 'TIER_CHANGED', :tierBefore, :tierAfter, :version, :changedAt)",
+            nativeQuery = true)
+    int recordTierChanged(UUID id, String tierBefore, String tierAfter, Long version, LocalDateTime changedAt);
+
+    // Locked so two relays cannot number the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<CustomerChange> findBySequenceNumberIsNullOrderByIdAsc(Limit limit);
+
+    @Query("select max(c.sequenceNumber) from CustomerChange c")
+    Long findMaxSequenceNumber();
+
+    @Query("select min(c.sequenceNumber) from CustomerChange c")
+    Long findMinSequenceNumber();
+
+    // Committed changes the relay has not numbered yet
+    boolean existsBySequenceNumberIsNull();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CustomerChange> findBySequenceNumberGreaterThanOrderBySequenceNumberAsc(long since);
+
+    // The newest published row is always kept, so the relay's numbering never restarts
+    @Modifying
+    @Query("delete from CustomerChange c where c.changedAt < :cutoff and c.sequenceNumber"
+            + " < (select max(m.sequenceNumber) from CustomerChange m)")
+    int deletePublishedBefore(LocalDateTime cutoff);
+}
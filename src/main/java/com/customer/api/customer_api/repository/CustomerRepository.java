@@ -1,12 +1,131 @@
 package com.customer.api.customer_api.repository;
 
+import com.customer.api.customer_api.dto.CustomerSearchFields;
+import com.customer.api.customer_api.dto.CustomerVersion;
 import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.Tier;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
-    Optional<Customer> findByName(String name);
     Optional<Customer> findByEmail(String email);
-}
\ No newline at end of file
+
+    // Conditional reads: only the columns behind the ETag, not the customer's own data.
+    @Query("select new com.customer.api.customer_api.dto.CustomerVersion(c.version, c.tier, c.tierValidUntil)"
+            + " from Customer c where c.id = :id")
+    Optional<CustomerVersion> findVersionById(UUID id);
+
+    // Batch lookups, one IN (...) query per chunk of keys. The rows are only mapped to responses,
+    // so Hibernate skips the dirty-checking snapshot.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Customer> findByIdIn(Collection<UUID> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Customer> findByEmailIn(Collection<String> emails);
+
+    // Keyset pagination: seeks past the last id of the previous page via the primary key index.
+    List<Customer> findAllByOrderByIdAsc(Limit limit);
+    List<Customer> findByIdGreaterThanOrderByIdAsc(UUID after, Limit limit);
+
+    // Names are not unique; paged the same way through the (name, id) index. The ORDER BY repeats
+    // the equality column so the database reads the index in order instead of sorting every match.
+    @Query("select c from Customer c where c.name = :name order by c.name, c.id")
+    List<Customer> findPageByName(String name, Limit limit);
+
+    @Query("select c from Customer c where c.name = :name and c.id > :after order by c.name, c.id")
+    List<Customer> findPageByNameAfter(String name, UUID after, Limit limit);
+
+    // Customers whose stored tier is still current, keyset-paged through the (tier, id) index.
+    @Query("select c from Customer c where c.tier = :tier"
+            + " and (c.tierValidUntil is null or c.tierValidUntil > :now) order by c.tier, c.id")
+    List<Customer> findCurrentByTier(Tier tier, LocalDateTime now, Limit limit);
+
+    @Query("select c from Customer c where c.tier = :tier and c.id > :after"
+            + " and (c.tierValidUntil is null or c.tierValidUntil > :now) order by c.tier, c.id")
+    List<Customer> findCurrentByTierAfter(Tier tier, LocalDateTime now, UUID after, Limit limit);
+
+    // Rows whose stored tier lapsed at or before :now. Locked so a concurrent update either
+    // waits for the recompute or is seen by it, and never has its new tier overwritten.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Customer> findByTierValidUntilLessThanEqualOrderByTierValidUntilAsc(LocalDateTime now, Limit limit);
+
+    // Ids only, keyset-paged through the primary key, for passes over the whole table in chunks
+    @Query("select c.id from Customer c order by c.id")
+    List<UUID> findIds(Limit limit);
+
+    @Query("select c.id from Customer c where c.id > :after order by c.id")
+    List<UUID> findIdsAfter(UUID after, Limit limit);
+
+    // Marks the stored tiers lapsed, for a re-tier of the whole table after the tier policy changed
+    @Modifying
+    @Query("update Customer c set c.tierValidUntil = :now where c.id in :ids")
+    int expireTiers(Collection<UUID> ids, LocalDateTime now);
+
+    // Single-statement writes: no read before the write, and the affected-row count tells a
+    // missing row apart. A null :version skips the optimistic check; the version is bumped either way.
+    @Modifying
+    @Query("update Customer c set c.name = :name, c.email = :email, c.annualSpend = :annualSpend,"
+            + " c.lastPurchaseDate = :lastPurchaseDate, c.tier = :tier, c.tierValidUntil = :tierValidUntil,"
+            + " c.version = c.version + 1 where c.id = :id and (:version is null or c.version = :version)")
+    int updateById(UUID id, String name, String email, BigDecimal annualSpend, LocalDateTime lastPurchaseDate,
+                   Tier tier, LocalDateTime tierValidUntil, Long version);
+
+    // Locks the row an update or delete is about to replace, so the outbox and rollups read it after
+    // any concurrent write to it has committed, not alongside one.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c.id from Customer c where c.id = :id")
+    Optional<UUID> lockIdById(UUID id);
+
+    // Upsert by email. Locks the existing row, if any, so the outbox and rollups can read what it
+    // replaces; a row inserted concurrently is not locked, which upsertByEmail's caller detects.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c.id from Customer c where c.email = :email")
+    Optional<UUID> lockIdByEmail(String email);
+
+    // One statement either way, so concurrent upserts of one email serialize on its unique index instead of
+    // both inserting. :id is only used for an insert; a stale :version matches nothing and writes nothing.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "MERGE INTO customer c USING (VALUES (CAST(:id AS UUID), CAST(:name AS VARCHAR(255)),"
+            + " CAST(:email AS VARCHAR(255)), CAST(:annualSpend AS NUMERIC(38, 2)),"
+            + " CAST(:lastPurchaseDate AS TIMESTAMP(6)), CAST(:tier AS VARCHAR(16)), CAST(:tierValidUntil AS TIMESTAMP(6))))"
+            + " s (id, name, email, annual_spend, last_purchase_date, tier, tier_valid_until) ON c.email = s.email"
+            + " WHEN MATCHED AND (CAST(:version AS BIGINT) IS NULL OR c.version = :version) THEN UPDATE SET"
+            + "  name = s.name, annual_spend = s.annual_spend, last_purchase_date = s.last_purchase_date,"
+            + "  tier = s.tier, tier_valid_until = s.tier_valid_until, version = c.version + 1"
+            + " WHEN NOT MATCHED THEN INSERT (id, name, email, annual_spend, last_purchase_date, tier, tier_valid_until, version)"
+            + "  VALUES (s.id, s.name, s.email, s.annual_spend, s.last_purchase_date, s.tier, s.tier_valid_until, 0)",
+            nativeQuery = true)
+    int upsertByEmail(UUID id, String name, String email, BigDecimal annualSpend, LocalDateTime lastPurchaseDate,
+                      String tier, LocalDateTime tierValidUntil, Long version);
+
+    @Modifying
+    @Query("delete from Customer c where c.id = :id")
+    int deleteCustomerById(UUID id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Customer c order by c.id")
+    Stream<Customer> streamAllOrderedById();
+
+    // Search index rebuild: only the indexed columns, in no particular order.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.customer.api.customer_api.dto.CustomerSearchFields(c.id, c.name, c.email) from Customer c")
+    Stream<CustomerSearchFields> streamSearchFields();
+}
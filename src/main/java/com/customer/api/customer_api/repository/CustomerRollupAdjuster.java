@@ -0,0 +1,11 @@
+package com.customer.api.customer_api.repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/** The rollup write behind {@link CustomerRollupRepository#add} and {@link CustomerRollupRepository#remove}. */
+public interface CustomerRollupAdjuster {
+
+    /** Adds {@code sign} times the customers' stored rows to one stripe of their buckets. */
+    int adjust(Collection<UUID> ids, int sign, int stripe);
+}
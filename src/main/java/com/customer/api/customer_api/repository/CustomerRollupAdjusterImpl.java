@@ -0,0 +1,78 @@
+package com.customer.api.customer_api.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * Runs the rollup MERGE over the transaction's JDBC connection rather than as a JPA query. Two writers
+ * that are first to a (tier, dimension, bucket, stripe) both take the WHEN NOT MATCHED branch, and the
+ * second to commit fails on the primary key. H2 rolls back only that statement, so it is retried and
+ * now matches the winner's row; through JPA the failure would have marked the whole transaction
+ * rollback-only and surfaced as a 409.
+ */
+@RequiredArgsConstructor
+@Slf4j
+class CustomerRollupAdjusterImpl implements CustomerRollupAdjuster {
+
+    private static final int ATTEMPTS = 3;
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // Buckets are computed from the customer rows inside the database, like the outbox writes, so an
+    // update takes a row out of exactly the buckets it was counted into without reading it first.
+    private static final String MERGE = "MERGE INTO customer_rollup r USING ("
+            + " SELECT tier, dimension, bucket, COUNT(*) AS customers, SUM(spend) AS spend FROM ("
+            + "  SELECT tier, CAST('SPEND' AS VARCHAR(16)) AS dimension,"
+            + "   CAST(FLOOR(LOG10(GREATEST(COALESCE(annual_spend, 0), 0) + 1) * 20) AS INT) AS bucket,"
+            + "   COALESCE(annual_spend, 0) AS spend FROM customer WHERE id IN (%1$s)"
+            + "  UNION ALL"
+            + "  SELECT tier, CAST('PURCHASE_MONTH' AS VARCHAR(16)),"
+            + "   COALESCE(CAST(EXTRACT(YEAR FROM last_purchase_date) * 12"
+            + "    + EXTRACT(MONTH FROM last_purchase_date) - 1 AS INT), -1),"
+            + "   COALESCE(annual_spend, 0) FROM customer WHERE id IN (%1$s)"
+            + " ) c GROUP BY tier, dimension, bucket) s"
+            + " ON (r.tier = s.tier AND r.dimension = s.dimension AND r.bucket = s.bucket AND r.stripe = %2$d)"
+            + " WHEN MATCHED THEN UPDATE SET customer_count = r.customer_count + %3$d * s.customers,"
+            + "  spend_total = r.spend_total + %3$d * s.spend"
+            + " WHEN NOT MATCHED THEN INSERT (tier, dimension, bucket, stripe, customer_count, spend_total)"
+            + "  VALUES (s.tier, s.dimension, s.bucket, %2$d, %3$d * s.customers, %3$d * s.spend)";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int adjust(Collection<UUID> ids, int sign, int stripe) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // The customers may still be pending inserts in the persistence context
+        entityManager.flush();
+        // Sign and stripe come from a handful of values, so they are inlined and the statement text
+        // only varies with the number of ids
+        String sql = MERGE.formatted(String.join(", ", Collections.nCopies(ids.size(), "?")), stripe, sign);
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            for (int attempt = 1; ; attempt++) {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    int index = 1;
+                    for (int copy = 0; copy < 2; copy++) {
+                        for (UUID id : ids) {
+                            statement.setObject(index++, id);
+                        }
+                    }
+                    return statement.executeUpdate();
+                } catch (SQLException ex) {
+                    if (attempt == ATTEMPTS || !UNIQUE_VIOLATION.equals(ex.getSQLState())) {
+                        throw ex;
+                    }
+                    log.debug("Concurrent insert of the same rollup bucket, retrying", ex);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.customer.api.customer_api.repository;
+
+import com.customer.api.customer_api.model.CustomerRollup;
+import com.customer.api.customer_api.model.Tier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface CustomerRollupRepository extends JpaRepository<CustomerRollup, CustomerRollup.Key>,
+        CustomerRollupAdjuster {
+
+    /** Stripes per bucket: about the number of transactions expected to write the same bucket at once. */
+    int STRIPES = 8;
+
+    /** Counts the customers' stored rows into their buckets. Call after inserting or updating them. */
+    default void add(Collection<UUID> ids) {
+        adjust(ids, 1, stripe());
+    }
+
+    /** Takes the customers' stored rows out of their buckets. Call before updating or deleting them. */
+    default void remove(Collection<UUID> ids) {
+        adjust(ids, -1, stripe());
+    }
+
+    // Fixed per thread, so an update takes out and adds back on one stripe. With a stripe per call, two
+    // updates in the same bucket could each lock one stripe and wait for the other's until the lock timeout.
+    private static int stripe() {
+        return (int) (Thread.currentThread().threadId() % STRIPES);
+    }
+
+    /** Every bucket with its stripes added up; a few thousand rows however many customers there are. */
+    @Query("select r.key.tier as tier, r.key.dimension as dimension, r.key.bucket as bucket,"
+            + " sum(r.customerCount) as customers, sum(r.spendTotal) as spend"
+            + " from CustomerRollup r group by r.key.tier, r.key.dimension, r.key.bucket")
+    List<BucketTotal> sumBuckets();
+
+    interface BucketTotal {
+        Tier getTier();
+        CustomerRollup.Dimension getDimension();
+        int getBucket();
+        long getCustomers();
+        BigDecimal getSpend();
+    }
+}
@@ -0,0 +1,56 @@
+package com.customer.api.customer_api.repository;
+
+import com.customer.api.customer_api.model.CustomerRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+/** Reactive counterpart of {@link CustomerRepository}, with the same keyset queries written in SQL. */
+public interface ReactiveCustomerRepository extends R2dbcRepository<CustomerRow, UUID> {
+    Mono<CustomerRow> findByEmail(String email);
+
+    Flux<CustomerRow> findByIdIn(Collection<UUID> ids);
+
+    Flux<CustomerRow> findByEmailIn(Collection<String> emails);
+
+    @Query("SELECT * FROM customer ORDER BY id LIMIT :limit")
+    Flux<CustomerRow> findPage(int limit);
+
+    @Query("SELECT * FROM customer WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<CustomerRow> findPageAfter(UUID after, int limit);
+
+    @Query("SELECT * FROM customer WHERE name = :name ORDER BY name, id LIMIT :limit")
+    Flux<CustomerRow> findPageByName(String name, int limit);
+
+    @Query("SELECT * FROM customer WHERE name = :name AND id > :after ORDER BY name, id LIMIT :limit")
+    Flux<CustomerRow> findPageByNameAfter(String name, UUID after, int limit);
+
+    @Query("SELECT * FROM customer WHERE tier = :tier"
+            + " AND (tier_valid_until IS NULL OR tier_valid_until > :now) ORDER BY tier, id LIMIT :limit")
+    Flux<CustomerRow> findCurrentByTier(String tier, LocalDateTime now, int limit);
+
+    @Query("SELECT * FROM customer WHERE tier = :tier AND id > :after"
+            + " AND (tier_valid_until IS NULL OR tier_valid_until > :now) ORDER BY tier, id LIMIT :limit")
+    Flux<CustomerRow> findCurrentByTierAfter(String tier, LocalDateTime now, UUID after, int limit);
+
+    @Query("SELECT * FROM customer ORDER BY id")
+    Flux<CustomerRow> streamAllOrderedById();
+
+    @Modifying
+    @Query("UPDATE customer SET name = :name, email = :email, annual_spend = :annualSpend,"
+            + " last_purchase_date = :lastPurchaseDate, tier = :tier, tier_valid_until = :tierValidUntil,"
+            + " version = version + 1 WHERE id = :id AND (:version IS NULL OR version = :version)")
+    Mono<Integer> updateById(UUID id, String name, String email, BigDecimal annualSpend,
+                             LocalDateTime lastPurchaseDate, String tier, LocalDateTime tierValidUntil, Long version);
+
+    @Modifying
+    @Query("DELETE FROM customer WHERE id = :id")
+    Mono<Integer> deleteCustomerById(UUID id);
+}
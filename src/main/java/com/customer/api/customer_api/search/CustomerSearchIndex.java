@@ -0,0 +1,370 @@
+package com.customer.api.customer_api.search;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerSearchFields;
+import com.customer.api.customer_api.exception.SearchUnavailableException;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.CharTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene index over customer names and emails, for {@code GET /customers/search}.
+ * <p>
+ * Both fields are split into words at anything that is not a letter or digit, lower-cased and folded
+ * to ASCII, so {@code "José"} matches {@code jose} and {@code jane.doe@example.com} matches {@code doe}.
+ * Each word is also indexed by its leading 1 to {@value #MAX_PREFIX} characters, which is what makes
+ * {@code "jo smi"} find John Smith: every query word must match the start of some word of the name or
+ * email. Whole-word matches outrank prefix matches, and a query that is a complete email ranks that
+ * customer first.
+ * <p>
+ * The index is not durable: it starts empty and is rebuilt from the database in the background once
+ * the application is ready, while committed writes are applied as they happen. A write that reaches
+ * the index during the rebuild wins over the row the rebuild read. Searches see changes after the next
+ * refresh ({@code customer.search.refresh-interval}).
+ */
+@Component
+@Profile("!reactive")
+@Slf4j
+public class CustomerSearchIndex implements AutoCloseable {
+
+    static final int MAX_PREFIX = 15;
+    // Enough for a full name plus an email; longer queries are cut here to bound their cost
+    private static final int MAX_QUERY_WORDS = 8;
+    private static final float WHOLE_WORD_BOOST = 2f;
+    private static final float EXACT_EMAIL_BOOST = 10f;
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String NAME_PREFIX = "name_prefix";
+    private static final String EMAIL = "email";
+    private static final String EMAIL_PREFIX = "email_prefix";
+    private static final String EMAIL_EXACT = "email_exact";
+
+    // Term frequencies and norms let a word that makes up more of a short name score higher
+    private static final FieldType WORDS = new FieldType();
+    // Prefixes only need to match: no frequencies, no norms
+    private static final FieldType PREFIXES = new FieldType();
+
+    static {
+        WORDS.setTokenized(true);
+        WORDS.setIndexOptions(IndexOptions.DOCS_AND_FREQS);
+        WORDS.freeze();
+        PREFIXES.setTokenized(true);
+        PREFIXES.setOmitNorms(true);
+        PREFIXES.setIndexOptions(IndexOptions.DOCS);
+        PREFIXES.freeze();
+    }
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Analyzer wordAnalyzer = analyzer(false);
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searchers;
+
+    // Writes applied while the rebuild runs, so it does not overwrite them with what it read earlier
+    private final Object rebuildLock = new Object();
+    private final Set<UUID> writtenDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding = true;
+    private volatile boolean ready;
+    private volatile boolean closed;
+
+    public CustomerSearchIndex(CustomerApiProperties properties, CustomerRepository customerRepository,
+                               PlatformTransactionManager transactionManager) throws IOException {
+        this.customerRepository = customerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        String indexDir = properties.getSearch().getIndexDir();
+        if (indexDir == null) {
+            this.directory = new ByteBuffersDirectory();
+        } else {
+            // Memory-mapped, so a large index lives in the page cache instead of the heap
+            Path path = Files.createDirectories(Path.of(indexDir));
+            this.directory = FSDirectory.open(path);
+        }
+        Analyzer indexAnalyzer = new PerFieldAnalyzerWrapper(wordAnalyzer,
+                Map.of(NAME_PREFIX, analyzer(true), EMAIL_PREFIX, analyzer(true)));
+        IndexWriterConfig config = new IndexWriterConfig(indexAnalyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+                .setRAMBufferSizeMB(properties.getSearch().getRamBufferMb())
+                // Rebuilt on every start, so there is nothing worth flushing to disk on shutdown
+                .setCommitOnClose(false);
+        this.writer = new IndexWriter(directory, config);
+        this.searchers = new SearcherManager(writer, null);
+    }
+
+    /** Indexes a created or updated customer once the current transaction commits. */
+    public void index(UUID id, String name, String email) {
+        afterCommit(id, document(id, name, email));
+    }
+
+    /** Removes a deleted customer once the current transaction commits. */
+    public void remove(UUID id) {
+        afterCommit(id, null);
+    }
+
+    /**
+     * Ids of the customers matching {@code text}, best match first.
+     *
+     * @throws SearchUnavailableException while the startup rebuild is still running
+     */
+    public Hits search(String text, int offset, int limit) {
+        if (!ready) {
+            throw new SearchUnavailableException("Search index is still being built, please retry");
+        }
+        Query query = query(text);
+        if (query == null) {
+            return new Hits(List.of(), false);
+        }
+        try {
+            IndexSearcher searcher = searchers.acquire();
+            try {
+                // One extra hit tells whether another page exists without counting every match
+                ScoreDoc[] top = searcher.search(query, offset + limit + 1).scoreDocs;
+                StoredFields stored = searcher.storedFields();
+                int end = Math.min(top.length, offset + limit);
+                List<UUID> ids = new ArrayList<>(Math.max(end - offset, 0));
+                for (int i = offset; i < end; i++) {
+                    ids.add(UUID.fromString(stored.document(top[i].doc, Set.of(ID)).get(ID)));
+                }
+                return new Hits(ids, top.length > offset + limit);
+            } finally {
+                searchers.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Makes writes applied so far visible to searches. */
+    @Scheduled(fixedDelayString = "${customer.search.refresh-interval:PT1S}")
+    public void refresh() {
+        if (closed) {
+            return;
+        }
+        try {
+            searchers.maybeRefresh();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread.ofPlatform().name("customer-search-rebuild").daemon().start(this::rebuild);
+    }
+
+    /** Indexes every stored customer that no write has reached first. Runs once, on an empty index. */
+    public void rebuild() {
+        long start = System.nanoTime();
+        try {
+            Long indexed = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<CustomerSearchFields> rows = customerRepository.streamSearchFields()) {
+                    for (Iterator<CustomerSearchFields> it = rows.iterator(); it.hasNext() && !closed; count++) {
+                        CustomerSearchFields row = it.next();
+                        Document document = document(row.getId(), row.getName(), row.getEmail());
+                        synchronized (rebuildLock) {
+                            if (!writtenDuringRebuild.contains(row.getId())) {
+                                writer.addDocument(document);
+                            }
+                        }
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                return count;
+            });
+            if (closed) {
+                return;
+            }
+            synchronized (rebuildLock) {
+                rebuilding = false;
+                writtenDuringRebuild.clear();
+            }
+            refresh();
+            ready = true;
+            log.info("Search index rebuilt from {} customers in {} ms", indexed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException ex) {
+            if (!closed) {
+                log.error("Search index rebuild failed; GET /customers/search stays unavailable", ex);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        searchers.close();
+        writer.rollback();
+        directory.close();
+    }
+
+    private void afterCommit(UUID id, Document document) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(id, document);
+                }
+            });
+        } else {
+            apply(id, document);
+        }
+    }
+
+    private void apply(UUID id, Document document) {
+        if (rebuilding) {
+            synchronized (rebuildLock) {
+                if (rebuilding) {
+                    writtenDuringRebuild.add(id);
+                    write(id, document);
+                    return;
+                }
+            }
+        }
+        write(id, document);
+    }
+
+    private void write(UUID id, Document document) {
+        Term key = new Term(ID, id.toString());
+        try {
+            if (document == null) {
+                writer.deleteDocuments(key);
+            } else {
+                writer.updateDocument(key, document);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Document document(UUID id, String name, String email) {
+        Document document = new Document();
+        document.add(new StringField(ID, id.toString(), Field.Store.YES));
+        if (name != null) {
+            document.add(new Field(NAME, name, WORDS));
+            document.add(new Field(NAME_PREFIX, name, PREFIXES));
+        }
+        if (email != null) {
+            document.add(new Field(EMAIL, email, WORDS));
+            document.add(new Field(EMAIL_PREFIX, email, PREFIXES));
+            document.add(new StringField(EMAIL_EXACT, email.toLowerCase(Locale.ROOT), Field.Store.NO));
+        }
+        return document;
+    }
+
+    /** Every query word must start a word of the name or email; {@code null} if there are no words. */
+    private Query query(String text) {
+        List<String> words = words(text);
+        if (words.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String word : words) {
+            String prefix = word.length() > MAX_PREFIX ? word.substring(0, MAX_PREFIX) : word;
+            query.add(new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(NAME, word)), WHOLE_WORD_BOOST), Occur.SHOULD)
+                    .add(new BoostQuery(new TermQuery(new Term(EMAIL, word)), WHOLE_WORD_BOOST), Occur.SHOULD)
+                    .add(new TermQuery(new Term(NAME_PREFIX, prefix)), Occur.SHOULD)
+                    .add(new TermQuery(new Term(EMAIL_PREFIX, prefix)), Occur.SHOULD)
+                    .build(), Occur.MUST);
+        }
+        if (text.indexOf('@') >= 0) {
+            Term email = new Term(EMAIL_EXACT, text.strip().toLowerCase(Locale.ROOT));
+            query.add(new BoostQuery(new TermQuery(email), EXACT_EMAIL_BOOST), Occur.SHOULD);
+        }
+        return query.build();
+    }
+
+    private List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        try (TokenStream tokens = wordAnalyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (words.size() < MAX_QUERY_WORDS && tokens.incrementToken()) {
+                words.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return words;
+    }
+
+    private static Analyzer analyzer(boolean prefixes) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = CharTokenizer.fromTokenCharPredicate(Character::isLetterOrDigit);
+                TokenStream tokens = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+                if (prefixes) {
+                    // Keeps words longer than MAX_PREFIX whole as well, for an exact match on them
+                    tokens = new EdgeNGramTokenFilter(tokens, 1, MAX_PREFIX, true);
+                }
+                return new TokenStreamComponents(tokenizer, tokens);
+            }
+        };
+    }
+
+    /** One page of matching customer ids, and whether more matches follow it. */
+    public record Hits(List<UUID> ids, boolean hasMore) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.dto.BulkCreateResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface CustomerBulkService {
+    /**
+     * Reads a JSON array or newline-delimited JSON stream of customer requests and
+     * inserts them in chunks. The body is parsed incrementally and never held in memory.
+     */
+    BulkCreateResponse createCustomers(InputStream body) throws IOException;
+}
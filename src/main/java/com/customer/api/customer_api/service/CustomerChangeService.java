@@ -0,0 +1,13 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.dto.CustomerChangeEvent;
+
+import java.util.function.Consumer;
+
+public interface CustomerChangeService {
+    /**
+     * Passes every published change with a sequence above {@code since} to the consumer, in sequence
+     * order. Fails before the first one if changes after {@code since} have already been pruned.
+     */
+    void streamChanges(long since, Consumer<CustomerChangeEvent> consumer);
+}
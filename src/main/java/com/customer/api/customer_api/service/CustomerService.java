@@ -1,16 +1,46 @@
 package com.customer.api.customer_api.service;
 
+import com.customer.api.customer_api.dto.CustomerLookupRequest;
+import com.customer.api.customer_api.dto.CustomerLookupResponse;
+import com.customer.api.customer_api.dto.CustomerPage;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
 import com.customer.api.customer_api.dto.CustomerRequest;
 import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.dto.CustomerSearchPage;
+import com.customer.api.customer_api.dto.CustomerVersion;
+import com.customer.api.customer_api.model.Tier;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface CustomerService {
     CustomerResponse createCustomer(CustomerRequest request);
     CustomerResponse getCustomerById(UUID id);
-    CustomerResponse getCustomerByName(String name);
+
+    /**
+     * The version and tier a {@link #getCustomerById} would show, read without loading or tiering
+     * the customer; {@code null} if the customer is unknown or only a full read can tell.
+     */
+    CustomerVersion getCustomerVersion(UUID id);
+
+    CustomerPage listCustomers(UUID after, Integer limit);
+    void streamCustomers(Consumer<CustomerResponse> consumer);
+    CustomerPage getCustomersByName(String name, UUID after, Integer limit);
+    CustomerPage getCustomersByTier(Tier tier, UUID after, Integer limit);
     CustomerResponse getCustomerByEmail(String email);
+
+    /** Customers whose name or email words start with every word of {@code query}, best match first. */
+    CustomerSearchPage searchCustomers(String query, Integer offset, Integer limit);
+
+    CustomerLookupResponse lookupCustomers(CustomerLookupRequest request);
     CustomerResponse updateCustomer(UUID id, CustomerRequest request);
+    CustomerResponse patchCustomer(UUID id, CustomerPatchRequest patch);
+
+    /**
+     * Creates the customer with the request's email, or replaces every field of the one that has it.
+     * A request version, when present, must match the existing customer's.
+     */
+    CustomerResponse upsertCustomerByEmail(CustomerRequest request);
     void deleteCustomer(UUID id);
 }
\ No newline at end of file
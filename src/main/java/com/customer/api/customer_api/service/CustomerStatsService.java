@@ -0,0 +1,8 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.dto.CustomerStatsResponse;
+
+public interface CustomerStatsService {
+    /** Spend and recency statistics per tier, read from the rollups rather than the customers. */
+    CustomerStatsResponse getStats();
+}
@@ -0,0 +1,28 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.dto.CustomerLookupRequest;
+import com.customer.api.customer_api.dto.CustomerLookupResponse;
+import com.customer.api.customer_api.dto.CustomerPage;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.model.Tier;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/** Non-blocking {@link CustomerService}, served by the {@code reactive} profile. */
+public interface ReactiveCustomerService {
+    Mono<CustomerResponse> createCustomer(CustomerRequest request);
+    Mono<CustomerResponse> getCustomerById(UUID id);
+    Mono<CustomerPage> listCustomers(UUID after, Integer limit);
+    Flux<CustomerResponse> streamCustomers();
+    Mono<CustomerPage> getCustomersByName(String name, UUID after, Integer limit);
+    Mono<CustomerPage> getCustomersByTier(Tier tier, UUID after, Integer limit);
+    Mono<CustomerResponse> getCustomerByEmail(String email);
+    Mono<CustomerLookupResponse> lookupCustomers(CustomerLookupRequest request);
+    Mono<CustomerResponse> updateCustomer(UUID id, CustomerRequest request);
+    Mono<CustomerResponse> patchCustomer(UUID id, CustomerPatchRequest patch);
+    Mono<Void> deleteCustomer(UUID id);
+}
@@ -0,0 +1,209 @@
+package com.customer.api.customer_api.service.impl;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.BulkCreateResponse;
+import com.customer.api.customer_api.dto.BulkRowResult;
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.repository.CustomerChangeRepository;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import com.customer.api.customer_api.repository.CustomerRollupRepository;
+import com.customer.api.customer_api.search.CustomerSearchIndex;
+import com.customer.api.customer_api.service.CustomerBulkService;
+import com.customer.api.customer_api.tier.TierPolicy;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@Profile("!reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerBulkServiceImpl implements CustomerBulkService {
+
+    private final CustomerRepository customerRepository;
+    private final CustomerChangeRepository changeRepository;
+    private final CustomerRollupRepository rollupRepository;
+    private final CustomerSearchIndex searchIndex;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final CustomerApiProperties properties;
+    private final TierPolicy tierPolicy;
+    private final CustomerMetrics metrics;
+    private final Clock clock;
+
+    @Override
+    public BulkCreateResponse createCustomers(InputStream body) throws IOException {
+        int chunkSize = Math.max(1, properties.getBulk().getChunkSize());
+        List<BulkRowResult> results = new ArrayList<>();
+        List<Customer> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        int index = 0;
+        TierPolicy.Evaluator tiers = tierPolicy.evaluator();
+
+        // readValues() unwraps a top-level JSON array and also accepts whitespace-separated
+        // root values, so the same iterator serves application/json and application/x-ndjson.
+        try (MappingIterator<CustomerRequest> rows = objectMapper.readerFor(CustomerRequest.class).readValues(body)) {
+            while (rows.hasNextValue()) {
+                int rowIndex = index++;
+                CustomerRequest request;
+                try {
+                    request = rows.nextValue();
+                } catch (JsonMappingException ex) {
+                    results.add(BulkRowResult.failed(rowIndex, BulkRowResult.ErrorCode.MALFORMED, invalidValue(ex)));
+                    continue;
+                }
+
+                String violations = validate(request);
+                if (violations != null) {
+                    results.add(BulkRowResult.failed(rowIndex, BulkRowResult.ErrorCode.INVALID, violations));
+                    continue;
+                }
+
+                Customer customer = toEntity(request);
+                tiers.assign(customer);
+                metrics.tierAssigned(customer.getTier());
+                chunk.add(customer);
+                chunkIndexes.add(rowIndex);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, chunkIndexes, results);
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            // Nothing committed yet: reject the body as a whole, like any other malformed request
+            if (results.stream().noneMatch(r -> r.getStatus() == BulkRowResult.Status.CREATED)) {
+                throw ex;
+            }
+            // Earlier chunks are committed, so they are reported and the rest fails as one row: the parser
+            // cannot find the next row after a syntax error. Every row before it is in results or chunk.
+            index = results.size() + chunk.size();
+            results.add(BulkRowResult.failed(index++, BulkRowResult.ErrorCode.UNREADABLE,
+                    "Malformed JSON" + (ex.getLocation() == null ? "" : " at line " + ex.getLocation().getLineNr())
+                            + "; the rest of the body was not read"));
+        }
+        writeChunk(chunk, chunkIndexes, results);
+
+        int created = (int) results.stream().filter(r -> r.getStatus() == BulkRowResult.Status.CREATED).count();
+        log.info("Bulk create finished: {} received, {} created", index, created);
+        return BulkCreateResponse.builder()
+                .received(index)
+                .created(created)
+                .failed(index - created)
+                .results(results)
+                .build();
+    }
+
+    private void writeChunk(List<Customer> chunk, List<Integer> chunkIndexes, List<BulkRowResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                customerRepository.saveAllAndFlush(chunk);
+                // One INSERT ... SELECT records the whole chunk in the outbox, one MERGE counts it in the rollups
+                List<UUID> ids = chunk.stream().map(Customer::getId).toList();
+                changeRepository.recordCreated(ids, LocalDateTime.now(clock));
+                rollupRepository.add(ids);
+                // Keep the persistence context from growing across chunks (it may be
+                // request-scoped when open-in-view is enabled).
+                entityManager.clear();
+            });
+            // Committed by now, so the search index takes the rows straight away
+            for (int i = 0; i < chunk.size(); i++) {
+                Customer customer = chunk.get(i);
+                searchIndex.index(customer.getId(), customer.getName(), customer.getEmail());
+                results.add(BulkRowResult.created(chunkIndexes.get(i), customer.getId()));
+            }
+        } catch (DataAccessException ex) {
+            log.debug("Bulk chunk rejected, retrying {} rows individually", chunk.size(), ex);
+            writeRowByRow(chunk, chunkIndexes, results);
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    /**
+     * Fallback for a chunk that failed as a whole: isolates the offending rows so
+     * that one bad row does not reject its neighbours.
+     */
+    private void writeRowByRow(List<Customer> chunk, List<Integer> chunkIndexes, List<BulkRowResult> results) {
+        for (int i = 0; i < chunk.size(); i++) {
+            Customer customer = chunk.get(i);
+            customer.setId(null);
+            try {
+                Customer saved = transactionTemplate.execute(status -> {
+                    Customer row = customerRepository.saveAndFlush(customer);
+                    changeRepository.recordCreated(List.of(row.getId()), LocalDateTime.now(clock));
+                    rollupRepository.add(List.of(row.getId()));
+                    return row;
+                });
+                searchIndex.index(saved.getId(), saved.getName(), saved.getEmail());
+                results.add(BulkRowResult.created(chunkIndexes.get(i), saved.getId()));
+            } catch (DataIntegrityViolationException ex) {
+                results.add(BulkRowResult.failed(chunkIndexes.get(i), BulkRowResult.ErrorCode.CONFLICT,
+                        "Customer conflicts with an existing record"));
+            } catch (DataAccessException ex) {
+                // The driver's message may carry SQL and schema names, so it is only logged
+                log.warn("Bulk row {} could not be written", chunkIndexes.get(i), ex);
+                results.add(BulkRowResult.failed(chunkIndexes.get(i), BulkRowResult.ErrorCode.NOT_WRITTEN,
+                        "Row could not be written"));
+            }
+        }
+        entityManager.clear();
+    }
+
+    // Names the field, not Jackson's message, which quotes the Java types behind it
+    private static String invalidValue(JsonMappingException ex) {
+        String path = ex.getPath().stream()
+                .map(ref -> ref.getFieldName() != null ? ref.getFieldName() : String.valueOf(ref.getIndex()))
+                .collect(Collectors.joining("."));
+        return path.isEmpty() ? "Row is not a customer object" : "Invalid value for '" + path + "'";
+    }
+
+    private String validate(CustomerRequest request) {
+        if (request == null) {
+            return "Row must be a JSON object";
+        }
+        Set<ConstraintViolation<CustomerRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private Customer toEntity(CustomerRequest request) {
+        return Customer.builder()
+                .name(request.getName())
+                .email(request.getEmail())
+                .annualSpend(request.getAnnualSpend())
+                .lastPurchaseDate(request.getLastPurchaseDate())
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.customer.api.customer_api.service.impl;
+
+import com.customer.api.customer_api.dto.CustomerChangeEvent;
+import com.customer.api.customer_api.exception.ChangesExpiredException;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.metrics.CustomerMetrics.RepositoryCall;
+import com.customer.api.customer_api.model.CustomerChange;
+import com.customer.api.customer_api.repository.CustomerChangeRepository;
+import com.customer.api.customer_api.service.CustomerChangeService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@Profile("!reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerChangeServiceImpl implements CustomerChangeService {
+
+    private final CustomerChangeRepository changeRepository;
+    private final EntityManager entityManager;
+    private final CustomerMetrics metrics;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamChanges(long since, Consumer<CustomerChangeEvent> consumer) {
+        log.debug("Streaming customer changes after {}", since);
+        long start = System.nanoTime();
+        Long oldest = changeRepository.findMinSequenceNumber();
+        if (oldest != null && since < oldest - 1) {
+            throw new ChangesExpiredException("Changes after " + since + " are no longer retained; resync from GET /customers");
+        }
+        try (Stream<CustomerChange> changes = changeRepository.findBySequenceNumberGreaterThanOrderBySequenceNumberAsc(since)) {
+            // Timed until the query is open; the rest is paced by the client reading the stream.
+            metrics.repositoryCall(RepositoryCall.STREAM_CHANGES, start);
+            changes.forEach(change -> {
+                entityManager.detach(change);
+                consumer.accept(CustomerChangeEvent.of(change));
+            });
+        }
+    }
+}
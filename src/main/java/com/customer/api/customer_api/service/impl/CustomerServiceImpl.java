@@ -1,119 +1,580 @@
 package com.customer.api.customer_api.service.impl;
 
+import com.customer.api.customer_api.cache.CustomerCache;
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.datasource.ReplicaRoutingDataSource;
+import com.customer.api.customer_api.dto.CustomerLookupRequest;
+import com.customer.api.customer_api.dto.CustomerLookupResponse;
+import com.customer.api.customer_api.dto.CustomerPage;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
 import com.customer.api.customer_api.dto.CustomerRequest;
 import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.dto.CustomerSearchPage;
+import com.customer.api.customer_api.dto.CustomerVersion;
 import com.customer.api.customer_api.exception.CustomerNotFoundException;
+import com.customer.api.customer_api.exception.InvalidSearchException;
+import com.customer.api.customer_api.exception.TooManyKeysException;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.metrics.CustomerMetrics.RepositoryCall;
 import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.search.CustomerSearchIndex;
 import com.customer.api.customer_api.service.CustomerService;
+import com.customer.api.customer_api.tier.TierPolicy;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+import com.customer.api.customer_api.repository.CustomerChangeRepository;
 import com.customer.api.customer_api.repository.CustomerRepository;
+import com.customer.api.customer_api.repository.CustomerRollupRepository;
 
 @Service
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Slf4j
 public class CustomerServiceImpl implements CustomerService {
 
+    // Upserts of one email racing each other: every attempt but the first finds the row to update
+    private static final int UPSERT_ATTEMPTS = 3;
+
     private final CustomerRepository customerRepository;
+    private final CustomerChangeRepository changeRepository;
+    private final CustomerCache customerCache;
+    private final CustomerSearchIndex searchIndex;
+    private final CustomerRollupRepository rollupRepository;
+    private final TierPolicy tierPolicy;
+    private final Clock clock;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerApiProperties properties;
+    private final CustomerMetrics metrics;
 
     @Override
+    @Transactional
     public CustomerResponse createCustomer(CustomerRequest request) {
-        log.info("Creating customer: {}", request);
         Customer customer = Customer.builder()
                 .name(request.getName())
                 .email(request.getEmail())
                 .annualSpend(request.getAnnualSpend())
                 .lastPurchaseDate(request.getLastPurchaseDate())
                 .build();
+        tierPolicy.evaluator().assign(customer);
+        metrics.tierAssigned(customer.getTier());
+        long start = System.nanoTime();
         customer = customerRepository.save(customer);
+        metrics.repositoryCall(RepositoryCall.SAVE, start);
+        start = System.nanoTime();
+        changeRepository.recordCreated(List.of(customer.getId()), LocalDateTime.now(clock));
+        metrics.repositoryCall(RepositoryCall.RECORD_CHANGE, start);
+        start = System.nanoTime();
+        rollupRepository.add(List.of(customer.getId()));
+        metrics.repositoryCall(RepositoryCall.UPDATE_ROLLUP, start);
+        searchIndex.index(customer.getId(), customer.getName(), customer.getEmail());
+        log.info("Created customer {}", customer.getId());
         return toResponse(customer);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CustomerResponse getCustomerById(UUID id) {
-        log.info("Fetching customer by ID: {}", id);
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
-        return toResponse(customer);
+        log.debug("Fetching customer {}", id);
+        CustomerResponse cached = customerCache.getById(id);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = customerCache.generation();
+        Customer customer = findById(id);
+        return toCachedResponse(generation, customer);
     }
 
     @Override
-    public CustomerResponse getCustomerByName(String name) {
-        log.info("Fetching customer by name: {}", name);
-        Customer customer = customerRepository.findByName(name)
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
-        return toResponse(customer);
+    @Transactional(readOnly = true)
+    public CustomerVersion getCustomerVersion(UUID id) {
+        CustomerResponse cached = customerCache.getById(id);
+        if (cached != null) {
+            return new CustomerVersion(cached.getVersion(), cached.getTier(), cached.getTierValidUntil());
+        }
+        long start = System.nanoTime();
+        Optional<CustomerVersion> found = customerRepository.findVersionById(id);
+        metrics.repositoryCall(RepositoryCall.FIND_VERSION, start);
+        // The stored tier is the one a full read shows until it lapses; after that the job re-tiers the row.
+        LocalDateTime now = LocalDateTime.now(clock);
+        return found.filter(version -> version.getTierValidUntil() == null || now.isBefore(version.getTierValidUntil()))
+                .orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CustomerPage listCustomers(UUID after, Integer limit) {
+        int pageSize = pageSize(limit);
+        log.debug("Listing customers after {} (limit {})", after, pageSize);
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query.
+        Limit fetch = Limit.of(pageSize + 1);
+        long start = System.nanoTime();
+        List<Customer> customers = after == null
+                ? customerRepository.findAllByOrderByIdAsc(fetch)
+                : customerRepository.findByIdGreaterThanOrderByIdAsc(after, fetch);
+        metrics.repositoryCall(RepositoryCall.FIND_PAGE, start);
+        return toPage(customers, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamCustomers(Consumer<CustomerResponse> consumer) {
+        log.debug("Streaming all customers");
+        TierPolicy.Evaluator tiers = tierPolicy.evaluator();
+        long start = System.nanoTime();
+        try (Stream<Customer> customers = customerRepository.streamAllOrderedById()) {
+            // Timed until the query is open; the rest is paced by the client reading the export.
+            metrics.repositoryCall(RepositoryCall.STREAM_ALL, start);
+            customers.forEach(customer -> {
+                // Detach as we go so the persistence context does not grow with the result set.
+                entityManager.detach(customer);
+                consumer.accept(toResponse(customer, tiers));
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerPage getCustomersByName(String name, UUID after, Integer limit) {
+        int pageSize = pageSize(limit);
+        log.debug("Fetching customers by name after {} (limit {})", after, pageSize);
+
+        Limit fetch = Limit.of(pageSize + 1);
+        long start = System.nanoTime();
+        List<Customer> customers = after == null
+                ? customerRepository.findPageByName(name, fetch)
+                : customerRepository.findPageByNameAfter(name, after, fetch);
+        metrics.repositoryCall(RepositoryCall.FIND_PAGE_BY_NAME, start);
+        return toPage(customers, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public CustomerResponse getCustomerByEmail(String email) {
-        log.info("Fetching customer by email: {}", email);
-        Customer customer = customerRepository.findByEmail(email)
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
-        return toResponse(customer);
+        log.debug("Fetching customer by email");
+        CustomerResponse cached = customerCache.getByEmail(email);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = customerCache.generation();
+        long start = System.nanoTime();
+        Optional<Customer> found = customerRepository.findByEmail(email);
+        metrics.repositoryCall(RepositoryCall.FIND_BY_EMAIL, start);
+        Customer customer = found.orElseThrow(() -> CustomerNotFoundException.INSTANCE);
+        return toCachedResponse(generation, customer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerLookupResponse lookupCustomers(CustomerLookupRequest request) {
+        Set<UUID> ids = distinct(request.getIds());
+        Set<String> emails = distinct(request.getEmails());
+        int maxKeys = properties.getLookup().getMaxKeys();
+        if (ids.size() + emails.size() > maxKeys) {
+            throw new TooManyKeysException("At most " + maxKeys + " ids and emails can be looked up at once");
+        }
+        log.debug("Looking up {} ids and {} emails", ids.size(), emails.size());
+
+        // Cache hits first; the rest is read with one IN query per chunk and tiered in one pass.
+        TierPolicy.Evaluator tiers = tierPolicy.evaluator();
+        long generation = customerCache.generation();
+        Map<UUID, CustomerResponse> byId = new HashMap<>();
+        List<UUID> uncachedIds = new ArrayList<>();
+        for (UUID id : ids) {
+            CustomerResponse cached = customerCache.getById(id);
+            if (cached != null) {
+                byId.put(id, cached);
+            } else {
+                uncachedIds.add(id);
+            }
+        }
+        Map<String, CustomerResponse> byEmail = new HashMap<>();
+        List<String> uncachedEmails = new ArrayList<>();
+        for (String email : emails) {
+            CustomerResponse cached = customerCache.getByEmail(email);
+            if (cached != null) {
+                byEmail.put(email, cached);
+            } else {
+                uncachedEmails.add(email);
+            }
+        }
+        for (Customer customer : findInChunks(uncachedIds, RepositoryCall.FIND_BY_IDS, customerRepository::findByIdIn)) {
+            byId.put(customer.getId(), toCachedResponse(generation, customer, tiers));
+        }
+        for (Customer customer : findInChunks(uncachedEmails, RepositoryCall.FIND_BY_EMAILS,
+                customerRepository::findByEmailIn)) {
+            byEmail.put(customer.getEmail(), toCachedResponse(generation, customer, tiers));
+        }
+
+        Map<String, CustomerResponse> customers = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            collect(id.toString(), byId.get(id), customers, missing);
+        }
+        for (String email : emails) {
+            collect(email, byEmail.get(email), customers, missing);
+        }
+        return CustomerLookupResponse.builder()
+                .customers(customers)
+                .missing(missing)
+                .build();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CustomerSearchPage searchCustomers(String query, Integer offset, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidSearchException("Query must not be blank");
+        }
+        int pageSize = pageSize(limit);
+        int from = offset == null ? 0 : Math.max(offset, 0);
+        int maxWindow = properties.getSearch().getMaxWindow();
+        if ((long) from + pageSize > maxWindow) {
+            throw new InvalidSearchException("offset + limit must not exceed " + maxWindow + "; refine the query instead");
+        }
+        log.debug("Searching customers (offset {}, limit {})", from, pageSize);
+
+        long start = System.nanoTime();
+        CustomerSearchIndex.Hits hits = searchIndex.search(query, from, pageSize);
+        metrics.searchQuery(start);
+
+        // The index only holds ids; the customers are read like a batch lookup and kept in rank order.
+        // A hit deleted since the last index refresh is dropped from the page.
+        TierPolicy.Evaluator tiers = tierPolicy.evaluator();
+        long generation = customerCache.generation();
+        Map<UUID, CustomerResponse> byId = new HashMap<>();
+        List<UUID> uncached = new ArrayList<>();
+        for (UUID id : hits.ids()) {
+            CustomerResponse cached = customerCache.getById(id);
+            if (cached != null) {
+                byId.put(id, cached);
+            } else {
+                uncached.add(id);
+            }
+        }
+        for (Customer customer : findInChunks(uncached, RepositoryCall.FIND_BY_IDS, customerRepository::findByIdIn)) {
+            byId.put(customer.getId(), toCachedResponse(generation, customer, tiers));
+        }
+        List<CustomerResponse> items = hits.ids().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return CustomerSearchPage.builder()
+                .items(items)
+                .nextOffset(hits.hasMore() ? from + pageSize : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerPage getCustomersByTier(Tier tier, UUID after, Integer limit) {
+        int pageSize = pageSize(limit);
+        log.debug("Fetching customers by tier {} after {} (limit {})", tier, after, pageSize);
+
+        // Rows whose stored tier has lapsed are skipped until the recompute job re-tiers them.
+        LocalDateTime now = LocalDateTime.now(clock);
+        Limit fetch = Limit.of(pageSize + 1);
+        long start = System.nanoTime();
+        List<Customer> customers = after == null
+                ? customerRepository.findCurrentByTier(tier, now, fetch)
+                : customerRepository.findCurrentByTierAfter(tier, now, after, fetch);
+        metrics.repositoryCall(RepositoryCall.FIND_PAGE_BY_TIER, start);
+        return toPage(customers, pageSize);
+    }
+
+    @Override
+    @Transactional
     public CustomerResponse updateCustomer(UUID id, CustomerRequest request) {
-        log.info("Updating customer ID {}: {}", id, request);
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
+        log.info("Updating customer {}", id);
+        Customer customer = Customer.builder()
+                .id(id)
+                .name(request.getName())
+                .email(request.getEmail())
+                .annualSpend(request.getAnnualSpend())
+                .lastPurchaseDate(request.getLastPurchaseDate())
+                .version(request.getVersion())
+                .build();
+        tierPolicy.evaluator().assign(customer);
+        // The previous email is not read; dropping the id entry also drops its email index.
+        customerCache.evict(id, request.getEmail());
+        write(customer);
+        searchIndex.index(id, customer.getName(), customer.getEmail());
+        metrics.tierAssigned(customer.getTier());
+        return toResponse(customer);
+    }
+
+    @Override
+    @Transactional
+    public CustomerResponse patchCustomer(UUID id, CustomerPatchRequest patch) {
+        log.info("Patching customer {}", id);
+        // Read for the unchanged fields (the response and the tier need them), then write the
+        // merged row with one versioned UPDATE instead of a dirty-checking flush.
+        Customer customer = findById(id);
+        entityManager.detach(customer);
+        if (patch.getVersion() != null && !patch.getVersion().equals(customer.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Customer.class, id);
+        }
+        String previousEmail = customer.getEmail();
+        if (patch.getName() != null) {
+            customer.setName(patch.getName());
+        }
+        if (patch.getEmail() != null) {
+            customer.setEmail(patch.getEmail());
+        }
+        if (patch.getAnnualSpend() != null) {
+            customer.setAnnualSpend(patch.getAnnualSpend());
+        }
+        if (patch.getLastPurchaseDate() != null) {
+            customer.setLastPurchaseDate(patch.getLastPurchaseDate());
+        }
+        tierPolicy.evaluator().assign(customer);
+        customerCache.evict(id, previousEmail, customer.getEmail());
+        write(customer);
+        searchIndex.index(id, customer.getName(), customer.getEmail());
+        metrics.tierAssigned(customer.getTier());
+        return toResponse(customer);
+    }
 
-        customer.setName(request.getName());
-        customer.setEmail(request.getEmail());
-        customer.setAnnualSpend(request.getAnnualSpend());
-        customer.setLastPurchaseDate(request.getLastPurchaseDate());
+    @Override
+    public CustomerResponse upsertCustomerByEmail(CustomerRequest request) {
+        log.info("Upserting customer by email");
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> upsertByEmail(request));
+            } catch (DataIntegrityViolationException ex) {
+                // Lost an insert race for the email: the next attempt finds the winner's row and updates it
+                if (attempt == UPSERT_ATTEMPTS) {
+                    throw ex;
+                }
+                log.debug("Concurrent insert of the same email, retrying upsert", ex);
+            }
+        }
+    }
 
-        customer = customerRepository.save(customer);
+    private CustomerResponse upsertByEmail(CustomerRequest request) {
+        Customer customer = Customer.builder()
+                .name(request.getName())
+                .email(request.getEmail())
+                .annualSpend(request.getAnnualSpend())
+                .lastPurchaseDate(request.getLastPurchaseDate())
+                .build();
+        tierPolicy.evaluator().assign(customer);
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        long start = System.nanoTime();
+        Optional<UUID> existing = customerRepository.lockIdByEmail(request.getEmail());
+        metrics.repositoryCall(RepositoryCall.FIND_BY_EMAIL, start);
+        UUID id = existing.orElseGet(UUID::randomUUID);
+        if (existing.isPresent()) {
+            start = System.nanoTime();
+            changeRepository.recordUpdated(id, customer.getTier().name(), now);
+            metrics.repositoryCall(RepositoryCall.RECORD_CHANGE, start);
+            start = System.nanoTime();
+            rollupRepository.remove(List.of(id));
+            metrics.repositoryCall(RepositoryCall.UPDATE_ROLLUP, start);
+        }
+
+        start = System.nanoTime();
+        int merged = customerRepository.upsertByEmail(id, customer.getName(), customer.getEmail(),
+                customer.getAnnualSpend(), customer.getLastPurchaseDate(), customer.getTier().name(),
+                customer.getTierValidUntil(), request.getVersion());
+        metrics.repositoryCall(RepositoryCall.UPSERT, start);
+        if (merged == 0) {
+            throw new ObjectOptimisticLockingFailureException(Customer.class, id);
+        }
+        start = System.nanoTime();
+        // Also tells whether the MERGE inserted :id or matched a row another transaction just inserted
+        CustomerVersion version = customerRepository.findVersionById(id)
+                .orElseThrow(() -> new DuplicateKeyException("Customer with this email was created concurrently"));
+        metrics.repositoryCall(RepositoryCall.FIND_VERSION, start);
+        if (existing.isEmpty()) {
+            start = System.nanoTime();
+            changeRepository.recordCreated(List.of(id), now);
+            metrics.repositoryCall(RepositoryCall.RECORD_CHANGE, start);
+        }
+        start = System.nanoTime();
+        rollupRepository.add(List.of(id));
+        metrics.repositoryCall(RepositoryCall.UPDATE_ROLLUP, start);
+
+        customer.setId(id);
+        customer.setVersion(version.getVersion());
+        customerCache.evict(id, customer.getEmail());
+        searchIndex.index(id, customer.getName(), customer.getEmail());
+        metrics.tierAssigned(customer.getTier());
         return toResponse(customer);
     }
 
     @Override
+    @Transactional
     public void deleteCustomer(UUID id) {
-        log.info("Deleting customer ID: {}", id);
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
-        customerRepository.delete(customer);
+        log.info("Deleting customer {}", id);
+        customerCache.evict(id);
+        lock(id);
+        long start = System.nanoTime();
+        changeRepository.recordDeleted(id, LocalDateTime.now(clock));
+        metrics.repositoryCall(RepositoryCall.RECORD_CHANGE, start);
+        start = System.nanoTime();
+        rollupRepository.remove(List.of(id));
+        metrics.repositoryCall(RepositoryCall.UPDATE_ROLLUP, start);
+        start = System.nanoTime();
+        customerRepository.deleteCustomerById(id);
+        metrics.repositoryCall(RepositoryCall.DELETE, start);
+        searchIndex.remove(id);
     }
 
-    private CustomerResponse toResponse(Customer customer) {
-        return CustomerResponse.builder()
-                .id(customer.getId())
-                .name(customer.getName())
-                .email(customer.getEmail())
-                .annualSpend(customer.getAnnualSpend())
-                .lastPurchaseDate(customer.getLastPurchaseDate())
-                .tier(calculateTier(customer.getAnnualSpend(), customer.getLastPurchaseDate()))
-                .build();
+    /**
+     * Writes all of the customer's columns in one statement, checking its version when it has one,
+     * and records the change in the outbox. The rollups lose the stored row and gain the new one.
+     */
+    private void write(Customer customer) {
+        lock(customer.getId());
+        long start = System.nanoTime();
+        changeRepository.recordUpdated(customer.getId(), customer.getTier().name(), LocalDateTime.now(clock));
+        metrics.repositoryCall(RepositoryCall.RECORD_CHANGE, start);
+        List<UUID> ids = List.of(customer.getId());
+        start = System.nanoTime();
+        rollupRepository.remove(ids);
+        metrics.repositoryCall(RepositoryCall.UPDATE_ROLLUP, start);
+        start = System.nanoTime();
+        int updated = customerRepository.updateById(customer.getId(), customer.getName(), customer.getEmail(),
+                customer.getAnnualSpend(), customer.getLastPurchaseDate(), customer.getTier(),
+                customer.getTierValidUntil(), customer.getVersion());
+        metrics.repositoryCall(RepositoryCall.UPDATE, start);
+        if (updated == 0) {
+            // The row is locked, so only a stale version matches nothing
+            throw new ObjectOptimisticLockingFailureException(Customer.class, customer.getId());
+        }
+        start = System.nanoTime();
+        rollupRepository.add(ids);
+        metrics.repositoryCall(RepositoryCall.UPDATE_ROLLUP, start);
+        customer.setVersion(customer.getVersion() == null ? null : customer.getVersion() + 1);
     }
 
-    private String calculateTier(BigDecimal spend, LocalDateTime lastPurchase) {
-        log.info("Spend = {}, Last Purchase = {}", spend, lastPurchase);
+    /**
+     * Locks the customer's row until the transaction ends. Two writes to one row would otherwise both take
+     * the stored row out of the rollups and each add its own, and both record the same tier before.
+     */
+    private void lock(UUID id) {
+        long start = System.nanoTime();
+        Optional<UUID> locked = customerRepository.lockIdById(id);
+        metrics.repositoryCall(RepositoryCall.FIND_BY_ID, start);
+        if (locked.isEmpty()) {
+            throw CustomerNotFoundException.INSTANCE;
+        }
+    }
 
-        if (spend == null) return "Silver";
+    private Customer findById(UUID id) {
+        long start = System.nanoTime();
+        Optional<Customer> found = customerRepository.findById(id);
+        metrics.repositoryCall(RepositoryCall.FIND_BY_ID, start);
+        return found.orElseThrow(() -> CustomerNotFoundException.INSTANCE);
+    }
 
-        if (spend.compareTo(new BigDecimal("10000")) >= 0 &&
-                lastPurchase != null &&
-                lastPurchase.isAfter(LocalDateTime.now().minusMonths(6))) {
-            log.info("Returning Tier: Platinum");
-            return "Platinum";
+    private <K> List<Customer> findInChunks(List<K> keys, RepositoryCall call,
+                                            Function<Collection<K>, List<Customer>> query) {
+        int chunkSize = properties.getLookup().getChunkSize();
+        List<Customer> found = new ArrayList<>(keys.size());
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            long start = System.nanoTime();
+            found.addAll(query.apply(keys.subList(from, Math.min(from + chunkSize, keys.size()))));
+            metrics.repositoryCall(call, start);
         }
+        return found;
+    }
 
-        if (spend.compareTo(new BigDecimal("1000")) >= 0 &&
-                spend.compareTo(new BigDecimal("10000")) < 0 &&
-                lastPurchase != null &&
-                lastPurchase.isAfter(LocalDateTime.now().minusMonths(12))) {
-            log.info("Returning Tier: Gold");
-            return "Gold";
+    /** Non-null keys in request order, without duplicates. */
+    private static <K> Set<K> distinct(List<K> keys) {
+        Set<K> distinct = new LinkedHashSet<>();
+        if (keys != null) {
+            keys.stream().filter(Objects::nonNull).forEach(distinct::add);
         }
+        return distinct;
+    }
 
-        log.info("Returning Tier: Silver");
-        return "Silver";
+    private static void collect(String key, CustomerResponse response,
+                                Map<String, CustomerResponse> customers, List<String> missing) {
+        if (response != null) {
+            customers.put(key, response);
+        } else {
+            missing.add(key);
+        }
+    }
+
+    private int pageSize(Integer limit) {
+        CustomerApiProperties.Paging paging = properties.getPaging();
+        return limit == null ? paging.getDefaultLimit() : Math.min(Math.max(limit, 1), paging.getMaxLimit());
+    }
+
+    /** Builds a keyset page from a query that fetched up to {@code pageSize + 1} rows. */
+    private CustomerPage toPage(List<Customer> customers, int pageSize) {
+        boolean hasMore = customers.size() > pageSize;
+        TierPolicy.Evaluator tiers = tierPolicy.evaluator();
+        List<CustomerResponse> items = customers.stream()
+                .limit(pageSize)
+                .map(customer -> toResponse(customer, tiers))
+                .toList();
+        return CustomerPage.builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
+    }
+
+    private CustomerResponse toCachedResponse(long generation, Customer customer) {
+        return toCachedResponse(generation, customer, tierPolicy.evaluator());
+    }
+
+    private CustomerResponse toCachedResponse(long generation, Customer customer, TierPolicy.Evaluator tiers) {
+        CustomerResponse response = toResponse(customer, tiers);
+        response.setTierValidUntil(tierPolicy.validUntil(response.getTier(), customer.getLastPurchaseDate()));
+        // A lagging replica could put back a row that a write has just evicted
+        if (!ReplicaRoutingDataSource.isReadingFromReplica()) {
+            customerCache.put(generation, response, response.getTierValidUntil());
+        }
+        return response;
+    }
+
+    private CustomerResponse toResponse(Customer customer) {
+        return toResponse(customer, tierPolicy.evaluator());
+    }
+
+    private CustomerResponse toResponse(Customer customer, TierPolicy.Evaluator tiers) {
+        return CustomerResponse.builder()
+                .id(customer.getId())
+                .name(customer.getName())
+                .email(customer.getEmail())
+                .annualSpend(customer.getAnnualSpend())
+                .lastPurchaseDate(customer.getLastPurchaseDate())
+                .tier(tiers.tierOf(customer))
+                .version(customer.getVersion())
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,160 @@
+package com.customer.api.customer_api.service.impl;
+
+import com.customer.api.customer_api.dto.CustomerStatsResponse;
+import com.customer.api.customer_api.dto.TierStats;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.metrics.CustomerMetrics.RepositoryCall;
+import com.customer.api.customer_api.model.CustomerRollup.Dimension;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.repository.CustomerRollupRepository;
+import com.customer.api.customer_api.repository.CustomerRollupRepository.BucketTotal;
+import com.customer.api.customer_api.service.CustomerStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Profile("!reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerStatsServiceImpl implements CustomerStatsService {
+
+    // Must match the SPEND bucket expression in V6__customer_rollup.sql
+    private static final double SPEND_BUCKETS_PER_DECADE = 20;
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    // Lower bounds, in calendar months since the last purchase, of the recency buckets
+    private static final int[] RECENCY_MONTHS = {0, 1, 3, 6, 12, 24};
+    private static final String[] RECENCY_LABELS = {"0-1m", "1-3m", "3-6m", "6-12m", "12-24m", "24m+"};
+    private static final String NEVER = "never";
+
+    private final CustomerRollupRepository rollupRepository;
+    private final CustomerMetrics metrics;
+    private final Clock clock;
+
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerStatsResponse getStats() {
+        long start = System.nanoTime();
+        List<BucketTotal> buckets = rollupRepository.sumBuckets();
+        metrics.repositoryCall(RepositoryCall.SUM_ROLLUP, start);
+        log.debug("Summarising {} rollup buckets", buckets.size());
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        int currentMonth = now.getYear() * 12 + now.getMonthValue() - 1;
+        Map<Tier, List<BucketTotal>> spendByTier = new EnumMap<>(Tier.class);
+        Map<Tier, List<BucketTotal>> purchasesByTier = new EnumMap<>(Tier.class);
+        for (BucketTotal bucket : buckets) {
+            Map<Tier, List<BucketTotal>> target = bucket.getDimension() == Dimension.SPEND ? spendByTier : purchasesByTier;
+            target.computeIfAbsent(bucket.getTier(), tier -> new ArrayList<>()).add(bucket);
+        }
+
+        List<TierStats> tiers = new ArrayList<>();
+        long customers = 0;
+        BigDecimal totalSpend = BigDecimal.ZERO;
+        for (Tier tier : Tier.values()) {
+            TierStats stats = tierStats(tier, spendByTier.getOrDefault(tier, List.of()),
+                    purchasesByTier.getOrDefault(tier, List.of()), currentMonth);
+            tiers.add(stats);
+            customers += stats.getCustomers();
+            totalSpend = totalSpend.add(stats.getTotalSpend());
+        }
+        return CustomerStatsResponse.builder()
+                .customers(customers)
+                .totalSpend(totalSpend)
+                .averageSpend(average(totalSpend, customers))
+                .tiers(tiers)
+                .asOf(now)
+                .build();
+    }
+
+    private static TierStats tierStats(Tier tier, List<BucketTotal> spend, List<BucketTotal> purchases, int currentMonth) {
+        long customers = 0;
+        BigDecimal totalSpend = BigDecimal.ZERO;
+        for (BucketTotal bucket : spend) {
+            customers += bucket.getCustomers();
+            totalSpend = totalSpend.add(bucket.getSpend());
+        }
+        return TierStats.builder()
+                .tier(tier)
+                .customers(customers)
+                .totalSpend(totalSpend)
+                .averageSpend(average(totalSpend, customers))
+                .spendPercentiles(percentiles(spend, customers))
+                .lastPurchase(recency(purchases, currentMonth))
+                .build();
+    }
+
+    /** Walks the spend histogram in bucket order, interpolating linearly inside the bucket a rank falls in. */
+    private static Map<String, BigDecimal> percentiles(List<BucketTotal> spend, long customers) {
+        Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+        if (customers <= 0) {
+            return percentiles;
+        }
+        List<BucketTotal> ordered = spend.stream()
+                .filter(bucket -> bucket.getCustomers() > 0)
+                .sorted(Comparator.comparingInt(BucketTotal::getBucket))
+                .toList();
+        for (double percentile : PERCENTILES) {
+            double rank = percentile * customers;
+            long below = 0;
+            for (BucketTotal bucket : ordered) {
+                if (below + bucket.getCustomers() >= rank) {
+                    double lower = spendAt(bucket.getBucket());
+                    double upper = spendAt(bucket.getBucket() + 1);
+                    double value = lower + (upper - lower) * (rank - below) / bucket.getCustomers();
+                    percentiles.put("p" + Math.round(percentile * 100),
+                            BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP));
+                    break;
+                }
+                below += bucket.getCustomers();
+            }
+        }
+        return percentiles;
+    }
+
+    /** The lowest annual spend that falls into {@code bucket}; bucket 0 also holds negative spends, read as 0. */
+    private static double spendAt(int bucket) {
+        return Math.max(0, Math.pow(10, bucket / SPEND_BUCKETS_PER_DECADE) - 1);
+    }
+
+    private static Map<String, Long> recency(List<BucketTotal> purchases, int currentMonth) {
+        long[] counts = new long[RECENCY_LABELS.length];
+        long never = 0;
+        for (BucketTotal bucket : purchases) {
+            if (bucket.getBucket() < 0) {
+                never += bucket.getCustomers();
+                continue;
+            }
+            int age = currentMonth - bucket.getBucket();
+            int index = 0;
+            while (index + 1 < RECENCY_MONTHS.length && age >= RECENCY_MONTHS[index + 1]) {
+                index++;
+            }
+            counts[index] += bucket.getCustomers();
+        }
+        Map<String, Long> recency = new LinkedHashMap<>();
+        for (int i = 0; i < RECENCY_LABELS.length; i++) {
+            recency.put(RECENCY_LABELS[i], counts[i]);
+        }
+        recency.put(NEVER, never);
+        return recency;
+    }
+
+    private static BigDecimal average(BigDecimal total, long count) {
+        return count == 0 ? BigDecimal.ZERO : total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+}
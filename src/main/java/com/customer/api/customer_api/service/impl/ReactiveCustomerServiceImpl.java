@@ -0,0 +1,323 @@
+package com.customer.api.customer_api.service.impl;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerLookupRequest;
+import com.customer.api.customer_api.dto.CustomerLookupResponse;
+import com.customer.api.customer_api.dto.CustomerPage;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.exception.CustomerNotFoundException;
+import com.customer.api.customer_api.exception.TooManyKeysException;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.metrics.CustomerMetrics.RepositoryCall;
+import com.customer.api.customer_api.model.CustomerRow;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.repository.ReactiveCustomerRepository;
+import com.customer.api.customer_api.service.ReactiveCustomerService;
+import com.customer.api.customer_api.tier.TierPolicy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * R2DBC implementation of the customer operations, with the same keyset paging, tiering and
+ * single-statement versioned writes as {@link CustomerServiceImpl}. Reads always go to the
+ * database: the customer cache's eviction is tied to JPA transactions, which this stack does not use.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveCustomerServiceImpl implements ReactiveCustomerService {
+
+    private final ReactiveCustomerRepository customerRepository;
+    private final TierPolicy tierPolicy;
+    private final Clock clock;
+    private final CustomerApiProperties properties;
+    private final CustomerMetrics metrics;
+
+    @Override
+    public Mono<CustomerResponse> createCustomer(CustomerRequest request) {
+        CustomerRow row = CustomerRow.builder()
+                .id(UUID.randomUUID())
+                .name(request.getName())
+                .email(request.getEmail())
+                .annualSpend(request.getAnnualSpend())
+                .lastPurchaseDate(request.getLastPurchaseDate())
+                .build();
+        tierPolicy.evaluator().assign(row);
+        return timed(RepositoryCall.SAVE, customerRepository.save(row))
+                .map(saved -> {
+                    metrics.tierAssigned(saved.getTier());
+                    log.info("Created customer {}", saved.getId());
+                    return toResponse(saved);
+                });
+    }
+
+    @Override
+    public Mono<CustomerResponse> getCustomerById(UUID id) {
+        log.debug("Fetching customer {}", id);
+        return findById(id).map(this::toResponse);
+    }
+
+    @Override
+    public Mono<CustomerPage> listCustomers(UUID after, Integer limit) {
+        int pageSize = pageSize(limit);
+        log.debug("Listing customers after {} (limit {})", after, pageSize);
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query.
+        Flux<CustomerRow> rows = after == null
+                ? customerRepository.findPage(pageSize + 1)
+                : customerRepository.findPageAfter(after, pageSize + 1);
+        return timed(RepositoryCall.FIND_PAGE, rows.collectList()).map(page -> toPage(page, pageSize));
+    }
+
+    @Override
+    public Flux<CustomerResponse> streamCustomers() {
+        return Flux.defer(() -> {
+            log.debug("Streaming all customers");
+            TierPolicy.Evaluator tiers = tierPolicy.evaluator();
+            long start = System.nanoTime();
+            AtomicBoolean opened = new AtomicBoolean();
+            // Timed until the first row arrives; the rest is paced by the client reading the export.
+            return customerRepository.streamAllOrderedById()
+                    .doOnEach(signal -> {
+                        if (opened.compareAndSet(false, true)) {
+                            metrics.repositoryCall(RepositoryCall.STREAM_ALL, start);
+                        }
+                    })
+                    .map(row -> toResponse(row, tiers));
+        });
+    }
+
+    @Override
+    public Mono<CustomerPage> getCustomersByName(String name, UUID after, Integer limit) {
+        int pageSize = pageSize(limit);
+        log.debug("Fetching customers by name after {} (limit {})", after, pageSize);
+
+        Flux<CustomerRow> rows = after == null
+                ? customerRepository.findPageByName(name, pageSize + 1)
+                : customerRepository.findPageByNameAfter(name, after, pageSize + 1);
+        return timed(RepositoryCall.FIND_PAGE_BY_NAME, rows.collectList()).map(page -> toPage(page, pageSize));
+    }
+
+    @Override
+    public Mono<CustomerResponse> getCustomerByEmail(String email) {
+        log.debug("Fetching customer by email");
+        return timed(RepositoryCall.FIND_BY_EMAIL, customerRepository.findByEmail(email))
+                .switchIfEmpty(Mono.error(CustomerNotFoundException.INSTANCE))
+                .map(this::toResponse);
+    }
+
+    @Override
+    public Mono<CustomerLookupResponse> lookupCustomers(CustomerLookupRequest request) {
+        Set<UUID> ids = distinct(request.getIds());
+        Set<String> emails = distinct(request.getEmails());
+        int maxKeys = properties.getLookup().getMaxKeys();
+        if (ids.size() + emails.size() > maxKeys) {
+            return Mono.error(new TooManyKeysException("At most " + maxKeys + " ids and emails can be looked up at once"));
+        }
+        log.debug("Looking up {} ids and {} emails", ids.size(), emails.size());
+
+        TierPolicy.Evaluator tiers = tierPolicy.evaluator();
+        Mono<Map<UUID, CustomerResponse>> byId = findInChunks(List.copyOf(ids), RepositoryCall.FIND_BY_IDS,
+                customerRepository::findByIdIn).collectMap(CustomerRow::getId, row -> toResponse(row, tiers));
+        Mono<Map<String, CustomerResponse>> byEmail = findInChunks(List.copyOf(emails), RepositoryCall.FIND_BY_EMAILS,
+                customerRepository::findByEmailIn).collectMap(CustomerRow::getEmail, row -> toResponse(row, tiers));
+        return Mono.zip(byId, byEmail).map(found -> {
+            Map<String, CustomerResponse> customers = new LinkedHashMap<>();
+            List<String> missing = new ArrayList<>();
+            for (UUID id : ids) {
+                collect(id.toString(), found.getT1().get(id), customers, missing);
+            }
+            for (String email : emails) {
+                collect(email, found.getT2().get(email), customers, missing);
+            }
+            return CustomerLookupResponse.builder()
+                    .customers(customers)
+                    .missing(missing)
+                    .build();
+        });
+    }
+
+    @Override
+    public Mono<CustomerPage> getCustomersByTier(Tier tier, UUID after, Integer limit) {
+        int pageSize = pageSize(limit);
+        log.debug("Fetching customers by tier {} after {} (limit {})", tier, after, pageSize);
+
+        // Rows whose stored tier has lapsed are skipped until the recompute job re-tiers them.
+        LocalDateTime now = LocalDateTime.now(clock);
+        Flux<CustomerRow> rows = after == null
+                ? customerRepository.findCurrentByTier(tier.name(), now, pageSize + 1)
+                : customerRepository.findCurrentByTierAfter(tier.name(), now, after, pageSize + 1);
+        return timed(RepositoryCall.FIND_PAGE_BY_TIER, rows.collectList()).map(page -> toPage(page, pageSize));
+    }
+
+    @Override
+    public Mono<CustomerResponse> updateCustomer(UUID id, CustomerRequest request) {
+        log.info("Updating customer {}", id);
+        CustomerRow row = CustomerRow.builder()
+                .id(id)
+                .name(request.getName())
+                .email(request.getEmail())
+                .annualSpend(request.getAnnualSpend())
+                .lastPurchaseDate(request.getLastPurchaseDate())
+                .version(request.getVersion())
+                .build();
+        tierPolicy.evaluator().assign(row);
+        return write(row).map(this::toResponse);
+    }
+
+    @Override
+    public Mono<CustomerResponse> patchCustomer(UUID id, CustomerPatchRequest patch) {
+        log.info("Patching customer {}", id);
+        // Without a transaction the read version guards the write: a change in between fails it.
+        return findById(id).flatMap(row -> {
+            if (patch.getVersion() != null && !patch.getVersion().equals(row.getVersion())) {
+                return Mono.error(new ObjectOptimisticLockingFailureException(CustomerRow.class, id));
+            }
+            if (patch.getName() != null) {
+                row.setName(patch.getName());
+            }
+            if (patch.getEmail() != null) {
+                row.setEmail(patch.getEmail());
+            }
+            if (patch.getAnnualSpend() != null) {
+                row.setAnnualSpend(patch.getAnnualSpend());
+            }
+            if (patch.getLastPurchaseDate() != null) {
+                row.setLastPurchaseDate(patch.getLastPurchaseDate());
+            }
+            tierPolicy.evaluator().assign(row);
+            return write(row);
+        }).map(this::toResponse);
+    }
+
+    @Override
+    public Mono<Void> deleteCustomer(UUID id) {
+        log.info("Deleting customer {}", id);
+        return timed(RepositoryCall.DELETE, customerRepository.deleteCustomerById(id))
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(CustomerNotFoundException.INSTANCE)
+                        : Mono.empty());
+    }
+
+    /** Writes all of the row's columns in one statement, checking its version when it has one. */
+    private Mono<CustomerRow> write(CustomerRow row) {
+        Mono<Integer> update = customerRepository.updateById(row.getId(), row.getName(), row.getEmail(),
+                row.getAnnualSpend(), row.getLastPurchaseDate(), row.getTier().name(), row.getTierValidUntil(),
+                row.getVersion());
+        return timed(RepositoryCall.UPDATE, update).flatMap(updated -> {
+            if (updated == 0) {
+                // Only the failure path pays for telling a stale version from a missing row.
+                Mono<Boolean> stale = row.getVersion() == null
+                        ? Mono.just(false)
+                        : customerRepository.existsById(row.getId());
+                return stale.flatMap(exists -> Mono.error(exists
+                        ? new ObjectOptimisticLockingFailureException(CustomerRow.class, row.getId())
+                        : CustomerNotFoundException.INSTANCE));
+            }
+            row.setVersion(row.getVersion() == null ? null : row.getVersion() + 1);
+            metrics.tierAssigned(row.getTier());
+            return Mono.just(row);
+        });
+    }
+
+    private Mono<CustomerRow> findById(UUID id) {
+        return timed(RepositoryCall.FIND_BY_ID, customerRepository.findById(id))
+                .switchIfEmpty(Mono.error(CustomerNotFoundException.INSTANCE));
+    }
+
+    /** Times {@code call} from subscription until it completes or fails. */
+    private <T> Mono<T> timed(RepositoryCall call, Mono<T> mono) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> metrics.repositoryCall(call, start));
+        });
+    }
+
+    /** One IN query per chunk of keys, run one after another. */
+    private <K> Flux<CustomerRow> findInChunks(List<K> keys, RepositoryCall call,
+                                               Function<Collection<K>, Flux<CustomerRow>> query) {
+        int chunkSize = properties.getLookup().getChunkSize();
+        return Flux.range(0, (keys.size() + chunkSize - 1) / chunkSize)
+                .concatMap(chunk -> {
+                    int from = chunk * chunkSize;
+                    return timed(call, query.apply(keys.subList(from, Math.min(from + chunkSize, keys.size())))
+                            .collectList());
+                })
+                .flatMapIterable(rows -> rows);
+    }
+
+    /** Non-null keys in request order, without duplicates. */
+    private static <K> Set<K> distinct(List<K> keys) {
+        Set<K> distinct = new LinkedHashSet<>();
+        if (keys != null) {
+            keys.stream().filter(Objects::nonNull).forEach(distinct::add);
+        }
+        return distinct;
+    }
+
+    private static void collect(String key, CustomerResponse response,
+                                Map<String, CustomerResponse> customers, List<String> missing) {
+        if (response != null) {
+            customers.put(key, response);
+        } else {
+            missing.add(key);
+        }
+    }
+
+    private int pageSize(Integer limit) {
+        CustomerApiProperties.Paging paging = properties.getPaging();
+        return limit == null ? paging.getDefaultLimit() : Math.min(Math.max(limit, 1), paging.getMaxLimit());
+    }
+
+    /** Builds a keyset page from a query that fetched up to {@code pageSize + 1} rows. */
+    private CustomerPage toPage(List<CustomerRow> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        TierPolicy.Evaluator tiers = tierPolicy.evaluator();
+        List<CustomerResponse> items = rows.stream()
+                .limit(pageSize)
+                .map(row -> toResponse(row, tiers))
+                .toList();
+        return CustomerPage.builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
+    }
+
+    private CustomerResponse toResponse(CustomerRow row) {
+        return toResponse(row, tierPolicy.evaluator());
+    }
+
+    private CustomerResponse toResponse(CustomerRow row, TierPolicy.Evaluator tiers) {
+        return CustomerResponse.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .email(row.getEmail())
+                .annualSpend(row.getAnnualSpend())
+                .lastPurchaseDate(row.getLastPurchaseDate())
+                .tier(tiers.tierOf(row.getAnnualSpend(), row.getLastPurchaseDate()))
+                .version(row.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.customer.api.customer_api.tier;
+
+import com.customer.api.customer_api.model.Tier;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/** Lets request parameters use the same tier labels as the JSON responses. */
+@Component
+public class StringToTierConverter implements Converter<String, Tier> {
+
+    @Override
+    public Tier convert(String source) {
+        return Tier.fromString(source.trim());
+    }
+}
@@ -0,0 +1,132 @@
+package com.customer.api.customer_api.tier;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.CustomerRow;
+import com.customer.api.customer_api.model.Tier;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+
+/**
+ * Membership tier rules, loaded once from {@code customer.tier.*}.
+ * <p>
+ * Thresholds are converted when the policy is built, and the purchase-recency cutoffs are
+ * derived once per {@link Evaluator}, so evaluating a customer performs no allocation and
+ * no clock reads. Callers take one evaluator per request or batch.
+ */
+@Component
+public class TierPolicy {
+
+    private final BigDecimal platinumMinSpend;
+    private final BigDecimal goldMinSpend;
+    private final Period platinumWindow;
+    private final Period goldWindow;
+    private final Clock clock;
+
+    public TierPolicy(CustomerApiProperties properties, Clock clock) {
+        CustomerApiProperties.Tier config = properties.getTier();
+        this.platinumMinSpend = config.getPlatinumMinSpend();
+        this.goldMinSpend = config.getGoldMinSpend();
+        this.platinumWindow = config.getPlatinumWindow();
+        this.goldWindow = config.getGoldWindow();
+        this.clock = clock;
+    }
+
+    /**
+     * Identifies the rules: policies with the same fingerprint assign every customer the same tier,
+     * so stored tiers only need recomputing when it changes.
+     */
+    public String fingerprint() {
+        return "platinum>=" + platinumMinSpend.stripTrailingZeros().toPlainString() + " within " + platinumWindow
+                + ", gold>=" + goldMinSpend.stripTrailingZeros().toPlainString() + " within " + goldWindow;
+    }
+
+    /** Evaluator for the current time. */
+    public Evaluator evaluator() {
+        return at(LocalDateTime.now(clock));
+    }
+
+    public Evaluator at(LocalDateTime now) {
+        return new Evaluator(now.minus(platinumWindow), now.minus(goldWindow));
+    }
+
+    /** Tiers for a batch of customers, all evaluated against the same instant. */
+    public Tier[] evaluateAll(List<Customer> customers) {
+        Evaluator evaluator = evaluator();
+        Tier[] tiers = new Tier[customers.size()];
+        for (int i = 0; i < tiers.length; i++) {
+            tiers[i] = evaluator.tierOf(customers.get(i));
+        }
+        return tiers;
+    }
+
+    /**
+     * Returns when {@code tier} will lapse as time passes without another purchase, or
+     * {@code null} if it cannot change without a write.
+     */
+    public LocalDateTime validUntil(Tier tier, LocalDateTime lastPurchase) {
+        return switch (tier) {
+            case PLATINUM -> lapseOf(lastPurchase, platinumWindow);
+            case GOLD -> lapseOf(lastPurchase, goldWindow);
+            case SILVER -> null;
+        };
+    }
+
+    /** First instant at which {@code now.minus(window)} is no longer before {@code lastPurchase}. */
+    private static LocalDateTime lapseOf(LocalDateTime lastPurchase, Period window) {
+        LocalDateTime lapse = lastPurchase.plus(window);
+        // plus() clamps to the end of shorter months (Aug 31 + 6 months = Feb 28), where the
+        // window check still passes; the tier then lapses at the start of a following day.
+        while (lapse.minus(window).isBefore(lastPurchase)) {
+            lapse = lapse.toLocalDate().plusDays(1).atStartOfDay();
+        }
+        return lapse;
+    }
+
+    public final class Evaluator {
+        private final LocalDateTime platinumCutoff;
+        private final LocalDateTime goldCutoff;
+
+        private Evaluator(LocalDateTime platinumCutoff, LocalDateTime goldCutoff) {
+            this.platinumCutoff = platinumCutoff;
+            this.goldCutoff = goldCutoff;
+        }
+
+        /** Stores the current tier and its lapse time on the entity. */
+        public void assign(Customer customer) {
+            Tier tier = tierOf(customer);
+            customer.setTier(tier);
+            customer.setTierValidUntil(validUntil(tier, customer.getLastPurchaseDate()));
+        }
+
+        /** {@link #assign(Customer)} for the reactive profile's row mapping. */
+        public void assign(CustomerRow row) {
+            Tier tier = tierOf(row.getAnnualSpend(), row.getLastPurchaseDate());
+            row.setTier(tier);
+            row.setTierValidUntil(validUntil(tier, row.getLastPurchaseDate()));
+        }
+
+        public Tier tierOf(Customer customer) {
+            return tierOf(customer.getAnnualSpend(), customer.getLastPurchaseDate());
+        }
+
+        public Tier tierOf(BigDecimal spend, LocalDateTime lastPurchase) {
+            if (spend == null || lastPurchase == null) {
+                return Tier.SILVER;
+            }
+            if (spend.compareTo(platinumMinSpend) >= 0) {
+                // Platinum spend outside the Platinum window does not fall back to Gold.
+                return lastPurchase.isAfter(platinumCutoff) ? Tier.PLATINUM : Tier.SILVER;
+            }
+            if (spend.compareTo(goldMinSpend) >= 0 && lastPurchase.isAfter(goldCutoff)) {
+                return Tier.GOLD;
+            }
+            return Tier.SILVER;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.customer.api.customer_api.tier;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.model.AppliedTierPolicy;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.repository.AppliedTierPolicyRepository;
+import com.customer.api.customer_api.repository.CustomerChangeRepository;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import com.customer.api.customer_api.repository.CustomerRollupRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Re-tiers customers whose stored tier lapsed because their last purchase left a tier window.
+ * Only rows with {@code tierValidUntil <= now} are touched, one chunk per transaction; every
+ * re-tiered row gets a later (or no) lapse time, so the job always runs to completion.
+ * <p>
+ * Stored tiers also go stale when {@code customer.tier.*} changes. The policy they were computed with is
+ * kept in {@code tier_policy}; on startup with a different one, every row is marked lapsed, a chunk per
+ * transaction, and re-tiered straight away. Reads of single customers stay correct meanwhile, since lapsed
+ * rows are tiered when read, but until the re-tier reaches a row, {@code ?tier=} listings leave it out and
+ * the stats still count it under its old tier.
+ */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class TierRecomputeJob {
+
+    private final CustomerRepository customerRepository;
+    private final CustomerChangeRepository changeRepository;
+    private final CustomerRollupRepository rollupRepository;
+    private final AppliedTierPolicyRepository appliedPolicyRepository;
+    private final TierPolicy tierPolicy;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final CustomerApiProperties properties;
+    private final Clock clock;
+    private final CustomerMetrics metrics;
+
+    @Scheduled(fixedDelayString = "${customer.tier.recompute-interval:PT15M}",
+            initialDelayString = "${customer.tier.recompute-initial-delay:PT1M}")
+    public void run() {
+        recomputeLapsedTiers();
+    }
+
+    /** Re-tiers every customer if the stored tiers follow another policy; returns the number re-tiered. */
+    @EventListener(ApplicationReadyEvent.class)
+    public int recomputeIfPolicyChanged() {
+        String fingerprint = tierPolicy.fingerprint();
+        String previous = appliedPolicyRepository.findById(AppliedTierPolicy.ID).orElseThrow().getFingerprint();
+        if (fingerprint.equals(previous)) {
+            return 0;
+        }
+        int expired = expireAllTiers();
+        // Recorded only once every row is lapsed: a restart in between expires them all again
+        transactionTemplate.executeWithoutResult(status ->
+                appliedPolicyRepository.findWithLockById(AppliedTierPolicy.ID).orElseThrow().setFingerprint(fingerprint));
+        log.info("Tier policy is now {} (was {}); re-tiering {} customers", fingerprint, previous, expired);
+        return recomputeLapsedTiers();
+    }
+
+    /** Marks every stored tier lapsed, keyset-paged by id so no transaction locks more than one chunk. */
+    private int expireAllTiers() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Limit chunk = Limit.of(Math.max(1, properties.getTier().getRecomputeChunkSize()));
+
+        int total = 0;
+        UUID after = null;
+        List<UUID> ids;
+        do {
+            ids = after == null ? customerRepository.findIds(chunk) : customerRepository.findIdsAfter(after, chunk);
+            if (!ids.isEmpty()) {
+                List<UUID> expiring = ids;
+                total += transactionTemplate.execute(status -> customerRepository.expireTiers(expiring, now));
+                after = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == chunk.max());
+        return total;
+    }
+
+    /** Returns the number of customers re-tiered. */
+    public int recomputeLapsedTiers() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        TierPolicy.Evaluator tiers = tierPolicy.at(now);
+        Limit chunk = Limit.of(Math.max(1, properties.getTier().getRecomputeChunkSize()));
+
+        int total = 0;
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> {
+                List<Customer> lapsed =
+                        customerRepository.findByTierValidUntilLessThanEqualOrderByTierValidUntilAsc(now, chunk);
+                // Taken out of the rollups before anything is assigned: the MERGE flushes first and
+                // must still see the old tiers
+                List<UUID> retiered = lapsed.stream()
+                        .filter(customer -> tiers.tierOf(customer) != customer.getTier())
+                        .map(Customer::getId)
+                        .toList();
+                if (!retiered.isEmpty()) {
+                    rollupRepository.remove(retiered);
+                }
+                Map<Customer, Tier> changed = new LinkedHashMap<>();
+                for (Customer customer : lapsed) {
+                    Tier before = customer.getTier();
+                    tiers.assign(customer);
+                    if (customer.getTier() != before) {
+                        changed.put(customer, before);
+                    }
+                    metrics.tierAssigned(customer.getTier());
+                }
+                customerRepository.flush();
+                // Recorded after the flush so the batched tier updates go out before the outbox inserts
+                changed.forEach((customer, before) -> changeRepository.recordTierChanged(customer.getId(),
+                        before.name(), customer.getTier().name(), customer.getVersion(), now));
+                if (!retiered.isEmpty()) {
+                    rollupRepository.add(retiered);
+                }
+                entityManager.clear();
+                return lapsed.size();
+            });
+            total += updated;
+        } while (updated == chunk.max());
+
+        if (total > 0) {
+            log.info("Re-tiered {} customers", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,9 @@
+-- Baseline: the schema previously generated by Hibernate auto-DDL.
+CREATE TABLE customer (
+    id                 UUID           NOT NULL,
+    name               VARCHAR(255)   NOT NULL,
+    email              VARCHAR(255)   NOT NULL,
+    annual_spend       NUMERIC(38, 2),
+    last_purchase_date TIMESTAMP(6),
+    CONSTRAINT pk_customer PRIMARY KEY (id)
+);
@@ -0,0 +1,6 @@
+-- Email lookups resolve to at most one customer.
+CREATE UNIQUE INDEX ux_customer_email ON customer (email);
+
+-- Name lookups are multi-result and keyset-paged by id, so (name, id) serves both the
+-- equality filter and the ORDER BY without a sort.
+CREATE INDEX ix_customer_name_id ON customer (name, id);
@@ -0,0 +1,10 @@
+-- Stored tier, kept current on writes and by the scheduled recompute job.
+-- tier_valid_until is when the stored tier lapses without another purchase (NULL: never).
+ALTER TABLE customer ADD COLUMN tier VARCHAR(16) DEFAULT 'SILVER' NOT NULL;
+ALTER TABLE customer ADD COLUMN tier_valid_until TIMESTAMP(6);
+
+-- Mark existing rows as lapsed so the first recompute run assigns their real tier.
+UPDATE customer SET tier_valid_until = TIMESTAMP '1970-01-01 00:00:00';
+
+CREATE INDEX ix_customer_tier_id ON customer (tier, id);
+CREATE INDEX ix_customer_tier_valid_until ON customer (tier_valid_until);
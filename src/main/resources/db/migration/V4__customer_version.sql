@@ -0,0 +1,2 @@
+-- Optimistic locking: bumped by every update of the customer's own fields.
+ALTER TABLE customer ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
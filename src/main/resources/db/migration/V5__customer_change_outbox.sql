@@ -0,0 +1,18 @@
+-- Transactional outbox: one row per customer mutation, inserted in the mutation's own transaction.
+-- sequence_number stays NULL until CustomerChangeRelay publishes the row. The relay numbers rows as
+-- it publishes them, so a change that commits late still gets a higher number than anything already
+-- published, and a consumer reading "sequence_number > since" never skips it.
+CREATE TABLE customer_change (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    sequence_number BIGINT,
+    customer_id     UUID          NOT NULL,
+    change_type     VARCHAR(16)   NOT NULL,
+    tier_before     VARCHAR(16),
+    tier_after      VARCHAR(16),
+    version         BIGINT,
+    changed_at      TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT pk_customer_change PRIMARY KEY (id)
+);
+
+-- Serves "since" reads and the relay's max(); unpublished rows (NULL) do not collide.
+CREATE UNIQUE INDEX ux_customer_change_sequence_number ON customer_change (sequence_number);
@@ -0,0 +1,32 @@
+-- Rollups behind GET /customers/stats, kept in step with the customer table by the services, in the
+-- transaction of each write (CustomerRollupRepository). Every customer counts once in a SPEND bucket
+-- and once in a PURCHASE_MONTH bucket of its stored tier:
+--   SPEND           FLOOR(LOG10(annual_spend + 1) * 20): twenty buckets per power of ten, each ~12% wide;
+--                   spend is not constrained, so a negative one counts in bucket 0 (LOG10 rejects it)
+--   PURCHASE_MONTH  year * 12 + month - 1 of last_purchase_date; -1 when there is none
+-- A write adds to one of several stripes of a bucket, so concurrent writes to the same bucket seldom
+-- wait on the same row lock; readers sum the stripes. A single stripe can hold a negative count.
+CREATE TABLE customer_rollup (
+    tier           VARCHAR(16)    NOT NULL,
+    dimension      VARCHAR(16)    NOT NULL,
+    bucket         INT            NOT NULL,
+    stripe         SMALLINT       NOT NULL,
+    customer_count BIGINT         NOT NULL,
+    spend_total    NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT pk_customer_rollup PRIMARY KEY (tier, dimension, bucket, stripe)
+);
+
+INSERT INTO customer_rollup (tier, dimension, bucket, stripe, customer_count, spend_total)
+SELECT tier, 'SPEND', bucket, 0, COUNT(*), SUM(spend)
+FROM (SELECT tier, CAST(FLOOR(LOG10(GREATEST(COALESCE(annual_spend, 0), 0) + 1) * 20) AS INT) AS bucket,
+             COALESCE(annual_spend, 0) AS spend
+      FROM customer) c
+GROUP BY tier, bucket;
+
+INSERT INTO customer_rollup (tier, dimension, bucket, stripe, customer_count, spend_total)
+SELECT tier, 'PURCHASE_MONTH', bucket, 0, COUNT(*), SUM(spend)
+FROM (SELECT tier, COALESCE(CAST(EXTRACT(YEAR FROM last_purchase_date) * 12
+                                 + EXTRACT(MONTH FROM last_purchase_date) - 1 AS INT), -1) AS bucket,
+             COALESCE(annual_spend, 0) AS spend
+      FROM customer) c
+GROUP BY tier, bucket;
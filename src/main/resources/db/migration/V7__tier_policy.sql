@@ -0,0 +1,10 @@
+-- The tier policy (customer.tier.*) the stored tiers were last computed with, as TierPolicy.fingerprint().
+-- At startup TierRecomputeJob re-tiers every customer when it differs from the running policy; NULL forces
+-- one pass over rows tiered before this table existed.
+CREATE TABLE tier_policy (
+    id          SMALLINT     NOT NULL,
+    fingerprint VARCHAR(255),
+    CONSTRAINT pk_tier_policy PRIMARY KEY (id)
+);
+
+INSERT INTO tier_policy (id, fingerprint) VALUES (1, NULL);
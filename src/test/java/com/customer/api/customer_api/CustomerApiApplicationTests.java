@@ -1,10 +1,8 @@
 package com.customer.api.customer_api;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class CustomerApiApplicationTests {
+class CustomerApiApplicationTests extends CustomerApiIntegrationTest {
 
 	@Test
 	void contextLoads() {
@@ -0,0 +1,45 @@
+package com.customer.api.customer_api;
+
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.outbox.InMemoryChangeSink;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Base for tests against the whole servlet application and its database. Subclasses share one Spring
+ * context, so they must not add properties, profiles or nested configuration of their own. The relay and
+ * the tier recompute do not run on their schedule; tests call them, and relayed changes go to an
+ * {@link InMemoryChangeSink}.
+ */
+@SpringBootTest(properties = {
+        "customer.outbox.relay-interval=PT24H",
+        "customer.tier.recompute-initial-delay=PT24H"})
+@AutoConfigureMockMvc
+@Import(InMemoryChangeSink.class)
+public abstract class CustomerApiIntegrationTest {
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    /** Empties the customer table together with its outbox rows and stats rollups, which follow it. */
+    protected void deleteAllCustomers() {
+        jdbcTemplate.update("DELETE FROM customer_change");
+        jdbcTemplate.update("DELETE FROM customer");
+        jdbcTemplate.update("DELETE FROM customer_rollup");
+    }
+
+    /** A request for a customer who last purchased yesterday. */
+    protected static CustomerRequest request(String name, String email, String spend) {
+        return request(name, email, spend, LocalDateTime.now().minusDays(1));
+    }
+
+    protected static CustomerRequest request(String name, String email, String spend, LocalDateTime lastPurchase) {
+        return new CustomerRequest(name, email, spend == null ? null : new BigDecimal(spend), lastPurchase, null);
+    }
+}
@@ -0,0 +1,35 @@
+package com.customer.api.customer_api;
+
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The fast-start profile defers beans to first use but keeps the scheduled jobs running. */
+class FastStartProfileTest {
+
+    @Test
+    void beansAreCreatedOnFirstUse() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("fast-start")
+                .properties("spring.datasource.url=jdbc:h2:mem:customer-fast-start;DB_CLOSE_DELAY=-1",
+                        "customer.tier.recompute-initial-delay=PT24H")
+                .run()) {
+            assertFalse(context.getBeanFactory().containsSingleton("customerServiceImpl"));
+            assertTrue(context.getBeanFactory().containsSingleton("tierRecomputeJob"));
+            assertTrue(context.getBeanFactory().containsSingleton("customerChangeRelay"));
+
+            CustomerService customerService = context.getBean(CustomerService.class);
+            assertEquals("alice@example.com", customerService.createCustomer(new CustomerRequest("Alice",
+                    "alice@example.com", new BigDecimal("6000"), LocalDateTime.now().minusDays(1), null)).getEmail());
+        }
+    }
+}
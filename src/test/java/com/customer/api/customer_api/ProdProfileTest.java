@@ -0,0 +1,49 @@
+package com.customer.api.customer_api;
+
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The prod profile keeps customers in a file under customer.data-dir, so they outlive the application. */
+class ProdProfileTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void customersSurviveRestart() {
+        UUID id;
+        try (ConfigurableApplicationContext context = start()) {
+            id = context.getBean(CustomerService.class).createCustomer(new CustomerRequest("Alice",
+                    "alice@example.com", new BigDecimal("6000"), LocalDateTime.now().minusDays(1), null)).getId();
+        }
+        assertTrue(Files.exists(dataDir.resolve("customers.mv.db")));
+
+        try (ConfigurableApplicationContext context = start()) {
+            CustomerResponse customer = context.getBean(CustomerService.class).getCustomerById(id);
+            assertEquals("alice@example.com", customer.getEmail());
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CustomerApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("prod")
+                .properties("customer.tier.recompute-initial-delay=PT24H")
+                // An argument, because the profile's own customer.data-dir outranks builder defaults
+                .run("--customer.data-dir=" + dataDir);
+    }
+}
@@ -0,0 +1,75 @@
+package com.customer.api.customer_api.cache;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.model.Tier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerCacheTest {
+
+    private CustomerCache cache;
+    private CustomerResponse response;
+
+    @BeforeEach
+    void setup() {
+        cache = new CustomerCache(new CustomerApiProperties(), Clock.systemDefaultZone());
+        response = CustomerResponse.builder()
+                .id(UUID.randomUUID())
+                .name("Alice")
+                .email("alice@example.com")
+                .annualSpend(new BigDecimal("6000"))
+                .lastPurchaseDate(LocalDateTime.now().minusMonths(1))
+                .tier(Tier.GOLD)
+                .build();
+    }
+
+    @Test
+    void testPutAndLookupByEmailIndex() {
+        cache.put(cache.generation(), response, null);
+        assertSame(response, cache.getById(response.getId()));
+        assertSame(response, cache.getByEmail("alice@example.com"));
+        assertEquals(2, cache.stats().hitCount());
+    }
+
+    @Test
+    void testPutAfterConcurrentEvictionIsDropped() {
+        long generation = cache.generation();
+        cache.evict(response.getId(), response.getEmail());
+        cache.put(generation, response, null);
+        assertNull(cache.getById(response.getId()));
+    }
+
+    @Test
+    void testEntryWhoseTierAlreadyChangedIsNotCached() {
+        cache.put(cache.generation(), response, LocalDateTime.now().minusSeconds(1));
+        assertNull(cache.getById(response.getId()));
+    }
+
+    @Test
+    void testTierValidityIsMeasuredOnTheInjectedClock() {
+        LocalDateTime now = LocalDateTime.of(2020, 1, 1, 0, 0);
+        CustomerCache pastCache = new CustomerCache(new CustomerApiProperties(),
+                Clock.fixed(now.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+
+        // Still valid at the clock's time, though long past on the wall clock
+        pastCache.put(pastCache.generation(), response, now.plusMinutes(1));
+        assertSame(response, pastCache.getById(response.getId()));
+    }
+
+    @Test
+    void testEvictRemovesEmailIndex() {
+        cache.put(cache.generation(), response, null);
+        cache.evict(response.getId());
+        assertNull(cache.getByEmail("alice@example.com"));
+        assertEquals(1, cache.stats().missCount());
+    }
+}
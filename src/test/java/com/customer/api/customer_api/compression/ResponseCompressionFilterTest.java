@@ -0,0 +1,112 @@
+package com.customer.api.customer_api.compression;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCompressionFilterTest {
+
+    private static final String LARGE = "{\"name\":\"Alice\",\"email\":\"alice@example.com\"}\n".repeat(100);
+
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(new CustomerApiProperties().getCompression());
+
+    @Test
+    void smallResponsesGoOutAsTheyAre() throws Exception {
+        MockHttpServletResponse response = perform("gzip", "application/json", "{\"name\":\"Alice\"}", null);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("{\"name\":\"Alice\"}", response.getContentAsString());
+        assertEquals(16, response.getContentLength());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void largeResponsesUseThePreferredCodingTheClientAccepts() throws Exception {
+        MockHttpServletResponse zstd = perform("gzip, zstd", "application/x-ndjson", LARGE, null);
+        assertEquals("zstd", zstd.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE, decode(new ZstdInputStream(new ByteArrayInputStream(zstd.getContentAsByteArray()))));
+        assertTrue(zstd.getContentAsByteArray().length < LARGE.length() / 10);
+
+        MockHttpServletResponse gzip = perform("zstd;q=0, gzip;q=0.5", "application/x-ndjson", LARGE, null);
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE, decode(new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray()))));
+
+        MockHttpServletResponse identity = perform("br", "application/x-ndjson", LARGE, null);
+        assertNull(identity.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE, identity.getContentAsString());
+    }
+
+    @Test
+    void encodedTaggedAndUnlistedResponsesPassThrough() throws Exception {
+        MockHttpServletResponse tagged = perform("gzip", "application/json", LARGE, "\"3-GOLD\"");
+        assertNull(tagged.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE, tagged.getContentAsString());
+
+        MockHttpServletResponse binary = perform("gzip", "application/x-protobuf", LARGE, null);
+        assertNull(binary.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE, binary.getContentAsString());
+    }
+
+    @Test
+    void unknownEncodingIsRejected() {
+        CustomerApiProperties.Compression compression = new CustomerApiProperties().getCompression();
+        compression.setEncodings(List.of("br"));
+        assertThrows(IllegalArgumentException.class, () -> new ResponseCompressionFilter(compression));
+    }
+
+    @Test
+    void negotiationFollowsTheServerOrderAmongAcceptedCodings() {
+        List<String> offered = List.of("zstd", "gzip");
+        assertEquals("zstd", ContentCodings.negotiate("gzip;q=1.0, zstd;q=0.1", offered));
+        assertEquals("gzip", ContentCodings.negotiate("GZIP", offered));
+        assertEquals("gzip", ContentCodings.negotiate("*, zstd;q=0", offered));
+        assertNull(ContentCodings.negotiate("identity", offered));
+        assertNull(ContentCodings.negotiate(null, offered));
+    }
+
+    private MockHttpServletResponse perform(String acceptEncoding, String contentType, String body, String etag)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/customers");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(contentType);
+                if (etag != null) {
+                    resp.setHeader(HttpHeaders.ETAG, etag);
+                }
+                // Written in pieces, as a streaming response would be
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                for (int offset = 0; offset < bytes.length; offset += 500) {
+                    resp.getOutputStream().write(bytes, offset, Math.min(500, bytes.length - offset));
+                    resp.getOutputStream().flush();
+                }
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static String decode(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,36 +1,102 @@
 package com.customer.api.customer_api.controller;
 
+import com.customer.api.customer_api.cache.IdempotencyKeyStore;
+import com.customer.api.customer_api.config.CustomerApiConfig;
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.BulkCreateResponse;
+import com.customer.api.customer_api.dto.BulkRowResult;
+import com.customer.api.customer_api.dto.CustomerLookupRequest;
+import com.customer.api.customer_api.dto.CustomerLookupResponse;
+import com.customer.api.customer_api.dto.CustomerPage;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
+import com.customer.api.customer_api.dto.CustomerProtoMapper;
 import com.customer.api.customer_api.dto.CustomerRequest;
 import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.dto.CustomerSearchPage;
+import com.customer.api.customer_api.dto.CustomerStatsResponse;
+import com.customer.api.customer_api.dto.CustomerVersion;
+import com.customer.api.customer_api.dto.TierStats;
+import com.customer.api.customer_api.dto.proto.CustomerResponseProto;
+import com.customer.api.customer_api.exception.CustomerNotFoundException;
+import com.customer.api.customer_api.exception.InvalidSearchException;
+import com.customer.api.customer_api.exception.SearchUnavailableException;
+import com.customer.api.customer_api.exception.TooManyKeysException;
+import com.customer.api.customer_api.export.CustomerExportSnapshots;
+import com.customer.api.customer_api.export.ExportFormat;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.service.CustomerBulkService;
+import com.customer.api.customer_api.service.CustomerChangeService;
 import com.customer.api.customer_api.service.CustomerService;
+import com.customer.api.customer_api.service.CustomerStatsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mock;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CustomerController.class)
+@Import({CustomerApiConfig.class, IdempotencyKeyStore.class})
+@EnableConfigurationProperties(CustomerApiProperties.class)
 public class CustomerControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
-    @Mock
+    @MockitoBean
     private CustomerService customerService;
 
+    @MockitoBean
+    private CustomerBulkService customerBulkService;
+
+    @MockitoBean
+    private CustomerChangeService customerChangeService;
+
+    @MockitoBean
+    private CustomerStatsService customerStatsService;
+
+    @MockitoBean
+    private CustomerExportSnapshots exportSnapshots;
+
+    @MockitoBean
+    private CustomerMetrics customerMetrics;
+
+    @TempDir
+    Path exportDir;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -46,14 +112,15 @@ public class CustomerControllerTest {
                 .email("alice@example.com")
                 .annualSpend(new BigDecimal("6000"))
                 .lastPurchaseDate(LocalDateTime.of(2024, 9, 1, 0, 0))
-                .tier("Gold")
+                .tier(Tier.GOLD)
+                .version(3L)
                 .build();
     }
 
     @Test
     void testCreateCustomer() throws Exception {
         CustomerRequest request = new CustomerRequest("Alice", "alice@example.com", new BigDecimal("6000"),
-                LocalDateTime.of(2024, 9, 1, 0, 0));
+                LocalDateTime.of(2024, 9, 1, 0, 0), null);
 
         Mockito.when(customerService.createCustomer(any())).thenReturn(sampleResponse);
 
@@ -64,6 +131,66 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.tier").value("Gold"));
     }
 
+    @Test
+    void testCreateCustomerRetriedWithIdempotencyKey() throws Exception {
+        CustomerRequest request = new CustomerRequest("Alice", "alice@example.com", new BigDecimal("6000"),
+                LocalDateTime.of(2024, 9, 1, 0, 0), null);
+        Mockito.when(customerService.createCustomer(any())).thenReturn(sampleResponse);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/customers")
+                            .header("Idempotency-Key", "create-alice-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(id.toString()));
+        }
+        Mockito.verify(customerService, Mockito.times(1)).createCustomer(any());
+
+        request.setName("Bob");
+        mockMvc.perform(post("/customers")
+                        .header("Idempotency-Key", "create-alice-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.detail").exists());
+    }
+
+    @Test
+    void testFailedCreateIsNotRemembered() throws Exception {
+        CustomerRequest request = new CustomerRequest("Alice", "alice@example.com", null, null, null);
+        Mockito.when(customerService.createCustomer(any()))
+                .thenThrow(new CannotCreateTransactionException("Pool exhausted"))
+                .thenReturn(sampleResponse);
+
+        mockMvc.perform(post("/customers")
+                        .header("Idempotency-Key", "create-alice-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(post("/customers")
+                        .header("Idempotency-Key", "create-alice-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void testUpsertCustomerByEmail() throws Exception {
+        Mockito.when(customerService.upsertCustomerByEmail(any())).thenReturn(sampleResponse);
+
+        mockMvc.perform(put("/customers/by-email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Alice\", \"email\": \"alice@example.com\", \"annualSpend\": 6000}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("alice@example.com"));
+
+        mockMvc.perform(put("/customers/by-email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Alice\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetCustomerById() throws Exception {
         Mockito.when(customerService.getCustomerById(id)).thenReturn(sampleResponse);
@@ -73,14 +200,75 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.email").value("alice@example.com"));
     }
 
+    @Test
+    void testGetCustomerWhenConnectionPoolExhausted() throws Exception {
+        Mockito.when(customerService.getCustomerById(id))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"));
+
+        mockMvc.perform(get("/customers/" + id))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void testListCustomers() throws Exception {
+        Mockito.when(customerService.listCustomers(null, 1)).thenReturn(new CustomerPage(List.of(sampleResponse), id));
+
+        mockMvc.perform(get("/customers")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].email").value("alice@example.com"))
+                .andExpect(jsonPath("$.nextCursor").value(id.toString()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamCustomersAsNdjson() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<CustomerResponse> consumer = invocation.getArgument(0);
+            consumer.accept(sampleResponse);
+            consumer.accept(sampleResponse);
+            return null;
+        }).when(customerService).streamCustomers(any());
+
+        String body = mockMvc.perform(get("/customers")
+                        .accept(CustomerController.APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CustomerController.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(sampleResponse, objectMapper.readValue(lines[1], CustomerResponse.class));
+    }
+
     @Test
     void testGetCustomerByName() throws Exception {
-        Mockito.when(customerService.getCustomerByName("Alice")).thenReturn(sampleResponse);
+        Mockito.when(customerService.getCustomersByName("Alice", null, null))
+                .thenReturn(new CustomerPage(List.of(sampleResponse), null));
 
         mockMvc.perform(get("/customers")
                         .param("name", "Alice"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.email").value("alice@example.com"));
+                .andExpect(jsonPath("$.items[0].email").value("alice@example.com"));
+    }
+
+    @Test
+    void testGetCustomersByTier() throws Exception {
+        Mockito.when(customerService.getCustomersByTier(Tier.GOLD, null, null))
+                .thenReturn(new CustomerPage(List.of(sampleResponse), null));
+
+        mockMvc.perform(get("/customers")
+                        .param("tier", "Gold"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].tier").value("Gold"));
+    }
+
+    @Test
+    void testGetCustomersByUnknownTier() throws Exception {
+        mockMvc.perform(get("/customers")
+                        .param("tier", "Bronze"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -93,10 +281,252 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.tier").value("Gold"));
     }
 
+    @Test
+    void testGetCustomerByEmailMissIsAProblem() throws Exception {
+        Mockito.when(customerService.getCustomerByEmail("nobody@example.com"))
+                .thenThrow(CustomerNotFoundException.INSTANCE);
+
+        mockMvc.perform(get("/customers")
+                        .param("email", "nobody@example.com"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.title").value("Not Found"))
+                .andExpect(jsonPath("$.detail").value("Customer not found"))
+                .andExpect(jsonPath("$.instance").value("/customers"));
+        Mockito.verify(customerMetrics).customerNotFound();
+    }
+
+    @Test
+    void testUnexpectedErrorDoesNotLeakItsMessage() throws Exception {
+        Mockito.when(customerService.getCustomerById(id))
+                .thenThrow(new IllegalStateException("Column \"SECRET\" not found; SQL statement: select ..."));
+
+        mockMvc.perform(get("/customers/" + id))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(500))
+                .andExpect(jsonPath("$.detail").value("Internal server error"));
+    }
+
+    @Test
+    void testInvalidFieldsAreListedInTheProblem() throws Exception {
+        mockMvc.perform(post("/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"\", \"email\": \"not-an-email\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.errors.name").exists())
+                .andExpect(jsonPath("$.errors.email").exists());
+    }
+
+    @Test
+    void testLookupCustomers() throws Exception {
+        CustomerLookupRequest request = new CustomerLookupRequest(List.of(id), List.of("bob@example.com"));
+        Mockito.when(customerService.lookupCustomers(request)).thenReturn(CustomerLookupResponse.builder()
+                .customers(Map.of(id.toString(), sampleResponse))
+                .missing(List.of("bob@example.com"))
+                .build());
+
+        mockMvc.perform(post("/customers/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers['" + id + "'].email").value("alice@example.com"))
+                .andExpect(jsonPath("$.missing[0]").value("bob@example.com"));
+    }
+
+    @Test
+    void testLookupCustomersWithTooManyKeys() throws Exception {
+        Mockito.when(customerService.lookupCustomers(any()))
+                .thenThrow(new TooManyKeysException("At most 1000 ids and emails can be looked up at once"));
+
+        mockMvc.perform(post("/customers/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("At most 1000 ids and emails can be looked up at once"));
+    }
+
+    @Test
+    void testSearchCustomers() throws Exception {
+        Mockito.when(customerService.searchCustomers("ali exa", null, 1))
+                .thenReturn(new CustomerSearchPage(List.of(sampleResponse), 1));
+
+        mockMvc.perform(get("/customers/search")
+                        .param("q", "ali exa")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(id.toString()))
+                .andExpect(jsonPath("$.nextOffset").value(1));
+    }
+
+    @Test
+    void testSearchCustomersWithBlankQuery() throws Exception {
+        Mockito.when(customerService.searchCustomers(any(), any(), any()))
+                .thenThrow(new InvalidSearchException("Query must not be blank"));
+
+        mockMvc.perform(get("/customers/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Query must not be blank"));
+    }
+
+    @Test
+    void testSearchCustomersWhileIndexIsBuilding() throws Exception {
+        Mockito.when(customerService.searchCustomers(any(), any(), any()))
+                .thenThrow(new SearchUnavailableException("Search index is still being built, please retry"));
+
+        mockMvc.perform(get("/customers/search").param("q", "alice"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void testGetCustomerByIdSetsETagAndCacheControl() throws Exception {
+        sampleResponse.setTierValidUntil(LocalDateTime.now().plusDays(30));
+        Mockito.when(customerService.getCustomerById(id)).thenReturn(sampleResponse);
+
+        mockMvc.perform(get("/customers/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-GOLD\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=5, private"));
+    }
+
+    @Test
+    void testGetCustomerByIdMaxAgeStopsAtTierLapse() throws Exception {
+        sampleResponse.setTierValidUntil(LocalDateTime.now().minusSeconds(1));
+        Mockito.when(customerService.getCustomerById(id)).thenReturn(sampleResponse);
+
+        mockMvc.perform(get("/customers/" + id))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=0, private"));
+    }
+
+    @Test
+    void testGetCustomerByIdNotModifiedSkipsFullRead() throws Exception {
+        Mockito.when(customerService.getCustomerVersion(id)).thenReturn(new CustomerVersion(3L, Tier.GOLD, null));
+
+        mockMvc.perform(get("/customers/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"2-GOLD\", \"3-GOLD\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-GOLD\""))
+                .andExpect(content().string(""));
+        Mockito.verify(customerService, Mockito.never()).getCustomerById(any());
+    }
+
+    @Test
+    void testGetCustomerByIdWithStaleETagReturnsBody() throws Exception {
+        Mockito.when(customerService.getCustomerVersion(id)).thenReturn(new CustomerVersion(3L, Tier.GOLD, null));
+        Mockito.when(customerService.getCustomerById(id)).thenReturn(sampleResponse);
+
+        mockMvc.perform(get("/customers/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"3-PLATINUM\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tier").value("Gold"));
+    }
+
+    @Test
+    void testUpdateCustomerWithIfMatchUsesItsVersion() throws Exception {
+        CustomerRequest updateRequest = new CustomerRequest("Alice", "alice@example.com",
+                new BigDecimal("6000"), LocalDateTime.of(2025, 1, 1, 0, 0), null);
+        Mockito.when(customerService.updateCustomer(eq(id), any())).thenReturn(sampleResponse);
+
+        mockMvc.perform(put("/customers/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"2-GOLD\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-GOLD\""));
+        Mockito.verify(customerService).updateCustomer(eq(id),
+                Mockito.argThat(request -> Long.valueOf(2).equals(request.getVersion())));
+    }
+
+    @Test
+    void testUpdateCustomerWithStaleIfMatchReturns412() throws Exception {
+        CustomerRequest updateRequest = new CustomerRequest("Alice", "alice@example.com", null, null, null);
+        Mockito.when(customerService.updateCustomer(eq(id), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Customer.class, id));
+
+        mockMvc.perform(put("/customers/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"2-GOLD\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put("/customers/" + id)
+                        .header(HttpHeaders.IF_MATCH, "W/\"2-GOLD\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testGetCustomerByIdAsProtobuf() throws Exception {
+        Mockito.when(customerService.getCustomerById(id)).thenReturn(sampleResponse);
+
+        byte[] body = mockMvc.perform(get("/customers/" + id)
+                        .accept(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-GOLD\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        CustomerResponseProto proto = CustomerResponseProto.parseFrom(body);
+        assertEquals(600000L, proto.getAnnualSpendCents());
+        assertEquals(1725148800000L, proto.getLastPurchaseDateMillis());
+        CustomerResponse decoded = CustomerProtoMapper.fromProto(proto);
+        assertEquals(id, decoded.getId());
+        assertEquals("alice@example.com", decoded.getEmail());
+        assertEquals(new BigDecimal("6000.00"), decoded.getAnnualSpend());
+        assertEquals(sampleResponse.getLastPurchaseDate(), decoded.getLastPurchaseDate());
+        assertEquals(Tier.GOLD, decoded.getTier());
+        assertEquals(3L, decoded.getVersion());
+    }
+
+    @Test
+    void testCreateCustomerFromProtobuf() throws Exception {
+        CustomerRequest request = new CustomerRequest("Alice", "alice@example.com", new BigDecimal("6000.50"),
+                LocalDateTime.of(2024, 9, 1, 0, 0), null);
+        Mockito.when(customerService.createCustomer(any())).thenReturn(sampleResponse);
+
+        mockMvc.perform(post("/customers")
+                        .contentType(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .content(CustomerProtoMapper.toProto(request).toByteArray()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.tier").value("Gold"));
+
+        Mockito.verify(customerService).createCustomer(argThat(request::equals));
+    }
+
+    @Test
+    void testCreateCustomerFromMalformedProtobuf() throws Exception {
+        mockMvc.perform(post("/customers")
+                        .contentType(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .content(new byte[]{0x0a, 0x7f, 0x41}))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Malformed protobuf body"));
+    }
+
+    @Test
+    void testCreateCustomerFromMalformedJson() throws Exception {
+        mockMvc.perform(post("/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Alice\","))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Malformed request body"));
+    }
+
+    @Test
+    void testCreateCustomerWithMistypedFieldNamesOnlyThePath() throws Exception {
+        mockMvc.perform(post("/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Alice\", \"email\": \"alice@example.com\", \"annualSpend\": \"abc\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Malformed request body at 'annualSpend'"));
+    }
+
     @Test
     void testUpdateCustomer() throws Exception {
         CustomerRequest updateRequest = new CustomerRequest("Alice Updated", "alice.new@example.com",
-                new BigDecimal("8000"), LocalDateTime.of(2025, 1, 1, 0, 0));
+                new BigDecimal("8000"), LocalDateTime.of(2025, 1, 1, 0, 0), null);
         Mockito.when(customerService.updateCustomer(eq(id), any())).thenReturn(sampleResponse);
 
         mockMvc.perform(put("/customers/" + id)
@@ -106,6 +536,47 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.name").value("Alice"));
     }
 
+    @Test
+    void testPatchCustomer() throws Exception {
+        Mockito.when(customerService.patchCustomer(eq(id), any())).thenReturn(sampleResponse);
+
+        mockMvc.perform(patch("/customers/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"annualSpend\": 6000}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tier").value("Gold"));
+    }
+
+    @Test
+    void testPatchCustomerFromProtobuf() throws Exception {
+        CustomerPatchRequest patch = CustomerPatchRequest.builder()
+                .annualSpend(new BigDecimal("6000.00")).version(3L).build();
+        Mockito.when(customerService.patchCustomer(eq(id), any())).thenReturn(sampleResponse);
+
+        byte[] body = mockMvc.perform(patch("/customers/" + id)
+                        .contentType(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .accept(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .content(CustomerProtoMapper.toProto(patch).toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Fields left unset stay null, so the patch does not blank the name or email
+        Mockito.verify(customerService).patchCustomer(eq(id), argThat(patch::equals));
+        assertEquals(Tier.GOLD, CustomerProtoMapper.fromProto(CustomerResponseProto.parseFrom(body)).getTier());
+    }
+
+    @Test
+    void testPatchCustomerWithStaleVersion() throws Exception {
+        Mockito.when(customerService.patchCustomer(eq(id), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Customer.class, id));
+
+        mockMvc.perform(patch("/customers/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Alice\", \"version\": 1}"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testDeleteCustomer() throws Exception {
         Mockito.doNothing().when(customerService).deleteCustomer(id);
@@ -113,4 +584,99 @@ public class CustomerControllerTest {
         mockMvc.perform(delete("/customers/" + id))
                 .andExpect(status().isNoContent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCreateCustomersBulk() throws Exception {
+        BulkCreateResponse bulkResponse = BulkCreateResponse.builder()
+                .received(2).created(1).failed(1)
+                .results(List.of(BulkRowResult.created(0, id), BulkRowResult.failed(1, BulkRowResult.ErrorCode.INVALID,
+                        "email: must not be blank")))
+                .build();
+        Mockito.when(customerBulkService.createCustomers(any())).thenReturn(bulkResponse);
+
+        mockMvc.perform(post("/customers/bulk")
+                        .contentType(CustomerController.APPLICATION_NDJSON_VALUE)
+                        .content("{\"name\":\"Alice\",\"email\":\"alice@example.com\"}\n{\"name\":\"Bob\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.results[1].code").value("INVALID"));
+    }
+
+    @Test
+    void testGetStats() throws Exception {
+        TierStats gold = TierStats.builder()
+                .tier(Tier.GOLD).customers(2)
+                .totalSpend(new BigDecimal("12000.00")).averageSpend(new BigDecimal("6000.00"))
+                .spendPercentiles(Map.of("p50", new BigDecimal("5944.33")))
+                .lastPurchase(Map.of("0-1m", 2L))
+                .build();
+        Mockito.when(customerStatsService.getStats()).thenReturn(CustomerStatsResponse.builder()
+                .customers(2).totalSpend(new BigDecimal("12000.00")).averageSpend(new BigDecimal("6000.00"))
+                .tiers(List.of(gold)).asOf(LocalDateTime.now())
+                .build());
+
+        mockMvc.perform(get("/customers/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers").value(2))
+                .andExpect(jsonPath("$.tiers[0].tier").value("Gold"))
+                .andExpect(jsonPath("$.tiers[0].spendPercentiles.p50").value(5944.33))
+                .andExpect(jsonPath("$.tiers[0].lastPurchase['0-1m']").value(2));
+    }
+
+    @Test
+    void testExportWhileTheSnapshotIsWritten() throws Exception {
+        Mockito.when(exportSnapshots.current(ExportFormat.CSV)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/customers/export").param("format", "csv"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void testExportSendsTheSnapshotFileAsItIs() throws Exception {
+        CustomerExportSnapshots.Snapshot snapshot = snapshot("{\"name\":\"Alice\"}\n");
+        Mockito.when(exportSnapshots.current(ExportFormat.NDJSON)).thenReturn(Optional.of(snapshot));
+
+        byte[] body = mockMvc.perform(get("/customers/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CustomerController.APPLICATION_NDJSON_VALUE))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"customers-ndjson-7-1-gzip\""))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, snapshot.size()))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(Files.readAllBytes(snapshot.file()), body);
+
+        mockMvc.perform(get("/customers/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"customers-ndjson-7-1-gzip\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testExportIsDecompressedForClientsWithoutGzip() throws Exception {
+        Mockito.when(exportSnapshots.current(ExportFormat.NDJSON))
+                .thenReturn(Optional.of(snapshot("{\"name\":\"Alice\"}\n")));
+
+        mockMvc.perform(get("/customers/export").param("format", "ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"customers-ndjson-7-1\""))
+                .andExpect(content().string("{\"name\":\"Alice\"}\n"));
+    }
+
+    @Test
+    void testExportRejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/customers/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").exists());
+    }
+
+    private CustomerExportSnapshots.Snapshot snapshot(String content) throws IOException {
+        Path file = exportDir.resolve("customers-ndjson-7-1.ndjson.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return new CustomerExportSnapshots.Snapshot(ExportFormat.NDJSON, file, Files.size(file), 7, "customers-ndjson-7-1");
+    }
+}
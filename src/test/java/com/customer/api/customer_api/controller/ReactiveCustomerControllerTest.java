@@ -0,0 +1,168 @@
+package com.customer.api.customer_api.controller;
+
+import com.customer.api.customer_api.dto.CustomerPage;
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.model.Tier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The reactive profile end to end: WebFlux on Netty over R2DBC, against the Flyway-migrated schema. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "customer.tier.recompute-initial-delay=PT24H")
+@ActiveProfiles("reactive")
+public class ReactiveCustomerControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void servesOnNetty() {
+        assertInstanceOf(NettyWebServer.class, ((WebServerApplicationContext) context).getWebServer());
+        assertFalse(context.containsBean("customerServiceImpl"));
+    }
+
+    @Test
+    void createGetUpdatePatchAndDelete() {
+        CustomerResponse created = create("Reactive Alice", "reactive.alice@example.com", "6000");
+        assertEquals(Tier.GOLD, created.getTier());
+        assertEquals(0L, created.getVersion());
+
+        client.get().uri("/customers/{id}", created.getId()).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.email").isEqualTo("reactive.alice@example.com");
+
+        client.put().uri("/customers/{id}", created.getId())
+                .bodyValue(new CustomerRequest("Reactive Alice", "reactive.alice@example.com",
+                        new BigDecimal("20000"), LocalDateTime.now().minusDays(1), 0L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.tier").isEqualTo("Platinum")
+                .jsonPath("$.version").isEqualTo(1);
+
+        // The PUT moved the version on, so a patch against the one read at create time is stale
+        client.patch().uri("/customers/{id}", created.getId())
+                .bodyValue(Map.of("name", "Alicia", "version", 0))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        client.patch().uri("/customers/{id}", created.getId())
+                .bodyValue(Map.of("name", "Alicia", "version", 1))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Alicia")
+                .jsonPath("$.email").isEqualTo("reactive.alice@example.com")
+                .jsonPath("$.version").isEqualTo(2);
+
+        client.delete().uri("/customers/{id}", created.getId()).exchange().expectStatus().isNoContent();
+        client.get().uri("/customers/{id}", created.getId()).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.detail").isEqualTo("Customer not found");
+        client.delete().uri("/customers/{id}", created.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void pagesByNameWithKeysetCursor() {
+        for (int i = 0; i < 3; i++) {
+            create("Reactive Pager", "reactive.pager" + i + "@example.com", "10");
+        }
+
+        CustomerPage first = client.get().uri("/customers?name=Reactive Pager&limit=2").exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerPage.class).returnResult().getResponseBody();
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+
+        CustomerPage second = client.get()
+                .uri("/customers?name=Reactive Pager&limit=2&after={after}", first.getNextCursor()).exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerPage.class).returnResult().getResponseBody();
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void findsByEmailLookupAndTierAndStreamsNdjson() {
+        CustomerResponse created = create("Reactive Bob", "reactive.bob@example.com", "50000");
+
+        client.get().uri("/customers?email=reactive.bob@example.com").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(created.getId().toString());
+
+        UUID unknown = UUID.randomUUID();
+        client.post().uri("/customers/lookup")
+                .bodyValue(Map.of("ids", List.of(created.getId(), unknown), "emails", List.of("reactive.bob@example.com")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.customers['" + created.getId() + "'].tier").isEqualTo("Platinum")
+                .jsonPath("$.customers['reactive.bob@example.com'].id").isEqualTo(created.getId().toString())
+                .jsonPath("$.missing[0]").isEqualTo(unknown.toString());
+
+        CustomerPage platinum = client.get().uri("/customers?tier=platinum&limit=1000").exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerPage.class).returnResult().getResponseBody();
+        assertTrue(platinum.getItems().stream().anyMatch(c -> c.getId().equals(created.getId())));
+
+        List<CustomerResponse> streamed = client.get().uri("/customers")
+                .accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(CustomerResponse.class).getResponseBody().collectList().block();
+        assertTrue(streamed.stream().anyMatch(c -> c.getId().equals(created.getId())));
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        client.post().uri("/customers")
+                .bodyValue(new CustomerRequest("", "not-an-email", null, null, null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors.name").exists()
+                .jsonPath("$.errors.email").exists();
+
+        client.get().uri("/customers?tier=diamond").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.detail").isEqualTo("Invalid value for parameter 'tier'");
+
+        client.post().uri("/customers").contentType(MediaType.APPLICATION_JSON).bodyValue("{not json")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        create("Reactive Carol", "reactive.carol@example.com", "10");
+        client.post().uri("/customers")
+                .bodyValue(new CustomerRequest("Other Carol", "reactive.carol@example.com", null, null, null))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    private CustomerResponse create(String name, String email, String spend) {
+        return client.post().uri("/customers")
+                .bodyValue(new CustomerRequest(name, email, new BigDecimal(spend),
+                        LocalDateTime.now().minusDays(10), null))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(CustomerResponse.class).returnResult().getResponseBody();
+    }
+}
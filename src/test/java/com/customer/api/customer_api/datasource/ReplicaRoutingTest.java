@@ -0,0 +1,185 @@
+package com.customer.api.customer_api.datasource;
+
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and a replica. Nothing replicates between them,
+ * so which one answered shows where a query was routed.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "customer.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "customer.replica.sticky-window=1m",
+        "customer.cache.enabled=false",
+        "customer.tier.recompute-initial-delay=PT24H"})
+@AutoConfigureMockMvc
+public class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private static JdbcTemplate replica;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    }
+
+    @Test
+    void readOnlyServiceCallsAreServedByTheReplica() {
+        UUID id = UUID.randomUUID();
+        replica.update("INSERT INTO customer (id, name, email, annual_spend) VALUES (?, 'Replica', 'replica.only@example.com', 500)", id);
+
+        assertEquals("replica.only@example.com", customerService.getCustomerById(id).getEmail());
+        assertEquals(id, customerService.getCustomerByEmail("replica.only@example.com").getId());
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        CustomerResponse created = customerService.createCustomer(request("primary.write@example.com"));
+
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM customer WHERE id = ?", Integer.class, created.getId()));
+    }
+
+    @Test
+    void clientReadsItsOwnWriteFromThePrimary() throws Exception {
+        String body = mockMvc.perform(post("/customers").with(from("10.0.0.1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request("sticky@example.com"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(body, CustomerResponse.class).getId();
+
+        mockMvc.perform(get("/customers/" + id).with(from("10.0.0.1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("sticky@example.com"));
+        // Another client reads the replica, which has not seen the write
+        mockMvc.perform(get("/customers/" + id).with(from("10.0.0.2")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void batchLookupsDoNotPinTheClientToThePrimary() throws Exception {
+        UUID id = customerService.createCustomer(request("lookup@example.com")).getId();
+
+        mockMvc.perform(post("/customers/lookup").with(from("10.0.0.3"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [\"" + id + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.missing[0]").value(id.toString()));
+        // Still on the replica, which has not seen the write
+        mockMvc.perform(get("/customers/" + id).with(from("10.0.0.3")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void replicaReadsAreFlaggedSoTheyAreNotCached() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        assertEquals(Boolean.TRUE, readOnly.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer", Integer.class);
+            return ReplicaRoutingDataSource.isReadingFromReplica();
+        }));
+        assertFalse(ReplicaRoutingDataSource.isReadingFromReplica());
+
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            assertEquals(Boolean.FALSE, readOnly.execute(status -> {
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer", Integer.class);
+                return ReplicaRoutingDataSource.isReadingFromReplica();
+            }));
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+
+    @Test
+    void replicaHealthCheckRunsAtStartup() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = routingDataSource.getConnection()) {
+            assertTrue(connection.getMetaData().getURL().contains("routing-replica"));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenNoReplicaIsHealthy() throws SQLException {
+        DataSource primary = new DriverManagerDataSource(PRIMARY_URL, "sa", "");
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("Connection refused"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(down));
+        routing.afterPropertiesSet();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = routing.getConnection()) {
+            assertTrue(connection.getMetaData().getURL().contains("routing-primary"));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private static CustomerRequest request(String email) {
+        return new CustomerRequest("Alice", email, new BigDecimal("6000"), LocalDateTime.now().minusDays(1), null);
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.customer.api.customer_api.export;
+
+import com.customer.api.customer_api.CustomerApiIntegrationTest;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
+import com.customer.api.customer_api.outbox.CustomerChangeRelay;
+import com.customer.api.customer_api.service.CustomerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerExportSnapshotsTest extends CustomerApiIntegrationTest {
+
+    @Autowired
+    private CustomerExportSnapshots snapshots;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerChangeRelay relay;
+
+    // The export then holds exactly the customers created here
+    @BeforeEach
+    void setup() {
+        deleteAllCustomers();
+    }
+
+    @Test
+    void snapshotIsWrittenInTheBackgroundAndServedUntilTheNextChange() throws Exception {
+        UUID alice = customerService.createCustomer(request("Alice", "export.alice@example.com", "6000")).getId();
+        relay.relay();
+
+        CustomerExportSnapshots.Snapshot first = awaitSnapshot(ExportFormat.NDJSON);
+        assertTrue(read(first).contains("export.alice@example.com"));
+        assertEquals(Optional.of(first), snapshots.current(ExportFormat.NDJSON));
+
+        // Stale as soon as the change commits, before the relay numbers it
+        customerService.patchCustomer(alice, CustomerPatchRequest.builder().name("Alicia").build());
+        assertEquals(Optional.empty(), snapshots.current(ExportFormat.NDJSON));
+        relay.relay();
+
+        CustomerExportSnapshots.Snapshot second = awaitSnapshot(ExportFormat.NDJSON);
+        assertNotEquals(first.id(), second.id());
+        assertTrue(read(second).contains("\"name\":\"Alicia\""));
+    }
+
+    @Test
+    void csvQuotesFieldsThatNeedIt() throws Exception {
+        customerService.createCustomer(request("Smith, \"Jo\"", "export.jo@example.com", "6000"));
+
+        List<String> lines = read(snapshots.write(ExportFormat.CSV)).lines().toList();
+
+        assertEquals("id,name,email,annualSpend,lastPurchaseDate,tier,version", lines.get(0));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).contains(",\"Smith, \"\"Jo\"\"\",export.jo@example.com,6000.00,"), lines.get(1));
+        assertTrue(lines.get(1).endsWith(",Gold,0"), lines.get(1));
+    }
+
+    @Test
+    void csvDefusesFormulas() throws Exception {
+        customerService.createCustomer(request("=1+2", "export.formula@example.com", "6000"));
+
+        List<String> lines = read(snapshots.write(ExportFormat.CSV)).lines().toList();
+        assertTrue(lines.get(1).contains(",'=1+2,export.formula@example.com,"), lines.get(1));
+
+        assertEquals("'+1", CustomerExportSnapshots.csvField("+1"));
+        assertEquals("'-1", CustomerExportSnapshots.csvField("-1"));
+        assertEquals("'@SUM(A1)", CustomerExportSnapshots.csvField("@SUM(A1)"));
+        assertEquals("'\tx", CustomerExportSnapshots.csvField("\tx"));
+        assertEquals("\"'\rx\"", CustomerExportSnapshots.csvField("\rx"));
+        assertEquals("\"'=A1,B1\"", CustomerExportSnapshots.csvField("=A1,B1"));
+        assertEquals("a=b", CustomerExportSnapshots.csvField("a=b"));
+    }
+
+    private CustomerExportSnapshots.Snapshot awaitSnapshot(ExportFormat format) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            Optional<CustomerExportSnapshots.Snapshot> snapshot = snapshots.current(format);
+            if (snapshot.isPresent()) {
+                return snapshot.get();
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("No " + format + " snapshot after 10 seconds");
+    }
+
+    private static String read(CustomerExportSnapshots.Snapshot snapshot) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshot.file()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.customer.api.customer_api.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DebugSamplingFilterTest {
+
+    private DebugSamplingFilter filter;
+    private Logger serviceLogger;
+    private Logger otherLogger;
+
+    @BeforeEach
+    void setup() {
+        LoggerContext context = new LoggerContext();
+        serviceLogger = context.getLogger("com.customer.api.customer_api.service.impl.CustomerServiceImpl");
+        serviceLogger.setLevel(Level.DEBUG);
+        otherLogger = context.getLogger("org.hibernate.SQL");
+        otherLogger.setLevel(Level.DEBUG);
+        filter = new DebugSamplingFilter();
+        filter.setLoggerPrefix("com.customer.api.customer_api");
+    }
+
+    @Test
+    void testDebugEventsAreSampled() {
+        filter.setRate(0);
+        assertEquals(FilterReply.DENY, filter.decide(null, serviceLogger, Level.DEBUG, "Fetching customer {}", null, null));
+        filter.setRate(1);
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, serviceLogger, Level.DEBUG, "Fetching customer {}", null, null));
+    }
+
+    @Test
+    void testInfoLevelGuardsAndOtherLoggersAreUntouched() {
+        filter.setRate(0);
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, serviceLogger, Level.INFO, "Created customer {}", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, serviceLogger, Level.DEBUG, null, null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, otherLogger, Level.DEBUG, "select ...", null, null));
+    }
+}
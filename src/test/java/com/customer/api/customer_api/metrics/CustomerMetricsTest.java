@@ -0,0 +1,49 @@
+package com.customer.api.customer_api.metrics;
+
+import com.customer.api.customer_api.model.Tier;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private CustomerMetrics metrics;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        metrics = new CustomerMetrics(registry);
+    }
+
+    @Test
+    void testMetersRegisteredUpFront() {
+        assertEquals(CustomerMetrics.RepositoryCall.values().length,
+                registry.find("customer.repository").timers().size());
+        assertEquals(Tier.values().length, registry.find("customer.tier.assigned").counters().size());
+        assertNotNull(registry.find("customer.not.found").counter());
+    }
+
+    @Test
+    void testRepositoryCallRecordsElapsedTime() {
+        metrics.repositoryCall(CustomerMetrics.RepositoryCall.FIND_BY_ID, System.nanoTime() - 5_000_000);
+        Timer timer = registry.get("customer.repository").tag("call", "find_by_id").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 5);
+    }
+
+    @Test
+    void testTierAndNotFoundCounters() {
+        metrics.tierAssigned(Tier.GOLD);
+        metrics.tierAssigned(Tier.GOLD);
+        metrics.customerNotFound();
+        assertEquals(2, registry.get("customer.tier.assigned").tag("tier", "gold").counter().count());
+        assertEquals(0, registry.get("customer.tier.assigned").tag("tier", "silver").counter().count());
+        assertEquals(1, registry.get("customer.not.found").counter().count());
+    }
+}
@@ -0,0 +1,157 @@
+package com.customer.api.customer_api.outbox;
+
+import com.customer.api.customer_api.CustomerApiIntegrationTest;
+import com.customer.api.customer_api.dto.CustomerChangeEvent;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.model.ChangeType;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.repository.CustomerChangeRepository;
+import com.customer.api.customer_api.service.CustomerBulkService;
+import com.customer.api.customer_api.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CustomerChangeRelayTest extends CustomerApiIntegrationTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerBulkService bulkService;
+
+    @Autowired
+    private CustomerChangeRelay relay;
+
+    @Autowired
+    private CustomerChangeRepository changeRepository;
+
+    @Autowired
+    private InMemoryChangeSink sink;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void publishEarlierChanges() {
+        relay.relay();
+        sink.events.clear();
+        sink.failing = false;
+    }
+
+    @Test
+    void mutationsArePublishedInOrderWithTheirTiers() {
+        CustomerResponse created = customerService.createCustomer(request("Outbox", "outbox.order@example.com", "500"));
+        UUID id = created.getId();
+        customerService.updateCustomer(id, request("Outbox", "outbox.order@example.com", "5000"));
+        customerService.patchCustomer(id, CustomerPatchRequest.builder().annualSpend(new BigDecimal("20000")).build());
+        customerService.deleteCustomer(id);
+
+        assertEquals(4, relay.relay());
+
+        List<CustomerChangeEvent> events = sink.events;
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.UPDATED, ChangeType.DELETED),
+                events.stream().map(CustomerChangeEvent::getType).toList());
+        assertTrue(events.stream().allMatch(event -> event.getCustomerId().equals(id)));
+        assertEquals(Arrays.asList(null, Tier.SILVER, Tier.GOLD, Tier.PLATINUM),
+                events.stream().map(CustomerChangeEvent::getTierBefore).toList());
+        assertEquals(Arrays.asList(Tier.SILVER, Tier.GOLD, Tier.PLATINUM, null),
+                events.stream().map(CustomerChangeEvent::getTierAfter).toList());
+        assertEquals(List.of(0L, 1L, 2L, 2L), events.stream().map(CustomerChangeEvent::getVersion).toList());
+        for (int i = 1; i < events.size(); i++) {
+            assertEquals(events.get(i - 1).getSequence() + 1, events.get(i).getSequence());
+        }
+    }
+
+    @Test
+    void rejectedWriteRecordsNothing() {
+        UUID id = customerService.createCustomer(request("Outbox", "outbox.stale@example.com", "500")).getId();
+        CustomerRequest stale = request("Outbox", "outbox.stale@example.com", "5000");
+        stale.setVersion(7L);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> customerService.updateCustomer(id, stale));
+
+        relay.relay();
+        assertEquals(List.of(ChangeType.CREATED), sink.events.stream().map(CustomerChangeEvent::getType).toList());
+    }
+
+    @Test
+    void bulkCreateRecordsEveryRow() throws Exception {
+        String body = "{\"name\":\"Bulk A\",\"email\":\"outbox.bulk.a@example.com\"}\n"
+                + "{\"name\":\"Bulk B\",\"email\":\"outbox.bulk.b@example.com\"}\n";
+        bulkService.createCustomers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, relay.relay());
+        assertTrue(sink.events.stream().allMatch(event -> event.getType() == ChangeType.CREATED));
+    }
+
+    @Test
+    void failedPublishIsRetriedOnTheNextRun() {
+        customerService.createCustomer(request("Outbox", "outbox.retry@example.com", "500"));
+        sink.failing = true;
+
+        assertThrows(IllegalStateException.class, () -> relay.relay());
+        assertEquals(1, changeRepository.findAll().stream().filter(change -> change.getSequenceNumber() == null).count());
+
+        sink.failing = false;
+        assertEquals(1, relay.relay());
+        assertEquals(1, sink.events.size());
+    }
+
+    @Test
+    void changesEndpointStreamsFromASequenceNumber() throws Exception {
+        customerService.createCustomer(request("Outbox", "outbox.stream.a@example.com", "500"));
+        customerService.createCustomer(request("Outbox", "outbox.stream.b@example.com", "500"));
+        relay.relay();
+        long first = sink.events.get(0).getSequence();
+
+        String body = mockMvc.perform(get("/customers/changes").param("since", String.valueOf(first)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        CustomerChangeEvent event = objectMapper.readValue(lines[0], CustomerChangeEvent.class);
+        assertEquals(first + 1, event.getSequence());
+        assertEquals(sink.events.get(1).getCustomerId(), event.getCustomerId());
+    }
+
+    @Test
+    void changesEndpointAnswers410WhenChangesWerePruned() throws Exception {
+        customerService.createCustomer(request("Outbox", "outbox.pruned.a@example.com", "500"));
+        customerService.createCustomer(request("Outbox", "outbox.pruned.b@example.com", "500"));
+        relay.relay();
+        long last = sink.events.get(1).getSequence();
+        changeRepository.deleteAllInBatch(changeRepository.findAll().stream()
+                .filter(change -> change.getSequenceNumber() != null && change.getSequenceNumber() < last)
+                .toList());
+
+        mockMvc.perform(get("/customers/changes").param("since", "0"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.detail").exists());
+        mockMvc.perform(get("/customers/changes").param("since", String.valueOf(last - 1)))
+                .andExpect(status().isOk());
+    }
+}
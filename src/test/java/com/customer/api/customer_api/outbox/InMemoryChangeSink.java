@@ -0,0 +1,20 @@
+package com.customer.api.customer_api.outbox;
+
+import com.customer.api.customer_api.dto.CustomerChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Stand-in for a message broker: keeps what was published, or refuses it. */
+public class InMemoryChangeSink implements CustomerChangeSink {
+    final List<CustomerChangeEvent> events = new ArrayList<>();
+    volatile boolean failing;
+
+    @Override
+    public void publish(List<CustomerChangeEvent> batch) {
+        if (failing) {
+            throw new IllegalStateException("Broker unavailable");
+        }
+        events.addAll(batch);
+    }
+}
@@ -0,0 +1,145 @@
+package com.customer.api.customer_api.ratelimit;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private AdaptiveConcurrencyLimiter limiter;
+    private long now;
+
+    @BeforeEach
+    void setup() {
+        CustomerApiProperties.LoadShedding settings = new CustomerApiProperties.LoadShedding();
+        settings.setInitialLimit(10);
+        settings.setMinLimit(4);
+        settings.setMaxLimit(20);
+        settings.setCriticalReserve(0.2);
+        limiter = new AdaptiveConcurrencyLimiter(settings);
+        now = System.nanoTime();
+    }
+
+    @Test
+    void criticalRequestsKeepAReserve() {
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limiter.tryAcquire(false));
+        }
+        assertFalse(limiter.tryAcquire(false));
+        assertTrue(limiter.tryAcquire(true));
+        assertTrue(limiter.tryAcquire(true));
+        assertFalse(limiter.tryAcquire(true));
+
+        limiter.release();
+        assertEquals(9, limiter.inFlight());
+        assertTrue(limiter.tryAcquire(true));
+    }
+
+    @Test
+    void limitGrowsWhileBusyAndFast() {
+        for (int i = 0; i < 50; i++) {
+            respond(false, FAST, 10);
+        }
+        assertEquals(20, limiter.limit());
+    }
+
+    @Test
+    void limitShrinksWhenLatencyClimbsAndRecovers() {
+        for (int i = 0; i < 20; i++) {
+            respond(false, FAST, 10);
+        }
+        int before = limiter.limit();
+
+        for (int i = 0; i < 100; i++) {
+            now += SLOW * 10;
+            respond(false, SLOW * 10, 10);
+        }
+        assertEquals(4, limiter.limit());
+        assertTrue(limiter.limit() < before);
+
+        for (int i = 0; i < 500; i++) {
+            respond(false, FAST, 20);
+        }
+        assertEquals(20, limiter.limit());
+    }
+
+    @Test
+    void oneSlowBurstCutsTheLimitOnce() {
+        for (int i = 0; i < 20; i++) {
+            respond(false, FAST, 0);
+        }
+        int before = limiter.limit();
+        // Responses that all finish within one slow response time
+        for (int i = 0; i < 5; i++) {
+            respond(false, SLOW * 10, 0);
+        }
+        assertEquals((int) (before * 0.9), limiter.limit());
+    }
+
+    @Test
+    void slowBulkRequestsDoNotCountAgainstFastLookups() {
+        for (int i = 0; i < 100; i++) {
+            respond(true, FAST, 0);
+            respond(false, SLOW * 10, 0);
+        }
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void concurrentSlowResponsesCutTheLimitOnce() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            respond(false, FAST, 0);
+        }
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                done.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 50; i++) {
+                        assertTrue(limiter.tryAcquire(false));
+                        limiter.release(false, SLOW * 10, now);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : done) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        // Four threads never fill half of the limit, so it cannot grow; every sample lands and one cut wins
+        assertEquals(9, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    /** One response, with up to {@code others} requests still running beside it. */
+    private void respond(boolean critical, long latency, int others) {
+        assertTrue(limiter.tryAcquire(critical));
+        int running = 0;
+        while (running < others && limiter.tryAcquire(true)) {
+            running++;
+        }
+        limiter.release(critical, latency, now);
+        for (int i = 0; i < running; i++) {
+            limiter.release();
+        }
+    }
+}
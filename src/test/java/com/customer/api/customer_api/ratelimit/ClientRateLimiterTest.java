@@ -0,0 +1,85 @@
+package com.customer.api.customer_api.ratelimit;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClientRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private ClientRateLimiter limiter;
+
+    @BeforeEach
+    void setup() {
+        CustomerApiProperties.RateLimit settings = new CustomerApiProperties.RateLimit();
+        settings.setReadsPerSecond(10);
+        settings.setReadBurst(5);
+        settings.setWritesPerSecond(1);
+        settings.setWriteBurst(2);
+        limiter = new ClientRateLimiter(settings);
+    }
+
+    @Test
+    void burstThenSustainedRate() {
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("batch", false, now));
+        }
+        long wait = limiter.tryAcquire("batch", false, now);
+        assertEquals(SECOND / 10, wait);
+
+        assertEquals(0, limiter.tryAcquire("batch", false, now + wait));
+        assertTrue(limiter.tryAcquire("batch", false, now + wait) > 0);
+        // A full second refills the burst, not more
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("batch", false, now + 2 * SECOND));
+        }
+        assertTrue(limiter.tryAcquire("batch", false, now + 2 * SECOND) > 0);
+    }
+
+    @Test
+    void readsWritesAndClientsHaveSeparateBudgets() {
+        long now = System.nanoTime();
+        assertEquals(0, limiter.tryAcquire("batch", true, now));
+        assertEquals(0, limiter.tryAcquire("batch", true, now));
+        assertEquals(SECOND, limiter.tryAcquire("batch", true, now));
+
+        assertEquals(0, limiter.tryAcquire("batch", false, now));
+        assertEquals(0, limiter.tryAcquire("dashboard", true, now));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        long now = System.nanoTime();
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 8; i++) {
+                pool.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                        if (limiter.tryAcquire("batch", false, now) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(5, granted.get());
+    }
+}
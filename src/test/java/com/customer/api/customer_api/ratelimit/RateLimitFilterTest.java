@@ -0,0 +1,124 @@
+package com.customer.api.customer_api.ratelimit;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        CustomerApiProperties properties = new CustomerApiProperties();
+        properties.getRateLimit().setReadBurst(3);
+        properties.getRateLimit().setReadsPerSecond(1);
+        properties.getRateLimit().setWriteBurst(1);
+        properties.getRateLimit().setWritesPerSecond(0.5);
+        properties.getLoadShedding().setInitialLimit(10);
+        properties.getLoadShedding().setMinLimit(10);
+        registry = new SimpleMeterRegistry();
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(properties.getLoadShedding());
+        filter = new RateLimitFilter(new ClientRateLimiter(properties.getRateLimit()), concurrencyLimiter,
+                new CustomerMetrics(registry));
+    }
+
+    @Test
+    void clientOverItsBudgetGets429WithRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform(get("/customers", "10.0.0.1")).getStatus());
+        }
+        MockHttpServletResponse rejected = perform(get("/customers", "10.0.0.1"));
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON_VALUE, rejected.getContentType());
+        assertTrue(rejected.getContentAsString().contains("\"status\":429"));
+        assertEquals(1, registry.get("customer.requests.rejected").tag("reason", "rate_limited").counter().count());
+        // Other clients, and this client's writes, have budgets of their own
+        assertEquals(200, perform(get("/customers", "10.0.0.2")).getStatus());
+        assertEquals(200, perform(request("DELETE", "/customers/" + UUID.randomUUID(), "10.0.0.1")).getStatus());
+
+        MockHttpServletResponse write = perform(request("DELETE", "/customers/" + UUID.randomUUID(), "10.0.0.1"));
+        assertEquals(429, write.getStatus());
+        assertEquals("2", write.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void lookupIsAReadAndCallersCannotPickTheirBudget() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform(request("POST", "/customers/lookup", "10.0.0.1")).getStatus());
+        }
+        assertEquals(429, perform(get("/customers", "10.0.0.1")).getStatus());
+        assertEquals(200, perform(request("POST", "/customers", "10.0.0.1")).getStatus());
+
+        // A fresh client id header does not buy a fresh burst
+        MockHttpServletRequest renamed = get("/customers", "10.0.0.1");
+        renamed.addHeader("X-Client-Id", UUID.randomUUID().toString());
+        assertEquals(429, perform(renamed).getStatus());
+
+        // An authenticated caller has its own budget, wherever it connects from
+        MockHttpServletRequest signedIn = get("/customers", "10.0.0.1");
+        signedIn.setUserPrincipal(() -> "reporting");
+        assertEquals(200, perform(signedIn).getStatus());
+    }
+
+    @Test
+    void overloadShedsOtherRequestsBeforeCriticalLookups() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            assertTrue(concurrencyLimiter.tryAcquire(false));
+        }
+
+        MockHttpServletResponse shed = perform(get("/customers/search", "10.0.0.3"));
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, registry.get("customer.requests.rejected").tag("reason", "overloaded").counter().count());
+
+        assertEquals(200, perform(get("/customers/" + UUID.randomUUID(), "10.0.0.3")).getStatus());
+        MockHttpServletRequest byEmail = get("/customers", "10.0.0.3");
+        byEmail.setParameter("email", "alice@example.com");
+        assertEquals(200, perform(byEmail).getStatus());
+        assertEquals(8, concurrencyLimiter.inFlight());
+    }
+
+    @Test
+    void permitIsReleasedWhenTheRequestFails() {
+        FilterChain failing = (request, response) -> {
+            throw new IllegalStateException("boom");
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(get("/customers", "10.0.0.3"), new MockHttpServletResponse(), failing));
+        assertEquals(0, concurrencyLimiter.inFlight());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String path, String address) {
+        return request("GET", path, address);
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(address);
+        return request;
+    }
+}
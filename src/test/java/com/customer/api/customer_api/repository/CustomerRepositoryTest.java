@@ -0,0 +1,86 @@
+package com.customer.api.customer_api.repository;
+
+import com.customer.api.customer_api.dto.CustomerVersion;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.Tier;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class CustomerRepositoryTest {
+
+    @Autowired
+    private CustomerRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setup() {
+        customer = repository.saveAndFlush(Customer.builder()
+                .name("Alice")
+                .email("alice@example.com")
+                .annualSpend(new BigDecimal("500"))
+                .lastPurchaseDate(LocalDateTime.now())
+                .tier(Tier.SILVER)
+                .build());
+        entityManager.clear();
+    }
+
+    @Test
+    void testUpdateByIdWithoutVersionBumpsVersion() {
+        assertEquals(1, update(customer.getId(), "Alice B", null));
+        Customer updated = repository.findById(customer.getId()).orElseThrow();
+        assertEquals("Alice B", updated.getName());
+        assertEquals(customer.getVersion() + 1, updated.getVersion());
+    }
+
+    @Test
+    void testUpdateByIdWithStaleVersionWritesNothing() {
+        assertEquals(0, update(customer.getId(), "Alice B", customer.getVersion() + 1));
+        assertEquals(1, update(customer.getId(), "Alice C", customer.getVersion()));
+        assertEquals("Alice C", repository.findById(customer.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void testUpdateAndDeleteReportMissingRows() {
+        assertEquals(0, update(UUID.randomUUID(), "Nobody", null));
+        assertEquals(0, repository.deleteCustomerById(UUID.randomUUID()));
+        assertEquals(1, repository.deleteCustomerById(customer.getId()));
+        assertFalse(repository.existsById(customer.getId()));
+    }
+
+    @Test
+    void testFindByIdInAndEmailInReturnOnlyMatches() {
+        assertEquals(1, repository.findByIdIn(List.of(customer.getId(), UUID.randomUUID())).size());
+        assertEquals(customer.getId(), repository.findByEmailIn(
+                List.of("alice@example.com", "nobody@example.com")).get(0).getId());
+    }
+
+    @Test
+    void testFindVersionById() {
+        CustomerVersion version = repository.findVersionById(customer.getId()).orElseThrow();
+        assertEquals(customer.getVersion(), version.getVersion());
+        assertEquals(Tier.SILVER, version.getTier());
+        assertTrue(repository.findVersionById(UUID.randomUUID()).isEmpty());
+    }
+
+    private int update(UUID id, String name, Long version) {
+        int updated = repository.updateById(id, name, "alice@example.com", new BigDecimal("500"),
+                customer.getLastPurchaseDate(), Tier.SILVER, null, version);
+        entityManager.clear();
+        return updated;
+    }
+}
@@ -0,0 +1,146 @@
+package com.customer.api.customer_api.search;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerSearchFields;
+import com.customer.api.customer_api.exception.SearchUnavailableException;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CustomerSearchIndexTest {
+
+    private CustomerRepository repository;
+    private CustomerSearchIndex index;
+
+    private final UUID johnSmith = UUID.randomUUID();
+    private final UUID joanSmithers = UUID.randomUUID();
+    private final UUID jose = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() throws IOException {
+        repository = mock(CustomerRepository.class);
+        index = new CustomerSearchIndex(new CustomerApiProperties(), repository, mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void searchIsUnavailableUntilRebuilt() {
+        assertThrows(SearchUnavailableException.class, () -> index.search("john", 0, 10));
+        rebuild();
+        assertTrue(index.isReady());
+    }
+
+    @Test
+    void everyWordMustStartAWordOfTheNameOrEmail() {
+        rebuild();
+
+        assertEquals(List.of(johnSmith), ids("jo smi com"));
+        assertEquals(List.of(joanSmithers), ids("SMITHERS"));
+        assertEquals(List.of(), ids("john smithers"));
+        // Words inside the email's local part and domain match too
+        assertEquals(List.of(joanSmithers), ids("jsmithers"));
+    }
+
+    @Test
+    void accentsAndCaseAreFolded() {
+        rebuild();
+
+        assertEquals(List.of(jose), ids("jose"));
+        assertEquals(List.of(jose), ids("JOSÉ"));
+    }
+
+    @Test
+    void wholeWordsOutrankPrefixesAndAnExactEmailComesFirst() {
+        rebuild();
+
+        assertEquals(List.of(johnSmith, joanSmithers), ids("smith"));
+
+        UUID namesake = UUID.randomUUID();
+        index.index(namesake, "John Smith", "smith.john@example.com");
+        index.refresh();
+        assertEquals(List.of(namesake, johnSmith), ids("smith.john@example.com"));
+        assertEquals(List.of(johnSmith, namesake), ids("John.Smith@Example.com"));
+    }
+
+    @Test
+    void pagesThroughMatches() {
+        rebuild();
+
+        CustomerSearchIndex.Hits first = index.search("smith", 0, 1);
+        assertEquals(List.of(johnSmith), first.ids());
+        assertTrue(first.hasMore());
+        CustomerSearchIndex.Hits second = index.search("smith", 1, 1);
+        assertEquals(List.of(joanSmithers), second.ids());
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void writesApplyOnlyAfterTheTransactionCommits() {
+        rebuild();
+        UUID id = UUID.randomUUID();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.index(id, "Priya Natarajan", "priya@example.com");
+            index.refresh();
+            assertEquals(List.of(), ids("priya"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        index.refresh();
+        assertEquals(List.of(id), ids("priya"));
+
+        index.remove(id);
+        index.refresh();
+        assertEquals(List.of(), ids("priya"));
+    }
+
+    @Test
+    void writesDuringTheRebuildWinOverTheRowsItRead() {
+        // Each write lands after the rebuild read the row but before it indexes it
+        when(repository.streamSearchFields()).thenReturn(Stream.of(
+                        new CustomerSearchFields(johnSmith, "John Smith", "john.smith@example.com"),
+                        new CustomerSearchFields(joanSmithers, "Joan Smithers", "jsmithers@example.org"))
+                .peek(row -> {
+                    if (row.getId().equals(johnSmith)) {
+                        index.index(johnSmith, "John Smythe", "john.smythe@example.com");
+                    } else {
+                        index.remove(joanSmithers);
+                    }
+                }));
+        index.rebuild();
+
+        assertEquals(List.of(johnSmith), ids("smythe"));
+        assertEquals(List.of(), ids("smith"));
+    }
+
+    private void rebuild() {
+        when(repository.streamSearchFields()).thenReturn(Stream.of(
+                new CustomerSearchFields(johnSmith, "John Smith", "john.smith@example.com"),
+                new CustomerSearchFields(joanSmithers, "Joan Smithers", "jsmithers@example.org"),
+                new CustomerSearchFields(jose, "José Álvarez", "jalvarez@example.net")));
+        index.rebuild();
+    }
+
+    private List<UUID> ids(String query) {
+        return index.search(query, 0, 10).ids();
+    }
+}
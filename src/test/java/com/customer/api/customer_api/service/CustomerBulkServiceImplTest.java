@@ -0,0 +1,152 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.CustomerApiIntegrationTest;
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.BulkCreateResponse;
+import com.customer.api.customer_api.dto.BulkRowResult;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerBulkServiceImplTest extends CustomerApiIntegrationTest {
+
+    @Autowired
+    private CustomerBulkService bulkService;
+
+    @Autowired
+    private CustomerRepository repository;
+
+    @Autowired
+    private CustomerApiProperties properties;
+
+    private int originalChunkSize;
+
+    @BeforeEach
+    void setup() {
+        deleteAllCustomers();
+        originalChunkSize = properties.getBulk().getChunkSize();
+        properties.getBulk().setChunkSize(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        properties.getBulk().setChunkSize(originalChunkSize);
+        deleteAllCustomers();
+    }
+
+    @Test
+    void testJsonArrayIsInsertedInChunks() throws Exception {
+        String body = """
+                [
+                  {"name": "A", "email": "a@example.com", "annualSpend": 100},
+                  {"name": "B", "email": "b@example.com", "annualSpend": 2000},
+                  {"name": "C", "email": "c@example.com", "lastPurchaseDate": "2024-04-01T00:00:00"}
+                ]
+                """;
+        BulkCreateResponse response = bulkService.createCustomers(stream(body));
+
+        assertEquals(3, response.getReceived());
+        assertEquals(3, response.getCreated());
+        assertEquals(0, response.getFailed());
+        assertEquals(3, repository.count());
+        assertTrue(response.getResults().stream().allMatch(r -> r.getId() != null));
+    }
+
+    @Test
+    void testNdjsonReportsPerRowFailures() throws Exception {
+        String body = """
+                {"name": "A", "email": "a@example.com"}
+                {"name": "", "email": "not-an-email"}
+                {"name": "B", "email": "b@example.com", "annualSpend": "abc"}
+                {"name": "%s", "email": "c@example.com"}
+                {"name": "D", "email": "d@example.com"}
+                """.formatted("x".repeat(300));
+        BulkCreateResponse response = bulkService.createCustomers(stream(body));
+
+        assertEquals(5, response.getReceived());
+        assertEquals(2, response.getCreated());
+        assertEquals(3, response.getFailed());
+        assertEquals(2, repository.count());
+
+        List<BulkRowResult> results = response.getResults();
+        assertEquals(BulkRowResult.Status.CREATED, statusOf(results, 0));
+        assertEquals(BulkRowResult.Status.FAILED, statusOf(results, 1));
+        assertEquals(BulkRowResult.Status.FAILED, statusOf(results, 2));
+        assertEquals(BulkRowResult.Status.FAILED, statusOf(results, 3));
+        assertEquals(BulkRowResult.Status.CREATED, statusOf(results, 4));
+        assertEquals(BulkRowResult.ErrorCode.INVALID, row(results, 1).getCode());
+        assertEquals(BulkRowResult.ErrorCode.MALFORMED, row(results, 2).getCode());
+        assertEquals("Invalid value for 'annualSpend'", row(results, 2).getError());
+    }
+
+    @Test
+    void testSyntaxErrorAfterACommittedChunkFailsOnlyTheRest() throws Exception {
+        String body = """
+                {"name": "A", "email": "a@example.com"}
+                {"name": "B", "email": "b@example.com"}
+                {"name": "C", "email": "c@example.com"}
+                {"name": "D" "email": "d@example.com"}
+                {"name": "E", "email": "e@example.com"}
+                """;
+        BulkCreateResponse response = bulkService.createCustomers(stream(body));
+
+        // A and B went out as the first chunk; C was pending and is written too
+        assertEquals(4, response.getReceived());
+        assertEquals(3, response.getCreated());
+        assertEquals(1, response.getFailed());
+        assertEquals(3, repository.count());
+        BulkRowResult rest = row(response.getResults(), 3);
+        assertEquals(BulkRowResult.ErrorCode.UNREADABLE, rest.getCode());
+        assertTrue(rest.getError().startsWith("Malformed JSON at line 4"), rest.getError());
+    }
+
+    @Test
+    void testSyntaxErrorBeforeAnyCommitRejectsTheBody() {
+        String body = """
+                {"name": "A", "email": "a@example.com"}
+                {"name": "B",
+                """;
+
+        assertThrows(JsonProcessingException.class, () -> bulkService.createCustomers(stream(body)));
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void testDuplicateEmailIsRejectedPerRow() throws Exception {
+        String body = """
+                {"name": "A", "email": "dup@example.com"}
+                {"name": "B", "email": "dup@example.com"}
+                {"name": "C", "email": "c@example.com"}
+                """;
+        BulkCreateResponse response = bulkService.createCustomers(stream(body));
+
+        assertEquals(2, response.getCreated());
+        BulkRowResult duplicate = row(response.getResults(), 1);
+        assertEquals(BulkRowResult.Status.FAILED, duplicate.getStatus());
+        assertEquals(BulkRowResult.ErrorCode.CONFLICT, duplicate.getCode());
+        // No SQL or constraint names from the driver
+        assertEquals("Customer conflicts with an existing record", duplicate.getError());
+        assertEquals(2, repository.count());
+    }
+
+    private static BulkRowResult.Status statusOf(List<BulkRowResult> results, int index) {
+        return row(results, index).getStatus();
+    }
+
+    private static BulkRowResult row(List<BulkRowResult> results, int index) {
+        return results.stream().filter(r -> r.getIndex() == index).findFirst().orElseThrow();
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,18 +1,44 @@
 package com.customer.api.customer_api.service;
 
+import com.customer.api.customer_api.cache.CustomerCache;
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.dto.CustomerLookupRequest;
+import com.customer.api.customer_api.dto.CustomerLookupResponse;
+import com.customer.api.customer_api.dto.CustomerPage;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
 import com.customer.api.customer_api.dto.CustomerRequest;
 import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.dto.CustomerSearchPage;
+import com.customer.api.customer_api.dto.CustomerVersion;
 import com.customer.api.customer_api.exception.CustomerNotFoundException;
+import com.customer.api.customer_api.exception.InvalidSearchException;
+import com.customer.api.customer_api.exception.TooManyKeysException;
+import com.customer.api.customer_api.metrics.CustomerMetrics;
 import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.repository.CustomerChangeRepository;
 import com.customer.api.customer_api.repository.CustomerRepository;
+import com.customer.api.customer_api.repository.CustomerRollupRepository;
+import com.customer.api.customer_api.search.CustomerSearchIndex;
 import com.customer.api.customer_api.service.impl.CustomerServiceImpl;
+import com.customer.api.customer_api.tier.TierPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +46,8 @@ import static org.mockito.Mockito.*;
 public class CustomerServiceImplTest {
 
     private CustomerRepository repository;
+    private CustomerSearchIndex searchIndex;
+    private CustomerApiProperties properties;
     private CustomerServiceImpl service;
     private UUID mockId;
     private CustomerRequest validRequest;
@@ -28,11 +56,18 @@ public class CustomerServiceImplTest {
     @BeforeEach
     void setup() {
         repository = mock(CustomerRepository.class);
-        service = new CustomerServiceImpl(repository);
+        searchIndex = mock(CustomerSearchIndex.class);
+        properties = new CustomerApiProperties();
+        Clock clock = Clock.systemDefaultZone();
+        service = new CustomerServiceImpl(repository, mock(CustomerChangeRepository.class), new CustomerCache(properties, clock),
+                searchIndex, mock(CustomerRollupRepository.class),
+                new TierPolicy(properties, clock), clock, mock(EntityManager.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties,
+                new CustomerMetrics(new SimpleMeterRegistry()));
 
         mockId = UUID.randomUUID();
         validRequest = new CustomerRequest("John Doe", "john@example.com",
-                new BigDecimal("1200"), LocalDateTime.now().minusMonths(3));
+                new BigDecimal("1200"), LocalDateTime.now().minusMonths(3), null);
         savedCustomer = Customer.builder()
                 .id(mockId)
                 .name(validRequest.getName())
@@ -40,6 +75,7 @@ public class CustomerServiceImplTest {
                 .annualSpend(validRequest.getAnnualSpend())
                 .lastPurchaseDate(validRequest.getLastPurchaseDate())
                 .build();
+        when(repository.lockIdById(mockId)).thenReturn(Optional.of(mockId));
     }
 
     @Test
@@ -47,7 +83,29 @@ public class CustomerServiceImplTest {
         when(repository.save(any())).thenReturn(savedCustomer);
         CustomerResponse response = service.createCustomer(validRequest);
         assertEquals("John Doe", response.getName());
-        assertEquals("Gold", response.getTier());
+        assertEquals(Tier.GOLD, response.getTier());
+    }
+
+    @Test
+    void testCreateCustomerStoresTier() {
+        when(repository.save(any())).thenAnswer(invocation -> {
+            Customer customer = invocation.getArgument(0);
+            customer.setId(mockId);
+            return customer;
+        });
+        service.createCustomer(validRequest);
+        ArgumentCaptor<Customer> saved = ArgumentCaptor.forClass(Customer.class);
+        verify(repository).save(saved.capture());
+        assertEquals(Tier.GOLD, saved.getValue().getTier());
+        assertEquals(validRequest.getLastPurchaseDate().plusMonths(12), saved.getValue().getTierValidUntil());
+    }
+
+    @Test
+    void testGetCustomersByTier() {
+        when(repository.findCurrentByTier(eq(Tier.GOLD), any(), any())).thenReturn(List.of(savedCustomer));
+        CustomerPage page = service.getCustomersByTier(Tier.GOLD, null, 10);
+        assertEquals(1, page.getItems().size());
+        assertEquals(Tier.GOLD, page.getItems().get(0).getTier());
     }
 
     @Test
@@ -57,11 +115,38 @@ public class CustomerServiceImplTest {
         assertEquals(mockId, response.getId());
     }
 
+    @Test
+    void testListCustomersReturnsCursorWhenMoreRowsExist() {
+        Customer next = Customer.builder().id(UUID.randomUUID()).name("Jane").email("jane@example.com").build();
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(mockId), any())).thenReturn(List.of(savedCustomer, next));
+        CustomerPage page = service.listCustomers(mockId, 1);
+        assertEquals(1, page.getItems().size());
+        assertEquals(mockId, page.getNextCursor());
+    }
+
+    @Test
+    void testListCustomersLastPageHasNoCursor() {
+        when(repository.findAllByOrderByIdAsc(any())).thenReturn(List.of(savedCustomer));
+        CustomerPage page = service.listCustomers(null, null);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testStreamCustomers() {
+        when(repository.streamAllOrderedById()).thenReturn(Stream.of(savedCustomer));
+        List<CustomerResponse> streamed = new ArrayList<>();
+        service.streamCustomers(streamed::add);
+        assertEquals(1, streamed.size());
+        assertEquals(Tier.GOLD, streamed.get(0).getTier());
+    }
+
     @Test
     void testGetCustomerByName() {
-        when(repository.findByName("John Doe")).thenReturn(Optional.of(savedCustomer));
-        CustomerResponse response = service.getCustomerByName("John Doe");
-        assertEquals("John Doe", response.getName());
+        when(repository.findPageByName(eq("John Doe"), any())).thenReturn(List.of(savedCustomer));
+        CustomerPage page = service.getCustomersByName("John Doe", null, null);
+        assertEquals("John Doe", page.getItems().get(0).getName());
+        assertNull(page.getNextCursor());
     }
 
     @Test
@@ -72,18 +157,201 @@ public class CustomerServiceImplTest {
     }
 
     @Test
-    void testUpdateCustomer() {
+    void testLookupCustomersReportsMissesInRequestOrder() {
+        UUID unknownId = UUID.randomUUID();
+        when(repository.findByIdIn(any())).thenReturn(List.of(savedCustomer));
+        when(repository.findByEmailIn(any())).thenReturn(List.of());
+
+        CustomerLookupResponse response = service.lookupCustomers(new CustomerLookupRequest(
+                List.of(unknownId, mockId, mockId), List.of("nobody@example.com")));
+
+        assertEquals(List.of(mockId.toString()), List.copyOf(response.getCustomers().keySet()));
+        assertEquals(Tier.GOLD, response.getCustomers().get(mockId.toString()).getTier());
+        assertEquals(List.of(unknownId.toString(), "nobody@example.com"), response.getMissing());
+        verify(repository).findByIdIn(List.of(unknownId, mockId));
+    }
+
+    @Test
+    void testLookupCustomersQueriesInChunksAndSkipsCachedCustomers() {
+        properties.getLookup().setChunkSize(2);
         when(repository.findById(mockId)).thenReturn(Optional.of(savedCustomer));
+        service.getCustomerById(mockId);
+        List<UUID> ids = new ArrayList<>(List.of(mockId));
+        for (int i = 0; i < 5; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        when(repository.findByIdIn(any())).thenReturn(List.of());
+
+        CustomerLookupResponse response = service.lookupCustomers(new CustomerLookupRequest(ids, null));
+
+        assertEquals(1, response.getCustomers().size());
+        assertEquals(5, response.getMissing().size());
+        verify(repository, times(3)).findByIdIn(any());
+        verify(repository, never()).findByEmailIn(any());
+    }
+
+    @Test
+    void testLookupCustomersRejectsTooManyKeys() {
+        properties.getLookup().setMaxKeys(2);
+        CustomerLookupRequest request = new CustomerLookupRequest(
+                List.of(UUID.randomUUID(), UUID.randomUUID()), List.of("a@example.com"));
+        assertThrows(TooManyKeysException.class, () -> service.lookupCustomers(request));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testSearchCustomersKeepsRankOrderAndDropsDeletedHits() {
+        Customer other = Customer.builder().id(UUID.randomUUID()).name("Johnny Doe").email("johnny@example.com")
+                .annualSpend(new BigDecimal("50")).lastPurchaseDate(LocalDateTime.now()).version(0L).build();
+        UUID deleted = UUID.randomUUID();
+        when(searchIndex.search("john", 0, 3))
+                .thenReturn(new CustomerSearchIndex.Hits(List.of(other.getId(), deleted, mockId), true));
+        when(repository.findByIdIn(any())).thenReturn(List.of(savedCustomer, other));
+
+        CustomerSearchPage page = service.searchCustomers("john", null, 3);
+
+        assertEquals(List.of(other.getId(), mockId), page.getItems().stream().map(CustomerResponse::getId).toList());
+        assertEquals(3, page.getNextOffset());
+    }
+
+    @Test
+    void testSearchCustomersRejectsBlankQueriesAndDeepPages() {
+        properties.getSearch().setMaxWindow(100);
+        assertThrows(InvalidSearchException.class, () -> service.searchCustomers(" ", null, null));
+        assertThrows(InvalidSearchException.class, () -> service.searchCustomers("john", 95, 10));
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void testCreateUpdateAndDeleteKeepTheSearchIndexCurrent() {
         when(repository.save(any())).thenReturn(savedCustomer);
+        when(repository.updateById(eq(mockId), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+        when(repository.deleteCustomerById(mockId)).thenReturn(1);
+
+        service.createCustomer(validRequest);
+        service.updateCustomer(mockId, validRequest);
+        service.deleteCustomer(mockId);
+
+        verify(searchIndex, times(2)).index(mockId, "John Doe", "john@example.com");
+        verify(searchIndex).remove(mockId);
+    }
+
+    @Test
+    void testUpdateCustomer() {
+        when(repository.updateById(eq(mockId), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
         CustomerResponse response = service.updateCustomer(mockId, validRequest);
         assertEquals("John Doe", response.getName());
+        assertEquals(Tier.GOLD, response.getTier());
+        verify(repository, never()).findById(any());
     }
 
     @Test
-    void testDeleteCustomer() {
+    void testUpdateCustomerNotFound() {
+        when(repository.lockIdById(mockId)).thenReturn(Optional.empty());
+        assertThrows(CustomerNotFoundException.class, () -> service.updateCustomer(mockId, validRequest));
+        verify(repository, never()).updateById(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testUpdateCustomerWithStaleVersion() {
+        validRequest.setVersion(3L);
+        when(repository.updateById(eq(mockId), any(), any(), any(), any(), any(), any(), eq(3L))).thenReturn(0);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> service.updateCustomer(mockId, validRequest));
+    }
+
+    @Test
+    void testPatchCustomerWritesMergedRowWithReadVersion() {
+        savedCustomer.setVersion(2L);
+        when(repository.findById(mockId)).thenReturn(Optional.of(savedCustomer));
+        when(repository.updateById(eq(mockId), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        CustomerResponse response = service.patchCustomer(mockId,
+                CustomerPatchRequest.builder().annualSpend(new BigDecimal("15000")).build());
+
+        verify(repository).updateById(eq(mockId), eq("John Doe"), eq("john@example.com"), eq(new BigDecimal("15000")),
+                eq(validRequest.getLastPurchaseDate()), eq(Tier.PLATINUM), any(), eq(2L));
+        assertEquals(Tier.PLATINUM, response.getTier());
+        assertEquals(3L, response.getVersion());
+    }
+
+    @Test
+    void testPatchCustomerRejectsStaleVersion() {
+        savedCustomer.setVersion(2L);
         when(repository.findById(mockId)).thenReturn(Optional.of(savedCustomer));
-        doNothing().when(repository).delete(savedCustomer);
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> service.patchCustomer(mockId, CustomerPatchRequest.builder().name("Jane").version(1L).build()));
+        verify(repository, never()).updateById(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testDeleteCustomer() {
+        when(repository.deleteCustomerById(mockId)).thenReturn(1);
         assertDoesNotThrow(() -> service.deleteCustomer(mockId));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void testDeleteCustomerNotFound() {
+        when(repository.lockIdById(mockId)).thenReturn(Optional.empty());
+        assertThrows(CustomerNotFoundException.class, () -> service.deleteCustomer(mockId));
+        verify(repository, never()).deleteCustomerById(any());
+    }
+
+    @Test
+    void testGetCustomerByIdIsServedFromCache() {
+        when(repository.findById(mockId)).thenReturn(Optional.of(savedCustomer));
+        service.getCustomerById(mockId);
+        CustomerResponse response = service.getCustomerById(mockId);
+        assertEquals(mockId, response.getId());
+        verify(repository, times(1)).findById(mockId);
+    }
+
+    @Test
+    void testGetCustomerVersionIsServedFromCache() {
+        savedCustomer.setVersion(4L);
+        when(repository.findById(mockId)).thenReturn(Optional.of(savedCustomer));
+        service.getCustomerById(mockId);
+
+        CustomerVersion version = service.getCustomerVersion(mockId);
+
+        assertEquals(4L, version.getVersion());
+        assertEquals(Tier.GOLD, version.getTier());
+        assertEquals(savedCustomer.getLastPurchaseDate().plusMonths(12), version.getTierValidUntil());
+        verify(repository, never()).findVersionById(any());
+    }
+
+    @Test
+    void testGetCustomerVersionIgnoresLapsedStoredTier() {
+        when(repository.findVersionById(mockId)).thenReturn(
+                Optional.of(new CustomerVersion(1L, Tier.GOLD, LocalDateTime.now().minusMinutes(1))));
+        assertNull(service.getCustomerVersion(mockId));
+
+        when(repository.findVersionById(mockId)).thenReturn(Optional.of(new CustomerVersion(1L, Tier.SILVER, null)));
+        assertEquals(Tier.SILVER, service.getCustomerVersion(mockId).getTier());
+    }
+
+    @Test
+    void testGetCustomerByEmailUsesCachedEntry() {
+        when(repository.findById(mockId)).thenReturn(Optional.of(savedCustomer));
+        service.getCustomerById(mockId);
+        CustomerResponse response = service.getCustomerByEmail("john@example.com");
+        assertEquals(mockId, response.getId());
+        verify(repository, never()).findByEmail(any());
+    }
+
+    @Test
+    void testUpdateCustomerInvalidatesCachedTier() {
+        when(repository.findById(mockId)).thenReturn(Optional.of(savedCustomer));
+        when(repository.updateById(eq(mockId), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+        assertEquals(Tier.GOLD, service.getCustomerById(mockId).getTier());
+
+        service.updateCustomer(mockId, new CustomerRequest("John Doe", "john@example.com",
+                new BigDecimal("15000"), LocalDateTime.now().minusMonths(1), null));
+        savedCustomer.setAnnualSpend(new BigDecimal("15000"));
+        savedCustomer.setLastPurchaseDate(LocalDateTime.now().minusMonths(1));
+
+        assertEquals(Tier.PLATINUM, service.getCustomerById(mockId).getTier());
+        verify(repository, times(2)).findById(mockId);
     }
 
     @Test
@@ -95,53 +363,53 @@ public class CustomerServiceImplTest {
     @Test
     void testTierSilver() {
         CustomerRequest request = new CustomerRequest("Low Spend", "low@example.com",
-                new BigDecimal("500"), LocalDateTime.now());
+                new BigDecimal("500"), LocalDateTime.now(), null);
         Customer customer = Customer.builder().id(mockId).name("Low Spend").email("low@example.com")
                 .annualSpend(request.getAnnualSpend()).lastPurchaseDate(request.getLastPurchaseDate()).build();
         when(repository.save(any())).thenReturn(customer);
         CustomerResponse response = service.createCustomer(request);
-        assertEquals("Silver", response.getTier());
+        assertEquals(Tier.SILVER, response.getTier());
     }
 
     @Test
     void testTierGold() {
         CustomerRequest request = new CustomerRequest("Gold Spend", "gold@example.com",
-                new BigDecimal("5000"), LocalDateTime.now().minusMonths(6));
+                new BigDecimal("5000"), LocalDateTime.now().minusMonths(6), null);
         Customer customer = Customer.builder().id(mockId).name("Gold Spend").email("gold@example.com")
                 .annualSpend(request.getAnnualSpend()).lastPurchaseDate(request.getLastPurchaseDate()).build();
         when(repository.save(any())).thenReturn(customer);
         CustomerResponse response = service.createCustomer(request);
-        assertEquals("Gold", response.getTier());
+        assertEquals(Tier.GOLD, response.getTier());
     }
 
     @Test
     void testTierPlatinum() {
         CustomerRequest request = new CustomerRequest("Plat Spend", "plat@example.com",
-                new BigDecimal("15000"), LocalDateTime.now().minusMonths(2));
+                new BigDecimal("15000"), LocalDateTime.now().minusMonths(2), null);
         Customer customer = Customer.builder().id(mockId).name("Plat Spend").email("plat@example.com")
                 .annualSpend(request.getAnnualSpend()).lastPurchaseDate(request.getLastPurchaseDate()).build();
         when(repository.save(any())).thenReturn(customer);
         CustomerResponse response = service.createCustomer(request);
-        assertEquals("Platinum", response.getTier());
+        assertEquals(Tier.PLATINUM, response.getTier());
     }
 
     @Test
     void testValidationMissingName() {
-        CustomerRequest badRequest = new CustomerRequest("", "valid@example.com", new BigDecimal("2000"), LocalDateTime.now());
+        CustomerRequest badRequest = new CustomerRequest("", "valid@example.com", new BigDecimal("2000"), LocalDateTime.now(), null);
         Exception exception = assertThrows(Exception.class, () -> service.createCustomer(badRequest));
         assertNotNull(exception.getMessage());
     }
 
     @Test
     void testValidationMissingEmail() {
-        CustomerRequest badRequest = new CustomerRequest("No Email", "", new BigDecimal("2000"), LocalDateTime.now());
+        CustomerRequest badRequest = new CustomerRequest("No Email", "", new BigDecimal("2000"), LocalDateTime.now(), null);
         Exception exception = assertThrows(Exception.class, () -> service.createCustomer(badRequest));
         assertNotNull(exception.getMessage());
     }
 
     @Test
     void testValidationInvalidEmailFormat() {
-        CustomerRequest badRequest = new CustomerRequest("Bad Email", "invalid-email", new BigDecimal("2000"), LocalDateTime.now());
+        CustomerRequest badRequest = new CustomerRequest("Bad Email", "invalid-email", new BigDecimal("2000"), LocalDateTime.now(), null);
         Exception exception = assertThrows(Exception.class, () -> service.createCustomer(badRequest));
         assertNotNull(exception.getMessage());
     }
@@ -0,0 +1,250 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.CustomerApiIntegrationTest;
+import com.customer.api.customer_api.dto.CustomerPatchRequest;
+import com.customer.api.customer_api.dto.CustomerStatsResponse;
+import com.customer.api.customer_api.dto.TierStats;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.repository.CustomerRollupRepository;
+import com.customer.api.customer_api.tier.TierRecomputeJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerStatsServiceImplTest extends CustomerApiIntegrationTest {
+
+    // The same buckets as V6__customer_rollup.sql, computed from scratch
+    private static final String AGGREGATE_SQL = """
+            SELECT tier, dimension, bucket, COUNT(*) AS customers, SUM(spend) AS spend FROM (
+              SELECT tier, 'SPEND' AS dimension,
+                     CAST(FLOOR(LOG10(GREATEST(COALESCE(annual_spend, 0), 0) + 1) * 20) AS INT) AS bucket,
+                     COALESCE(annual_spend, 0) AS spend FROM customer
+              UNION ALL
+              SELECT tier, 'PURCHASE_MONTH', COALESCE(CAST(EXTRACT(YEAR FROM last_purchase_date) * 12
+                     + EXTRACT(MONTH FROM last_purchase_date) - 1 AS INT), -1),
+                     COALESCE(annual_spend, 0) FROM customer) c
+            GROUP BY tier, dimension, bucket ORDER BY tier, dimension, bucket
+            """;
+    private static final String ROLLUP_SQL = """
+            SELECT tier, dimension, bucket, SUM(customer_count) AS customers, SUM(spend_total) AS spend
+            FROM customer_rollup GROUP BY tier, dimension, bucket HAVING SUM(customer_count) <> 0
+            ORDER BY tier, dimension, bucket
+            """;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerBulkService bulkService;
+
+    @Autowired
+    private CustomerStatsService statsService;
+
+    @Autowired
+    private TierRecomputeJob tierRecomputeJob;
+
+    @Autowired
+    private CustomerRollupRepository rollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Rollups are compared with aggregates over the whole customer table
+    @BeforeEach
+    void setup() {
+        deleteAllCustomers();
+    }
+
+    @Test
+    void rollupsFollowEveryWritePath() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        UUID alice = customerService.createCustomer(request("Alice", "stats.alice@example.com", "500", now.minusDays(3))).getId();
+        UUID bob = customerService.createCustomer(request("Bob", "stats.bob@example.com", "12000", now.minusMonths(4))).getId();
+        UUID carol = customerService.createCustomer(request("Carol", "stats.carol@example.com", null, null)).getId();
+        assertRollupsMatchCustomers();
+
+        customerService.updateCustomer(alice, request("Alice", "stats.alice@example.com", "6000", now.minusMonths(8)));
+        customerService.patchCustomer(bob, CustomerPatchRequest.builder().annualSpend(new BigDecimal("25000")).build());
+        customerService.patchCustomer(carol, CustomerPatchRequest.builder().name("Caroline").build());
+        customerService.upsertCustomerByEmail(request("Bob", "stats.bob@example.com", "800", now.minusMonths(30)));
+        customerService.upsertCustomerByEmail(request("Frank", "stats.frank@example.com", "1500", now.minusDays(10)));
+        assertRollupsMatchCustomers();
+
+        customerService.deleteCustomer(carol);
+        String body = "{\"name\":\"Dan\",\"email\":\"stats.dan@example.com\",\"annualSpend\":750}\n"
+                + "{\"name\":\"Eve\",\"email\":\"stats.eve@example.com\",\"annualSpend\":3000,"
+                + "\"lastPurchaseDate\":\"" + now.minusYears(3).withNano(0) + "\"}\n"
+                // Same email as Dan: the chunk fails and the rows are retried one by one
+                + "{\"name\":\"Dan again\",\"email\":\"stats.dan@example.com\"}\n";
+        bulkService.createCustomers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        assertRollupsMatchCustomers();
+    }
+
+    @Test
+    void reTieringMovesCustomersBetweenTiers() {
+        LocalDateTime now = LocalDateTime.now();
+        UUID id = customerService.createCustomer(request("Lapsing", "stats.lapsing@example.com", "5000", now.minusDays(1))).getId();
+        // Age the purchase past the Gold window behind the services' back, then recount from scratch
+        jdbcTemplate.update("UPDATE customer SET last_purchase_date = ?, tier_valid_until = ? WHERE id = ?",
+                now.minusMonths(13), now.minusMonths(1), id);
+        jdbcTemplate.update("DELETE FROM customer_rollup");
+        jdbcTemplate.update("INSERT INTO customer_rollup (tier, dimension, bucket, stripe, customer_count, spend_total)"
+                + " SELECT tier, dimension, bucket, 0, customers, spend FROM (" + AGGREGATE_SQL + ")");
+        assertEquals(1, tier(statsService.getStats(), Tier.GOLD).getCustomers());
+
+        assertEquals(1, tierRecomputeJob.recomputeLapsedTiers());
+
+        assertRollupsMatchCustomers();
+        CustomerStatsResponse stats = statsService.getStats();
+        assertEquals(0, tier(stats, Tier.GOLD).getCustomers());
+        assertEquals(1, tier(stats, Tier.SILVER).getCustomers());
+    }
+
+    @Test
+    void statsSummariseTheBuckets() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= 100; i++) {
+            customerService.createCustomer(request("Silver " + i, "stats.silver" + i + "@example.com",
+                    String.valueOf(i * 9), now.minusDays(1)));
+        }
+        customerService.createCustomer(request("Gold", "stats.gold@example.com", "6000", now.minusMonths(2)));
+        customerService.createCustomer(request("Dormant", "stats.dormant@example.com", null, null));
+
+        CustomerStatsResponse stats = statsService.getStats();
+
+        assertEquals(102, stats.getCustomers());
+        assertEquals(0, new BigDecimal("51450").compareTo(stats.getTotalSpend()));
+        assertEquals(List.of(Tier.values()), stats.getTiers().stream().map(TierStats::getTier).toList());
+
+        TierStats silver = tier(stats, Tier.SILVER);
+        assertEquals(101, silver.getCustomers());
+        assertEquals(new BigDecimal("450.00"), silver.getAverageSpend());
+        // Bucket edges are about 12% apart, so the percentiles are that close to the exact ones
+        assertEquals(450, silver.getSpendPercentiles().get("p50").doubleValue(), 450 * 0.13);
+        assertEquals(810, silver.getSpendPercentiles().get("p90").doubleValue(), 810 * 0.13);
+        assertEquals(1, silver.getLastPurchase().get("never"));
+        // Yesterday is last month on the 1st
+        assertEquals(100, silver.getLastPurchase().get("0-1m") + silver.getLastPurchase().get("1-3m"));
+
+        TierStats gold = tier(stats, Tier.GOLD);
+        assertEquals(1, gold.getCustomers());
+        assertEquals(new BigDecimal("6000.00"), gold.getAverageSpend());
+        assertEquals(1, gold.getLastPurchase().get("1-3m"));
+
+        TierStats platinum = tier(stats, Tier.PLATINUM);
+        assertEquals(0, platinum.getCustomers());
+        assertEquals(Map.of(), platinum.getSpendPercentiles());
+    }
+
+    @Test
+    void concurrentUpdatesOfOneCustomerKeepTheRollupsExact() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        UUID id = customerService.createCustomer(request("Racy", "stats.racy@example.com", "100", now)).getId();
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (String spend : List.of("700", "90000")) {
+                done.add(writers.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        barrier.await();
+                        customerService.updateCustomer(id, request("Racy", "stats.racy@example.com", spend, now));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : done) {
+                writer.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        assertRollupsMatchCustomers();
+        assertEquals(1, statsService.getStats().getCustomers());
+    }
+
+    @Test
+    void concurrentFirstWritesToABucketStripeBothCount() throws Exception {
+        // Inserted behind the rollups' back, then counted by two transactions into the same new stripe
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        for (UUID id : ids) {
+            jdbcTemplate.update("INSERT INTO customer (id, name, email, annual_spend, tier) VALUES (?, 'First', ?, 42, 'SILVER')",
+                    id, id + "@example.com");
+        }
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = writers.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                rollupRepository.adjust(List.of(ids.get(0)), 1, 0);
+                firstInserted.countDown();
+                // Commits while the second MERGE waits on the row it inserted
+                sleep(300);
+            }));
+            firstInserted.await();
+            Future<?> second = writers.submit(() -> transactionTemplate.executeWithoutResult(status ->
+                    rollupRepository.adjust(List.of(ids.get(1)), 1, 0)));
+            first.get(1, TimeUnit.MINUTES);
+            second.get(1, TimeUnit.MINUTES);
+        } finally {
+            writers.shutdownNow();
+        }
+
+        assertRollupsMatchCustomers();
+    }
+
+    @Test
+    void negativeSpendCountsInTheLowestBucket() {
+        UUID refund = customerService.createCustomer(request("Refund", "stats.refund@example.com", "-5", null)).getId();
+        customerService.patchCustomer(refund, CustomerPatchRequest.builder().annualSpend(new BigDecimal("-250")).build());
+        customerService.createCustomer(request("Small", "stats.small@example.com", "0", null));
+        assertRollupsMatchCustomers();
+
+        TierStats silver = tier(statsService.getStats(), Tier.SILVER);
+        assertEquals(2, silver.getCustomers());
+        // Both land in bucket 0, which spans spends from 0 to about 0.12
+        assertEquals(0, silver.getSpendPercentiles().get("p50").doubleValue(), 0.13);
+    }
+
+    private void assertRollupsMatchCustomers() {
+        List<String> expected = rows(AGGREGATE_SQL);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, rows(ROLLUP_SQL));
+    }
+
+    private List<String> rows(String sql) {
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getString("tier") + " " + rs.getString("dimension")
+                + " " + rs.getInt("bucket") + " " + rs.getLong("customers")
+                + " " + rs.getBigDecimal("spend").stripTrailingZeros().toPlainString());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TierStats tier(CustomerStatsResponse stats, Tier tier) {
+        return stats.getTiers().stream().filter(t -> t.getTier() == tier).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,95 @@
+package com.customer.api.customer_api.service;
+
+import com.customer.api.customer_api.CustomerApiIntegrationTest;
+import com.customer.api.customer_api.dto.CustomerRequest;
+import com.customer.api.customer_api.dto.CustomerResponse;
+import com.customer.api.customer_api.model.ChangeType;
+import com.customer.api.customer_api.model.CustomerChange;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.repository.CustomerChangeRepository;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerUpsertTest extends CustomerApiIntegrationTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerChangeRepository changeRepository;
+
+    @Test
+    void createsThenReplacesTheCustomerWithThatEmail() {
+        CustomerResponse created = customerService.upsertCustomerByEmail(request("Upsert", "upsert.once@example.com", "500"));
+        assertEquals(0L, created.getVersion());
+        assertEquals(Tier.SILVER, created.getTier());
+
+        CustomerResponse updated = customerService.upsertCustomerByEmail(request("Upserted", "upsert.once@example.com", "5000"));
+
+        assertEquals(created.getId(), updated.getId());
+        assertEquals(1L, updated.getVersion());
+        assertEquals(Tier.GOLD, updated.getTier());
+        assertEquals("Upserted", customerService.getCustomerByEmail("upsert.once@example.com").getName());
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED), changes(created));
+    }
+
+    @Test
+    void staleVersionChangesNothing() {
+        CustomerResponse created = customerService.upsertCustomerByEmail(request("Upsert", "upsert.stale@example.com", "500"));
+        CustomerRequest stale = request("Stale", "upsert.stale@example.com", "5000");
+        stale.setVersion(5L);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> customerService.upsertCustomerByEmail(stale));
+
+        assertEquals("Upsert", customerRepository.findById(created.getId()).orElseThrow().getName());
+        assertEquals(List.of(ChangeType.CREATED), changes(created));
+    }
+
+    @Test
+    void concurrentUpsertsOfOneEmailCreateOneCustomer() throws Exception {
+        int writers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<CustomerResponse>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < writers; i++) {
+                String spend = String.valueOf(100 * (i + 1));
+                Callable<CustomerResponse> upsert = () ->
+                        customerService.upsertCustomerByEmail(request("Racer", "upsert.race@example.com", spend));
+                results.add(pool.submit(upsert));
+            }
+            for (Future<CustomerResponse> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        CustomerResponse stored = customerService.getCustomerByEmail("upsert.race@example.com");
+        assertTrue(results.stream().allMatch(result -> result.resultNow().getId().equals(stored.getId())));
+        assertEquals(writers - 1, stored.getVersion());
+        List<ChangeType> changes = changes(stored);
+        assertEquals(writers, changes.size());
+        assertEquals(1, changes.stream().filter(type -> type == ChangeType.CREATED).count());
+    }
+
+    private List<ChangeType> changes(CustomerResponse customer) {
+        return changeRepository.findAll().stream()
+                .filter(change -> change.getCustomerId().equals(customer.getId()))
+                .map(CustomerChange::getChangeType)
+                .toList();
+    }
+}
@@ -0,0 +1,95 @@
+package com.customer.api.customer_api.tier;
+
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.Tier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TierPolicyTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 15, 12, 0);
+
+    private TierPolicy policy;
+    private TierPolicy.Evaluator evaluator;
+
+    @BeforeEach
+    void setup() {
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        policy = new TierPolicy(new CustomerApiProperties(), clock);
+        evaluator = policy.evaluator();
+    }
+
+    @Test
+    void testMissingSpendOrPurchaseIsSilver() {
+        assertEquals(Tier.SILVER, evaluator.tierOf(null, NOW));
+        assertEquals(Tier.SILVER, evaluator.tierOf(new BigDecimal("20000"), null));
+    }
+
+    @Test
+    void testPlatinumWindow() {
+        assertEquals(Tier.PLATINUM, evaluator.tierOf(new BigDecimal("10000"), NOW.minusMonths(6).plusSeconds(1)));
+        assertEquals(Tier.SILVER, evaluator.tierOf(new BigDecimal("10000"), NOW.minusMonths(6)));
+    }
+
+    @Test
+    void testGoldWindow() {
+        assertEquals(Tier.GOLD, evaluator.tierOf(new BigDecimal("1000.00"), NOW.minusMonths(12).plusSeconds(1)));
+        assertEquals(Tier.SILVER, evaluator.tierOf(new BigDecimal("1000"), NOW.minusMonths(12)));
+        assertEquals(Tier.SILVER, evaluator.tierOf(new BigDecimal("999.99"), NOW));
+    }
+
+    @Test
+    void testThresholdsComeFromConfiguration() {
+        CustomerApiProperties properties = new CustomerApiProperties();
+        properties.getTier().setGoldMinSpend(new BigDecimal("500"));
+        TierPolicy custom = new TierPolicy(properties, Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        assertEquals(Tier.GOLD, custom.evaluator().tierOf(new BigDecimal("500"), NOW));
+    }
+
+    @Test
+    void testEvaluateAll() {
+        List<Customer> customers = List.of(
+                Customer.builder().annualSpend(new BigDecimal("15000")).lastPurchaseDate(NOW.minusMonths(1)).build(),
+                Customer.builder().annualSpend(new BigDecimal("5000")).lastPurchaseDate(NOW.minusMonths(1)).build(),
+                Customer.builder().annualSpend(new BigDecimal("50")).lastPurchaseDate(NOW).build());
+        assertArrayEquals(new Tier[]{Tier.PLATINUM, Tier.GOLD, Tier.SILVER}, policy.evaluateAll(customers));
+    }
+
+    @Test
+    void testValidUntil() {
+        LocalDateTime purchase = NOW.minusMonths(1);
+        assertEquals(purchase.plusMonths(6), policy.validUntil(Tier.PLATINUM, purchase));
+        assertEquals(purchase.plusMonths(12), policy.validUntil(Tier.GOLD, purchase));
+        assertNull(policy.validUntil(Tier.SILVER, purchase));
+    }
+
+    @Test
+    void testValidUntilWhenMonthEndIsClamped() {
+        // Aug 31 + 6 months clamps to Feb 28, but Feb 28 minus 6 months is Aug 28: still Platinum.
+        LocalDateTime purchase = LocalDateTime.of(2024, 8, 31, 10, 0);
+        LocalDateTime lapse = policy.validUntil(Tier.PLATINUM, purchase);
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), lapse);
+        assertEquals(Tier.PLATINUM, policy.at(lapse.minusNanos(1)).tierOf(new BigDecimal("10000"), purchase));
+        assertEquals(Tier.SILVER, policy.at(lapse).tierOf(new BigDecimal("10000"), purchase));
+    }
+
+    @Test
+    void testFingerprintFollowsTheRules() {
+        CustomerApiProperties properties = new CustomerApiProperties();
+        properties.getTier().setGoldMinSpend(new BigDecimal("1000.00"));
+        Clock clock = Clock.systemUTC();
+        assertEquals(policy.fingerprint(), new TierPolicy(properties, clock).fingerprint());
+
+        properties.getTier().setGoldMinSpend(new BigDecimal("1500"));
+        assertNotEquals(policy.fingerprint(), new TierPolicy(properties, clock).fingerprint());
+    }
+}
@@ -0,0 +1,109 @@
+package com.customer.api.customer_api.tier;
+
+import com.customer.api.customer_api.CustomerApiIntegrationTest;
+import com.customer.api.customer_api.config.CustomerApiProperties;
+import com.customer.api.customer_api.model.AppliedTierPolicy;
+import com.customer.api.customer_api.model.Customer;
+import com.customer.api.customer_api.model.Tier;
+import com.customer.api.customer_api.repository.AppliedTierPolicyRepository;
+import com.customer.api.customer_api.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TierRecomputeJobTest extends CustomerApiIntegrationTest {
+
+    @Autowired
+    private TierRecomputeJob job;
+
+    @Autowired
+    private CustomerRepository repository;
+
+    @Autowired
+    private AppliedTierPolicyRepository appliedPolicyRepository;
+
+    @Autowired
+    private TierPolicy tierPolicy;
+
+    @Autowired
+    private CustomerApiProperties properties;
+
+    private int originalChunkSize;
+
+    @BeforeEach
+    void setup() {
+        deleteAllCustomers();
+        originalChunkSize = properties.getTier().getRecomputeChunkSize();
+        properties.getTier().setRecomputeChunkSize(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        properties.getTier().setRecomputeChunkSize(originalChunkSize);
+        deleteAllCustomers();
+    }
+
+    @Test
+    void testOnlyLapsedTiersAreRecomputed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Customer> lapsed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            lapsed.add(Customer.builder().name("Lapsed " + i).email("lapsed" + i + "@example.com")
+                    .annualSpend(new BigDecimal("5000")).lastPurchaseDate(now.minusMonths(13))
+                    .tier(Tier.GOLD).tierValidUntil(now.minusMonths(1)).build());
+        }
+        repository.saveAll(lapsed);
+        Customer current = repository.save(Customer.builder().name("Current").email("current@example.com")
+                .annualSpend(new BigDecimal("5000")).lastPurchaseDate(now.minusMonths(1))
+                .tier(Tier.GOLD).tierValidUntil(now.plusMonths(11)).build());
+
+        assertEquals(5, job.recomputeLapsedTiers());
+
+        for (Customer customer : repository.findAll()) {
+            if (customer.getId().equals(current.getId())) {
+                assertEquals(Tier.GOLD, customer.getTier());
+            } else {
+                assertEquals(Tier.SILVER, customer.getTier());
+                assertNull(customer.getTierValidUntil());
+            }
+        }
+        assertEquals(0, job.recomputeLapsedTiers());
+    }
+
+    @Test
+    void testEveryTierIsRecomputedWhenThePolicyChanges() {
+        // Tiers stored under a policy with a Platinum threshold of 5000
+        appliedPolicyRepository.save(new AppliedTierPolicy(AppliedTierPolicy.ID,
+                "platinum>=5000 within P6M, gold>=1000 within P12M"));
+        LocalDateTime now = LocalDateTime.now();
+        Customer demoted = repository.save(Customer.builder().name("Demoted").email("demoted@example.com")
+                .annualSpend(new BigDecimal("5000")).lastPurchaseDate(now.minusMonths(1))
+                .tier(Tier.PLATINUM).tierValidUntil(now.plusMonths(5)).build());
+        Customer unchanged = repository.save(Customer.builder().name("Unchanged").email("unchanged@example.com")
+                .annualSpend(new BigDecimal("500")).lastPurchaseDate(now.minusMonths(1))
+                .tier(Tier.SILVER).build());
+        // Enough rows to expire them over several chunks
+        for (int i = 0; i < 3; i++) {
+            repository.save(Customer.builder().name("Silver " + i).email("silver" + i + "@example.com")
+                    .annualSpend(new BigDecimal("500")).tier(Tier.SILVER).build());
+        }
+
+        assertEquals(5, job.recomputeIfPolicyChanged());
+
+        assertEquals(Tier.GOLD, repository.findById(demoted.getId()).orElseThrow().getTier());
+        Customer silver = repository.findById(unchanged.getId()).orElseThrow();
+        assertEquals(Tier.SILVER, silver.getTier());
+        assertNull(silver.getTierValidUntil());
+        assertEquals(tierPolicy.fingerprint(),
+                appliedPolicyRepository.findById(AppliedTierPolicy.ID).orElseThrow().getFingerprint());
+        assertEquals(0, job.recomputeIfPolicyChanged());
+    }
+}